@@ -12,12 +12,26 @@ repositories {
 val natives: Configuration by configurations.creating
 natives.isTransitive = true
 
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets["main"].output
+        runtimeClasspath += sourceSets["main"].output
+    }
+}
+
+val jmhImplementation: Configuration by configurations.getting {
+    extendsFrom(configurations["implementation"])
+}
+
 dependencies {
     implementation(group = "org.lwjgl.lwjgl", name = "lwjgl", version = "2.9.3")
     implementation(group = "org.lwjgl.lwjgl", name = "lwjgl_util", version = "2.9.3")
     natives(group = "org.lwjgl.lwjgl", name = "lwjgl-platform", version = "2.9.3", classifier = "natives-windows")
     natives(group = "org.lwjgl.lwjgl", name = "lwjgl-platform", version = "2.9.3", classifier = "natives-linux")
     natives(group = "org.lwjgl.lwjgl", name = "lwjgl-platform", version = "2.9.3", classifier = "natives-osx")
+
+    jmhImplementation(group = "org.openjdk.jmh", name = "jmh-core", version = "1.37")
+    "jmhAnnotationProcessor"(group = "org.openjdk.jmh", name = "jmh-generator-annprocess", version = "1.37")
 }
 
 
@@ -33,4 +47,34 @@ task("extractNatives", Copy::class) {
     dependsOn(natives)
     from(natives.map { zipTree(it) })
     into("${project.projectDir.toPath()}\\run\\natives")
-}
\ No newline at end of file
+}
+
+// Run the benchmarks, e.g. gradlew jmh -Pjmh.include=LevelBenchmark -Pjmh.params="size=256x256x64;seed=1,2"
+task("jmh", JavaExec::class) {
+    val resultFile = file("${buildDir}/reports/jmh/results.json")
+
+    mainClass.set("org.openjdk.jmh.Main")
+    classpath = sourceSets["jmh"].runtimeClasspath
+    dependsOn("jmhClasses")
+
+    val include = project.findProperty("jmh.include")?.toString() ?: ".*"
+    val params = project.findProperty("jmh.params")?.toString()
+        ?.split(";")
+        ?.filter { it.isNotBlank() }
+        ?.flatMap { listOf("-p", it) }
+        ?: emptyList()
+
+    args = listOf(include, "-rf", "json", "-rff", resultFile.path) + params
+    doFirst { resultFile.parentFile.mkdirs() }
+}
+
+// Compare the chunk mesh output of a fixed seed with the known vertex counts
+task("meshCheck", JavaExec::class) {
+    mainClass.set("com.mojang.minecraft.level.MeshCheck")
+    classpath = sourceSets["jmh"].runtimeClasspath
+    dependsOn("jmhClasses")
+}
+
+tasks.named("check") {
+    dependsOn("meshCheck")
+}
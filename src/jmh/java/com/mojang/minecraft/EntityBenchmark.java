@@ -0,0 +1,153 @@
+package com.mojang.minecraft;
+
+import com.mojang.minecraft.character.Zombie;
+import com.mojang.minecraft.character.ZombieSwarm;
+import com.mojang.minecraft.level.BenchmarkLevels;
+import com.mojang.minecraft.level.Level;
+import com.mojang.minecraft.phys.AABB;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityBenchmark {
+
+    @Param({"256x256x64"})
+    public String size;
+
+    @Param({"1"})
+    public long seed;
+
+    @Param({"1", "100", "1000"})
+    public int entities;
+
+    /**
+     * Radius of the neighbour queries
+     */
+    private static final double NEIGHBOUR_RADIUS = 2.0;
+
+    private Level level;
+    private Zombie[] zombies;
+    private SpatialHash<Zombie> zombieHash;
+    private ZombieSwarm swarm;
+
+    private final AABB neighbourBox = new AABB(0.0, 0.0, 0.0, 0.0, 0.0, 0.0);
+    private final Consumer<Zombie> neighbourCounter = zombie -> this.neighbours++;
+    private int neighbours;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setupLevel() {
+        this.level = BenchmarkLevels.create(this.size, this.seed);
+    }
+
+    /**
+     * Spawn the entities again, so every iteration moves falling and walking entities
+     */
+    @Setup(org.openjdk.jmh.annotations.Level.Iteration)
+    public void setupEntities() {
+        Random random = new Random(this.seed);
+
+        this.zombies = new Zombie[this.entities];
+        this.zombieHash = new SpatialHash<>(4096);
+        this.swarm = new ZombieSwarm(this.level, this.seed);
+        for (int i = 0; i < this.entities; i++) {
+            double x = random.nextDouble() * this.level.width;
+            double y = this.level.depth * random.nextDouble();
+            double z = random.nextDouble() * this.level.height;
+
+            Zombie zombie = new Zombie(this.level, x, y, z);
+            zombie.motionX = (random.nextDouble() - 0.5) * 0.2;
+            zombie.motionZ = (random.nextDouble() - 0.5) * 0.2;
+            this.zombies[i] = zombie;
+            this.zombieHash.add(zombie);
+            this.swarm.spawn(x, y, z);
+        }
+    }
+
+    /**
+     * Move all entities by one tick of motion with gravity and collision
+     */
+    @Benchmark
+    public double move() {
+        double sum = 0;
+        for (Zombie zombie : this.zombies) {
+            zombie.motionY -= 0.005;
+            zombie.move(zombie.motionX, zombie.motionY, zombie.motionZ);
+            sum += zombie.y;
+        }
+        return sum;
+    }
+
+    /**
+     * Tick all entities as zombie objects
+     */
+    @Benchmark
+    public double tickZombies() {
+        double sum = 0;
+        for (Zombie zombie : this.zombies) {
+            zombie.onTick();
+            sum += zombie.y;
+        }
+        return sum;
+    }
+
+    /**
+     * Tick all entities in the arrays of a zombie swarm
+     */
+    @Benchmark
+    public int tickSwarm() {
+        this.swarm.onTick();
+        return this.swarm.size();
+    }
+
+    /**
+     * Count the neighbours of every entity with the spatial hash
+     */
+    @Benchmark
+    public int neighboursSpatialHash() {
+        this.neighbours = 0;
+        for (Zombie zombie : this.zombies) {
+            AABB box = zombie.boundingBox;
+            this.neighbourBox.set(box.minX - NEIGHBOUR_RADIUS, box.minY - NEIGHBOUR_RADIUS, box.minZ - NEIGHBOUR_RADIUS,
+                    box.maxX + NEIGHBOUR_RADIUS, box.maxY + NEIGHBOUR_RADIUS, box.maxZ + NEIGHBOUR_RADIUS);
+            this.zombieHash.forEachInBox(this.neighbourBox, this.neighbourCounter);
+        }
+        return this.neighbours;
+    }
+
+    /**
+     * Count the neighbours of every entity by testing all pairs, the baseline of the spatial hash
+     */
+    @Benchmark
+    public int neighboursLinear() {
+        int neighbours = 0;
+        for (Zombie zombie : this.zombies) {
+            AABB box = zombie.boundingBox;
+            this.neighbourBox.set(box.minX - NEIGHBOUR_RADIUS, box.minY - NEIGHBOUR_RADIUS, box.minZ - NEIGHBOUR_RADIUS,
+                    box.maxX + NEIGHBOUR_RADIUS, box.maxY + NEIGHBOUR_RADIUS, box.maxZ + NEIGHBOUR_RADIUS);
+            for (Zombie other : this.zombies) {
+                if (other.boundingBox.intersects(this.neighbourBox)) {
+                    neighbours++;
+                }
+            }
+        }
+        return neighbours;
+    }
+}
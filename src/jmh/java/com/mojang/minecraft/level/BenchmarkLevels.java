@@ -0,0 +1,56 @@
+package com.mojang.minecraft.level;
+
+public class BenchmarkLevels {
+
+    /**
+     * Parse a level size parameter
+     *
+     * @param size Level size as "width x height x depth", e.g. "256x256x64"
+     * @return Width, height and depth
+     */
+    public static int[] parseSize(String size) {
+        String[] parts = size.split("x");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid level size: " + size);
+        }
+        return new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2])};
+    }
+
+    /**
+     * Generate a level without loading or saving level.dat
+     *
+     * @param size Level size as "width x height x depth"
+     * @param seed Seed of the terrain generator
+     * @return The generated level
+     */
+    public static Level create(String size, long seed) {
+        int[] dimension = parseSize(size);
+        return new Level(dimension[0], dimension[1], dimension[2], seed);
+    }
+
+    /**
+     * Split a level into 16x16x16 chunks like the level renderer, without any OpenGL resources
+     *
+     * @param level The level
+     * @return All chunks of the level
+     */
+    public static Chunk[] createChunks(Level level) {
+        int chunkAmountX = (level.width + 15) / 16;
+        int chunkAmountY = (level.depth + 15) / 16;
+        int chunkAmountZ = (level.height + 15) / 16;
+
+        DirtyChunkQueue dirtyChunkQueue = new DirtyChunkQueue();
+        Chunk[] chunks = new Chunk[chunkAmountX * chunkAmountY * chunkAmountZ];
+
+        int index = 0;
+        for (int x = 0; x < chunkAmountX; x++) {
+            for (int y = 0; y < chunkAmountY; y++) {
+                for (int z = 0; z < chunkAmountZ; z++) {
+                    chunks[index++] = new Chunk(level, dirtyChunkQueue, x * 16, y * 16, z * 16,
+                            Math.min(level.width, (x + 1) * 16), Math.min(level.depth, (y + 1) * 16), Math.min(level.height, (z + 1) * 16));
+                }
+            }
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,71 @@
+package com.mojang.minecraft.level;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkBenchmark {
+
+    @Param({"128x128x64", "256x256x64"})
+    public String size;
+
+    @Param({"1"})
+    public long seed;
+
+    @Param({"true", "false"})
+    public boolean greedy;
+
+    private Chunk[] chunks;
+    private final MeshBuffer meshBuffer = new MeshBuffer();
+    private GreedyMesher greedyMesher;
+    private final ChunkVisibility chunkVisibility = new ChunkVisibility();
+    private int index;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setup() {
+        Level level = BenchmarkLevels.create(this.size, this.seed);
+        this.chunks = BenchmarkLevels.createChunks(level);
+        this.greedyMesher = this.greedy ? new GreedyMesher() : null;
+    }
+
+    /**
+     * Rebuild the mesh of the next chunk like a chunk builder thread, including the visibility graph
+     */
+    @Benchmark
+    public Chunk rebuildChunk() {
+        Chunk chunk = this.chunks[this.index];
+        this.index = (this.index + 1) % this.chunks.length;
+
+        chunk.build(this.meshBuffer, this.greedyMesher, this.chunkVisibility);
+        return chunk;
+    }
+
+    /**
+     * Rebuild the mesh of all chunks in the level
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int rebuildLevel() {
+        int vertices = 0;
+        for (Chunk chunk : this.chunks) {
+            vertices += chunk.build(this.meshBuffer, this.greedyMesher).getVertices();
+        }
+        return vertices;
+    }
+}
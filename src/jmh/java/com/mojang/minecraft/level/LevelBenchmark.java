@@ -0,0 +1,130 @@
+package com.mojang.minecraft.level;
+
+import com.mojang.minecraft.level.tile.Tile;
+import com.mojang.minecraft.phys.AABB;
+import com.mojang.minecraft.phys.AABBBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelBenchmark {
+
+    private static final int POSITIONS = 4096;
+
+    @Param({"128x128x64", "256x256x64", "512x512x64"})
+    public String size;
+
+    @Param({"1"})
+    public long seed;
+
+    private Level level;
+
+    /**
+     * Random positions in the level and near the surface
+     */
+    private final int[] positionX = new int[POSITIONS];
+    private final int[] positionY = new int[POSITIONS];
+    private final int[] positionZ = new int[POSITIONS];
+    private final int[] surfaceY = new int[POSITIONS];
+    private final AABB[] boxes = new AABB[POSITIONS];
+    private final AABBBuffer cubes = new AABBBuffer();
+    private int index;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setup() {
+        this.level = BenchmarkLevels.create(this.size, this.seed);
+
+        Random random = new Random(this.seed);
+        for (int i = 0; i < POSITIONS; i++) {
+            int x = random.nextInt(this.level.width);
+            int z = random.nextInt(this.level.height);
+            this.positionX[i] = x;
+            this.positionY[i] = random.nextInt(this.level.depth);
+            this.positionZ[i] = z;
+
+            // First air tile above the terrain
+            int y = this.level.depth - 1;
+            while (y > 0 && this.level.getTile(x, y - 1, z) == 0) {
+                y--;
+            }
+            this.surfaceY[i] = y;
+
+            // Entity on the surface, expanded by a tick of motion like in Entity.move
+            this.boxes[i] = new AABB(x + 0.2, y, z + 0.2, x + 0.8, y + 1.8, z + 0.8).expand(0.1, -0.5, 0.1);
+        }
+    }
+
+    private int next() {
+        return this.index = (this.index + 1) & (POSITIONS - 1);
+    }
+
+    @Benchmark
+    public int getTile() {
+        int i = next();
+        return this.level.getTile(this.positionX[i], this.positionY[i], this.positionZ[i]);
+    }
+
+    /**
+     * Place and remove a tile on the surface, includes the light update
+     */
+    @Benchmark
+    public boolean setTile() {
+        int i = next();
+        boolean placed = this.level.setTile(this.positionX[i], this.surfaceY[i], this.positionZ[i], Tile.rock.id);
+        boolean removed = this.level.setTile(this.positionX[i], this.surfaceY[i], this.positionZ[i], 0);
+
+        // Process the queued light changes of both edits in one pass, like a single tick
+        this.level.updateLight();
+        return placed & removed;
+    }
+
+    /**
+     * Place and remove a tile on the surface with a light propagation after each change, like two separate ticks
+     */
+    @Benchmark
+    public boolean updateLight() {
+        int i = next();
+        boolean placed = this.level.setTile(this.positionX[i], this.surfaceY[i], this.positionZ[i], Tile.rock.id);
+        this.level.updateLight();
+        boolean removed = this.level.setTile(this.positionX[i], this.surfaceY[i], this.positionZ[i], 0);
+        this.level.updateLight();
+        return placed & removed;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void calcLightDepths() {
+        this.level.calcLightDepths(0, 0, this.level.width, this.level.height);
+    }
+
+    /**
+     * Random ticks of a game tick, only sections with grass or bushes are sampled
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void onTick() {
+        this.level.onTick();
+    }
+
+    @Benchmark
+    public int getCubes() {
+        return this.level.getCubes(this.boxes[next()], this.cubes);
+    }
+}
@@ -0,0 +1,80 @@
+package com.mojang.minecraft.level;
+
+import com.mojang.minecraft.level.tile.Tile;
+
+public class MeshCheck {
+
+    /**
+     * Level of the check, generated from a fixed seed
+     */
+    private static final String SIZE = "128x128x64";
+    private static final long SEED = 1L;
+
+    /**
+     * Expected vertex counts of the whole level without and with the greedy mesher
+     */
+    private static final int EXPECTED_VERTICES = 241848;
+    private static final int EXPECTED_GREEDY_VERTICES = 24896;
+
+    /**
+     * Regression check of the chunk mesh output. Builds every chunk of a generated level into a mesh buffer
+     * and compares the vertex counts with the known counts of the fixed seed.
+     * Any change of the terrain generator, the tile renderers or the greedy mesher shows up as a mismatch,
+     * intended changes have to update the expected counts.
+     *
+     * @param args Unused
+     */
+    public static void main(String[] args) {
+        Level level = BenchmarkLevels.create(SIZE, SEED);
+
+        // The generated terrain has no overhangs, a roof adds faces in the shadow with lower light levels
+        for (int x = 8; x < 40; x++) {
+            for (int z = 8; z < 40; z++) {
+                level.setTile(x, level.depth - 2, z, Tile.stoneBrick.id);
+            }
+        }
+        level.updateLight();
+
+        Chunk[] chunks = BenchmarkLevels.createChunks(level);
+
+        int vertices = countVertices(chunks, null);
+        int greedyVertices = countVertices(chunks, new GreedyMesher());
+
+        System.out.println("Vertices: " + vertices);
+        System.out.println("Greedy vertices: " + greedyVertices);
+
+        // Compare with the expected counts
+        boolean failed = check("Mesh", vertices, EXPECTED_VERTICES);
+        failed |= check("Greedy mesh", greedyVertices, EXPECTED_GREEDY_VERTICES);
+
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    private static int countVertices(Chunk[] chunks, GreedyMesher greedyMesher) {
+        MeshBuffer meshBuffer = new MeshBuffer();
+        int vertices = 0;
+
+        for (Chunk chunk : chunks) {
+            ChunkMesh mesh = chunk.build(meshBuffer, greedyMesher);
+
+            // Every face is a quad
+            if (mesh.getVertices() % 4 != 0) {
+                throw new IllegalStateException("Incomplete quad in chunk mesh");
+            }
+            vertices += mesh.getVertices();
+        }
+        return vertices;
+    }
+
+    private static boolean check(String name, int actual, int expected) {
+        if (actual == expected) {
+            return false;
+        }
+
+        System.err.println(name + ": expected " + expected + " vertices (" + expected / 4 + " quads), got "
+                + actual + " (" + actual / 4 + " quads)");
+        return true;
+    }
+}
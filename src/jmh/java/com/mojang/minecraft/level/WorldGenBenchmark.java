@@ -0,0 +1,46 @@
+package com.mojang.minecraft.level;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorldGenBenchmark {
+
+    @Param({"128x128x64", "256x256x64", "512x512x64"})
+    public String size;
+
+    @Param({"1", "2"})
+    public long seed;
+
+    @Param({"0", "1"})
+    public int octave;
+
+    @Benchmark
+    public int[] perlinNoise() {
+        int[] dimension = BenchmarkLevels.parseSize(this.size);
+        return new PerlinNoiseFilter(this.octave, this.seed).read(dimension[0], dimension[1]);
+    }
+
+    /**
+     * Generate the terrain and calculate the light depths of a new level
+     */
+    @Benchmark
+    public Level generateLevel() {
+        return BenchmarkLevels.create(this.size, this.seed);
+    }
+}
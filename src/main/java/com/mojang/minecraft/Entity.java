@@ -2,19 +2,35 @@ package com.mojang.minecraft;
 
 import com.mojang.minecraft.level.Level;
 import com.mojang.minecraft.phys.AABB;
+import com.mojang.minecraft.phys.AABBBuffer;
 
-import java.util.List;
+import java.util.SplittableRandom;
 
 public abstract class Entity {
 
+    /**
+     * Tile bounding boxes of the collision check, reused by all entities of a thread
+     */
+    private static final ThreadLocal<AABBBuffer> COLLISION_BOXES = ThreadLocal.withInitial(AABBBuffer::new);
+
     private final Level level;
 
+    /**
+     * Random stream of this entity, ticks must not use a shared generator
+     */
+    protected final SplittableRandom random;
+
     public double x, y, z;
     public double prevX, prevY, prevZ;
     public double motionX, motionY, motionZ;
     public float xRotation, yRotation;
 
     public AABB boundingBox;
+
+    /**
+     * Bounding box expanded by the motion of the current move
+     */
+    private final AABB movementBox = new AABB(0.0, 0.0, 0.0, 0.0, 0.0, 0.0);
     protected float boundingBoxWidth = 0.6F;
     protected float boundingBoxHeight = 1.8F;
 
@@ -23,6 +39,15 @@ public abstract class Entity {
 
     public boolean removed;
 
+    /**
+     * Membership in a spatial hash, maintained by the hash
+     */
+    SpatialHash<?> spatialHash;
+    long spatialCell;
+    int spatialBucket = -1;
+    Entity spatialPrev;
+    Entity spatialNext;
+
     /**
      * Entity with physics
      *
@@ -30,6 +55,7 @@ public abstract class Entity {
      */
     public Entity(Level level) {
         this.level = level;
+        this.random = level.createEntityRandom();
 
         resetPosition();
     }
@@ -52,18 +78,25 @@ public abstract class Entity {
         float height = this.boundingBoxHeight / 2.0F;
 
         // Set the position of the bounding box
-        this.boundingBox = new AABB(x - width, y - height,
-                z - width, x + width,
-                y + height, z + width);
+        if (this.boundingBox == null) {
+            this.boundingBox = new AABB(x - width, y - height, z - width, x + width, y + height, z + width);
+        } else {
+            this.boundingBox.set(x - width, y - height, z - width, x + width, y + height, z + width);
+        }
+
+        // Update the cell in the spatial hash
+        if (this.spatialHash != null) {
+            this.spatialHash.update(this);
+        }
     }
 
     /**
      * Reset the position of the entity to a random location on the level
      */
     protected void resetPosition() {
-        float x = (float) Math.random() * this.level.width;
+        float x = (float) this.random.nextDouble() * this.level.width;
         float y = (float) (this.level.depth + 3);
-        float z = (float) Math.random() * this.level.height;
+        float z = (float) this.random.nextDouble() * this.level.height;
 
         setPosition(x, y, z);
     }
@@ -119,43 +152,30 @@ public abstract class Entity {
      * @param z Relative z
      */
     public void move(double x, double y, double z) {
-        double prevX = x;
-        double prevY = y;
-        double prevZ = z;
-
         // Get surrounded tiles
-        List<AABB> aABBs = this.level.getCubes(this.boundingBox.expand(x, y, z));
+        AABBBuffer boxes = COLLISION_BOXES.get();
+        this.level.getCubes(this.boundingBox.expand(x, y, z, this.movementBox), boxes);
 
-        // Check for Y collision
-        for (AABB abb : aABBs) {
-            y = abb.clipYCollide(this.boundingBox, y);
-        }
-        this.boundingBox.move(0.0F, y, 0.0F);
-
-        // Check for X collision
-        for (AABB aABB : aABBs) {
-            x = aABB.clipXCollide(this.boundingBox, x);
-        }
-        this.boundingBox.move(x, 0.0F, 0.0F);
-
-        // Check for Z collision
-        for (AABB aABB : aABBs) {
-            z = aABB.clipZCollide(this.boundingBox, z);
-        }
-        this.boundingBox.move(0.0F, 0.0F, z);
+        // Move the bounding box as far as the tiles allow
+        int collided = boxes.clipMove(this.boundingBox, x, y, z);
 
         // Update on ground state
-        this.onGround = prevY != y && prevY < 0.0F;
+        this.onGround = (collided & AABBBuffer.COLLIDED_Y) != 0 && y < 0.0F;
 
         // Stop motion on collision
-        if (prevX != x) this.motionX = 0.0D;
-        if (prevY != y) this.motionY = 0.0D;
-        if (prevZ != z) this.motionZ = 0.0D;
+        if ((collided & AABBBuffer.COLLIDED_X) != 0) this.motionX = 0.0D;
+        if ((collided & AABBBuffer.COLLIDED_Y) != 0) this.motionY = 0.0D;
+        if ((collided & AABBBuffer.COLLIDED_Z) != 0) this.motionZ = 0.0D;
 
         // Move the actual entity position
         this.x = (this.boundingBox.minX + this.boundingBox.maxX) / 2.0D;
         this.y = this.boundingBox.minY + this.heightOffset;
         this.z = (this.boundingBox.minZ + this.boundingBox.maxZ) / 2.0D;
+
+        // Update the cell in the spatial hash
+        if (this.spatialHash != null) {
+            this.spatialHash.update(this);
+        }
     }
 
 
@@ -167,16 +187,15 @@ public abstract class Entity {
      * @param speed Strength of the added motion
      */
     protected void moveRelative(float x, float z, float speed) {
-        float distance = x * x + z * z;
+        float factor = getRelativeMotionFactor(x, z, speed);
 
         // Stop moving if too slow
-        if (distance < 0.01F)
+        if (factor == 0.0F)
             return;
 
         // Apply speed to relative movement
-        distance = speed / (float) Math.sqrt(distance);
-        x *= distance;
-        z *= distance;
+        x *= factor;
+        z *= factor;
 
         // Calculate sin and cos of entity rotation
         double sin = Math.sin(Math.toRadians(this.yRotation));
@@ -188,11 +207,51 @@ public abstract class Entity {
     }
 
     /**
-     * Is entity in sun
+     * Scale of a relative movement input, so the added motion has the given speed in any direction
+     *
+     * @param x     Movement input on X axis
+     * @param z     Movement input on Z axis
+     * @param speed Strength of the added motion
+     * @return Factor of the input, 0 if the input is too small to move
+     */
+    public static float getRelativeMotionFactor(float x, float z, float speed) {
+        float distance = x * x + z * z;
+        return distance < 0.01F ? 0.0F : speed / (float) Math.sqrt(distance);
+    }
+
+    /**
+     * Rotation of the entity model around the vertical axis
+     *
+     * @return Rotation in radians
+     */
+    public double getModelRotation() {
+        return Math.toRadians(this.yRotation);
+    }
+
+    /**
+     * Offset of the model animation, so entities of the same type don't move in sync
+     *
+     * @return Animation time offset
+     */
+    public float getAnimationOffset() {
+        return 0.0F;
+    }
+
+    /**
+     * Speed factor of the model animation
+     *
+     * @return Animation speed
+     */
+    public float getAnimationSpeed() {
+        return 1.0F;
+    }
+
+    /**
+     * Brightness of the light level at the entity position
      *
-     * @return Entity is in sunlight
+     * @return Brightness factor (0.0 - 1.0)
      */
-    public boolean isLit() {
-        return this.level.isLit((int) this.x, (int) this.y, (int) this.z);
+    public float getBrightness() {
+        return this.level.getBrightness((int) Math.floor(this.x), (int) Math.floor(this.y), (int) Math.floor(this.z));
     }
 }
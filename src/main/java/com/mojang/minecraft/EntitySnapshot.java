@@ -0,0 +1,202 @@
+package com.mojang.minecraft;
+
+import com.mojang.minecraft.level.Frustum;
+
+import java.util.Arrays;
+
+public class EntitySnapshot<T extends Entity> {
+
+    /**
+     * Previous position, position, bounding box minimum and bounding box maximum
+     */
+    private static final int STRIDE = 3 * 4;
+
+    private Entity[] entities = new Entity[16];
+    private double[] positions = new double[16 * STRIDE];
+    private float[] brightness = new float[16];
+    private double[] rotations = new double[16];
+    private float[] animationOffsets = new float[16];
+    private float[] animationSpeeds = new float[16];
+    private int size;
+
+    /**
+     * Positions of a group of entities at the end of a tick.
+     * The simulation thread captures the entities, the render thread interpolates between the captured positions
+     * while the next tick already moves the entities.
+     */
+    public EntitySnapshot() {
+    }
+
+    /**
+     * Remove all captured entities
+     */
+    public void clear() {
+        Arrays.fill(this.entities, 0, this.size, null);
+        this.size = 0;
+    }
+
+    /**
+     * Capture the current state of an entity. Has to be called on the simulation thread
+     *
+     * @param entity The entity
+     */
+    public void add(T entity) {
+        ensureCapacity(this.size + 1);
+
+        int offset = this.size * STRIDE;
+        this.positions[offset] = entity.prevX;
+        this.positions[offset + 1] = entity.prevY;
+        this.positions[offset + 2] = entity.prevZ;
+        this.positions[offset + 3] = entity.x;
+        this.positions[offset + 4] = entity.y;
+        this.positions[offset + 5] = entity.z;
+        this.positions[offset + 6] = entity.boundingBox.minX;
+        this.positions[offset + 7] = entity.boundingBox.minY;
+        this.positions[offset + 8] = entity.boundingBox.minZ;
+        this.positions[offset + 9] = entity.boundingBox.maxX;
+        this.positions[offset + 10] = entity.boundingBox.maxY;
+        this.positions[offset + 11] = entity.boundingBox.maxZ;
+
+        this.entities[this.size] = entity;
+        this.brightness[this.size] = entity.getBrightness();
+        this.rotations[this.size] = entity.getModelRotation();
+        this.animationOffsets[this.size] = entity.getAnimationOffset();
+        this.animationSpeeds[this.size] = entity.getAnimationSpeed();
+        this.size++;
+    }
+
+    /**
+     * Replace the content with a copy of another snapshot
+     *
+     * @param snapshot The snapshot to copy
+     */
+    public void copyFrom(EntitySnapshot<T> snapshot) {
+        clear();
+        ensureCapacity(snapshot.size);
+
+        System.arraycopy(snapshot.entities, 0, this.entities, 0, snapshot.size);
+        System.arraycopy(snapshot.positions, 0, this.positions, 0, snapshot.size * STRIDE);
+        System.arraycopy(snapshot.brightness, 0, this.brightness, 0, snapshot.size);
+        System.arraycopy(snapshot.rotations, 0, this.rotations, 0, snapshot.size);
+        System.arraycopy(snapshot.animationOffsets, 0, this.animationOffsets, 0, snapshot.size);
+        System.arraycopy(snapshot.animationSpeeds, 0, this.animationSpeeds, 0, snapshot.size);
+        this.size = snapshot.size;
+    }
+
+    /**
+     * Amount of captured entities
+     *
+     * @return Entity count
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Get a captured entity, its state belongs to the simulation thread and must not be read while rendering
+     *
+     * @param index Index in the snapshot
+     * @return The entity
+     */
+    @SuppressWarnings("unchecked")
+    public T getEntity(int index) {
+        return (T) this.entities[index];
+    }
+
+    /**
+     * Brightness of the light level at the entity at the end of the tick
+     *
+     * @param index Index in the snapshot
+     * @return Brightness factor (0.0 - 1.0)
+     */
+    public float getBrightness(int index) {
+        return this.brightness[index];
+    }
+
+    /**
+     * Model rotation of the entity at the end of the tick
+     *
+     * @param index Index in the snapshot
+     * @return Rotation in radians
+     */
+    public double getRotation(int index) {
+        return this.rotations[index];
+    }
+
+    /**
+     * Model animation time of the entity
+     *
+     * @param index   Index in the snapshot
+     * @param seconds Current time in seconds
+     * @return Animation time including the speed and the offset of the entity
+     */
+    public double getAnimationTime(int index, double seconds) {
+        return seconds * 10.0 * this.animationSpeeds[index] + this.animationOffsets[index];
+    }
+
+    /**
+     * Interpolated position x
+     *
+     * @param index        Index in the snapshot
+     * @param partialTicks Overflow ticks to interpolate
+     * @return Position x between the previous and the captured position
+     */
+    public double getX(int index, float partialTicks) {
+        return interpolate(index * STRIDE, partialTicks);
+    }
+
+    /**
+     * Interpolated position y
+     *
+     * @param index        Index in the snapshot
+     * @param partialTicks Overflow ticks to interpolate
+     * @return Position y between the previous and the captured position
+     */
+    public double getY(int index, float partialTicks) {
+        return interpolate(index * STRIDE + 1, partialTicks);
+    }
+
+    /**
+     * Interpolated position z
+     *
+     * @param index        Index in the snapshot
+     * @param partialTicks Overflow ticks to interpolate
+     * @return Position z between the previous and the captured position
+     */
+    public double getZ(int index, float partialTicks) {
+        return interpolate(index * STRIDE + 2, partialTicks);
+    }
+
+    /**
+     * Check if the captured bounding box is in the frustum
+     *
+     * @param index   Index in the snapshot
+     * @param frustum Frustum of the camera
+     * @return Bounding box is visible
+     */
+    public boolean isVisible(int index, Frustum frustum) {
+        int offset = index * STRIDE + 6;
+        return frustum.cubeInFrustum(
+                (float) this.positions[offset], (float) this.positions[offset + 1], (float) this.positions[offset + 2],
+                (float) this.positions[offset + 3], (float) this.positions[offset + 4], (float) this.positions[offset + 5]);
+    }
+
+    private double interpolate(int offset, float partialTicks) {
+        double prev = this.positions[offset];
+        return prev + (this.positions[offset + 3] - prev) * partialTicks;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= this.entities.length) {
+            return;
+        }
+
+        int length = Math.max(capacity, this.entities.length * 2);
+        this.entities = Arrays.copyOf(this.entities, length);
+        this.positions = Arrays.copyOf(this.positions, length * STRIDE);
+        this.brightness = Arrays.copyOf(this.brightness, length);
+        this.rotations = Arrays.copyOf(this.rotations, length);
+        this.animationOffsets = Arrays.copyOf(this.animationOffsets, length);
+        this.animationSpeeds = Arrays.copyOf(this.animationSpeeds, length);
+    }
+}
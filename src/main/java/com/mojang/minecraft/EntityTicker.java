@@ -0,0 +1,65 @@
+package com.mojang.minecraft;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class EntityTicker {
+
+    /**
+     * Entities per parallel task
+     */
+    private static final int BATCH_SIZE = 256;
+
+    /**
+     * Lists of two or more batches are ticked in parallel, a single batch is ticked on the calling thread
+     */
+    private static final int MIN_PARALLEL_BATCHES = 2;
+
+    private EntityTicker() {
+    }
+
+    /**
+     * Tick all entities and remove the removed entities at the end of the tick.
+     * Lists of two or more batches are ticked in parallel on the common fork join pool.
+     * An entity tick may only change the entity itself and read the level, it must not add or remove entities.
+     * Every entity draws from its own random stream, so the result doesn't depend on the order or the threads.
+     *
+     * @param entities    Entities to tick, removed entities are taken out of the list in order
+     * @param spatialHash Spatial hash of the entities, the cells are updated after the parallel ticks. Can be null
+     * @param <T>         Type of the entities
+     */
+    public static <T extends Entity> void tick(List<T> entities, SpatialHash<T> spatialHash) {
+        int size = entities.size();
+        int batches = (size + BATCH_SIZE - 1) / BATCH_SIZE;
+
+        if (batches >= MIN_PARALLEL_BATCHES) {
+            // The hash isn't thread-safe, entities keep their cells until all batches are done
+            if (spatialHash != null) {
+                spatialHash.freeze();
+            }
+
+            IntStream.range(0, batches).parallel().forEach(batch -> {
+                int end = Math.min(size, (batch + 1) * BATCH_SIZE);
+                for (int i = batch * BATCH_SIZE; i < end; i++) {
+                    entities.get(i).onTick();
+                }
+            });
+
+            if (spatialHash != null) {
+                spatialHash.unfreeze(entities);
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                entities.get(i).onTick();
+            }
+        }
+
+        // Apply the removals of this tick
+        entities.removeIf(entity -> {
+            if (entity.removed && spatialHash != null) {
+                spatialHash.remove(entity);
+            }
+            return entity.removed;
+        });
+    }
+}
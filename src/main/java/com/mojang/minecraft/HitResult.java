@@ -26,4 +26,21 @@ public class HitResult {
         this.z = z;
         this.face = face;
     }
+
+    /**
+     * Replace the target tile, allows to reuse the result every frame
+     *
+     * @param type Type of result
+     * @param x    Tile position x
+     * @param y    Tile position y
+     * @param z    Tile position z
+     * @param face Face id of the tile
+     */
+    public void set(int type, int x, int y, int z, int face) {
+        this.type = type;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.face = face;
+    }
 }
@@ -1,6 +1,8 @@
 package com.mojang.minecraft;
 
 import com.mojang.minecraft.character.Zombie;
+import com.mojang.minecraft.character.ZombieModel;
+import com.mojang.minecraft.character.ZombieSwarm;
 import com.mojang.minecraft.level.*;
 import com.mojang.minecraft.level.tile.Tile;
 import com.mojang.minecraft.particle.ParticleEngine;
@@ -14,38 +16,60 @@ import org.lwjgl.opengl.DisplayMode;
 import javax.swing.*;
 import java.awt.*;
 import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
+import java.util.SplittableRandom;
 
 import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.util.glu.GLU.gluPerspective;
-import static org.lwjgl.util.glu.GLU.gluPickMatrix;
 
 public class Minecraft implements Runnable {
 
-    private final Timer timer = new Timer(20);
+    /**
+     * Game ticks between two background saves of the level (One minute)
+     */
+    private static final int AUTOSAVE_INTERVAL = 20 * 60;
+
+    private static final int TICKS_PER_SECOND = 20;
+    private static final long NS_PER_TICK = 1000000000L / TICKS_PER_SECOND;
+
+    private final Timer timer = new Timer(TICKS_PER_SECOND);
+
+    /**
+     * Runs the game ticks, all level and entity changes happen on this thread
+     */
+    private SimulationThread simulation;
+
+    /**
+     * Entity state of the last tick, written by the simulation thread and copied by the render thread once per frame
+     */
+    private final TickSnapshot publishedSnapshot = new TickSnapshot();
+    private final TickSnapshot renderSnapshot = new TickSnapshot();
 
     private Level level;
     private LevelRenderer levelRenderer;
     private Player player;
 
     private final List<Zombie> zombies = new ArrayList<>();
+    private final SpatialHash<Zombie> zombieHash = new SpatialHash<>(4096);
+    private ZombieSwarm swarm;
+
+    /**
+     * Random stream of the spawn positions, only used on the simulation thread
+     */
+    private SplittableRandom spawnRandom;
     private ParticleEngine particleEngine;
 
     /**
      * Fog
      */
     private final FloatBuffer fogColorDaylight = BufferUtils.createFloatBuffer(4);
-    private final FloatBuffer fogColorShadow = BufferUtils.createFloatBuffer(4);
-    private final FloatBuffer colorBuffer = BufferUtils.createFloatBuffer(16);
 
     /**
-     * Tile picking
+     * Tile picking, reach in tiles from the camera
      */
-    private final IntBuffer viewportBuffer = BufferUtils.createIntBuffer(16);
-    private final IntBuffer selectBuffer = BufferUtils.createIntBuffer(2000);
+    private static final double PICK_REACH = 4.0;
+    private final HitResult pickResult = new HitResult(0, 0, 0, 0, 0);
     private HitResult hitResult;
 
     /**
@@ -102,14 +126,6 @@ public class Minecraft implements Runnable {
                 255 / 255.0F
         }).flip();
 
-        // Write fog color for shadow
-        this.fogColorShadow.put(new float[]{
-                14 / 255.0F,
-                11 / 255.0F,
-                10 / 255.0F,
-                255 / 255.0F
-        }).flip();
-
         if (this.parent == null) {
             if (this.fullscreen) {
                 // Set in fullscreen
@@ -154,9 +170,12 @@ public class Minecraft implements Runnable {
 
         // Create level and player (Has to be in main thread)
         this.level = new Level(256, 256, 64);
+        this.level.setAutosaveInterval(AUTOSAVE_INTERVAL);
         this.levelRenderer = new LevelRenderer(this.level);
         this.player = new Player(this.level);
         this.particleEngine = new ParticleEngine(this.level);
+        this.swarm = new ZombieSwarm(this.level, this.level.createEntityRandom().nextLong());
+        this.spawnRandom = this.level.createEntityRandom();
 
         // Grab mouse cursor
         Mouse.setGrabbed(true);
@@ -165,15 +184,26 @@ public class Minecraft implements Runnable {
         for (int i = 0; i < 10; ++i) {
             Zombie zombie = new Zombie(this.level, 128.0F, 0.0F, 129.0F);
             zombie.resetPosition();
-            this.zombies.add(zombie);
+            addZombie(zombie);
         }
+
+        // Start ticking
+        this.publishedSnapshot.capture(this.player, this.zombies, this.swarm, this.particleEngine);
+        this.simulation = new SimulationThread(this.timer, this::onTick);
+        this.simulation.start();
     }
 
     /**
      * Destroy mouse, keyboard and display
      */
     public void destroy() {
+        // Finish the current tick before the level is saved
+        if (this.simulation != null) {
+            this.simulation.shutdown();
+        }
+
         this.level.save();
+        this.levelRenderer.destroy();
 
         Mouse.destroy();
         Keyboard.destroy();
@@ -210,16 +240,20 @@ public class Minecraft implements Runnable {
                     this.stop();
                 }
 
-                // Update the timer
-                this.timer.advanceTime();
-
-                // Call the tick to reach updates 20 per seconds
-                for (int i = 0; i < this.timer.ticks; ++i) {
-                    onTick();
+                // Stop the game if the simulation crashed
+                if (!this.simulation.isRunning()) {
+                    this.stop();
                 }
 
+                // Take the entity state of the last finished tick
+                this.renderSnapshot.copyFrom(this.publishedSnapshot);
+
+                // Interpolate between the last two ticks while the next tick runs
+                long sinceTick = System.nanoTime() - this.renderSnapshot.getTime();
+                float partialTicks = Math.min(1.0F, sinceTick / (float) NS_PER_TICK);
+
                 // Render the game
-                render(this.timer.partialTicks);
+                render(partialTicks);
 
                 // Increase rendered frame
                 frames++;
@@ -227,7 +261,10 @@ public class Minecraft implements Runnable {
                 // Loop if a second passed
                 while (System.currentTimeMillis() >= lastTime + 1000L) {
                     // Print amount of frames
-                    System.out.println(frames + " fps, " + Chunk.updates);
+                    System.out.println(frames + " fps, " + Chunk.updates + " chunk updates, "
+                            + this.levelRenderer.getDirtyChunkCount() + " dirty chunks, "
+                            + String.format("%.1f", this.levelRenderer.getChunkUpdateBudget()) + " ms chunk budget, "
+                            + this.levelRenderer.getChunkMemoryUsage() / 1024 + " KB chunk buffers");
 
                     // Reset global rebuild stats
                     Chunk.updates = 0;
@@ -253,9 +290,13 @@ public class Minecraft implements Runnable {
     }
 
     /**
-     * Game tick, called exactly 20 times per second
+     * Handle the keyboard events, runs on the render thread.
+     * Everything that changes the level or the entities is handed to the simulation thread
      */
-    private void onTick() {
+    private void handleKeyboard() {
+        // Movement keys are read by the next tick
+        this.player.updateInput();
+
         // Listen for keyboard inputs
         while (Keyboard.next()) {
             if (Keyboard.getEventKeyState()) {
@@ -267,7 +308,7 @@ public class Minecraft implements Runnable {
 
                 // Save the level
                 if (Keyboard.getEventKey() == 28) { // Enter
-                    this.level.save();
+                    this.simulation.execute(this.level::saveAsync);
                 }
 
                 // Tile selection
@@ -287,35 +328,73 @@ public class Minecraft implements Runnable {
                     this.selectedTileId = Tile.bush.id;
                 }
 
+                // Toggle greedy meshing
+                if (Keyboard.getEventKey() == 33) { // F
+                    this.levelRenderer.toggleGreedyMeshing();
+                }
+
                 // Spawn zombie
                 if (Keyboard.getEventKey() == 34) { // G
-                    this.zombies.add(new Zombie(this.level, this.player.x, this.player.y, this.player.z));
+                    this.simulation.execute(this::spawnZombie);
+                }
+
+                // Spawn a swarm of zombies
+                if (Keyboard.getEventKey() == 35) { // H
+                    this.simulation.execute(this::spawnSwarm);
                 }
             }
         }
+    }
 
+    /**
+     * Game tick, called exactly 20 times per second on the simulation thread
+     */
+    private void onTick() {
         // Tick random tile in level
         this.level.onTick();
 
         // Tick particles
         this.particleEngine.onTick();
 
-        // Tick zombies
-        Iterator<Zombie> iterator = this.zombies.iterator();
-        while (iterator.hasNext()) {
-            Zombie zombie = iterator.next();
-
-            // Tick zombie
-            zombie.onTick();
+        // Tick zombies and remove dead zombies
+        EntityTicker.tick(this.zombies, this.zombieHash);
 
-            // Remove zombie
-            if (zombie.removed) {
-                iterator.remove();
-            }
-        }
+        // Tick zombie swarm
+        this.swarm.onTick();
 
         // Tick player
         this.player.onTick();
+
+        // Publish the entity state for the render thread
+        this.publishedSnapshot.capture(this.player, this.zombies, this.swarm, this.particleEngine);
+    }
+
+    /**
+     * Spawn a zombie at the player position
+     */
+    private void spawnZombie() {
+        addZombie(new Zombie(this.level, this.player.x, this.player.y, this.player.z));
+    }
+
+    /**
+     * Spawn a thousand swarm zombies around the player
+     */
+    private void spawnSwarm() {
+        for (int i = 0; i < 1000; i++) {
+            double x = this.player.x + (this.spawnRandom.nextDouble() - this.spawnRandom.nextDouble()) * 32.0;
+            double z = this.player.z + (this.spawnRandom.nextDouble() - this.spawnRandom.nextDouble()) * 32.0;
+            this.swarm.spawn(x, this.player.y, z);
+        }
+    }
+
+    /**
+     * Add a zombie to the zombie list and the spatial hash
+     *
+     * @param zombie The zombie
+     */
+    private void addZombie(Zombie zombie) {
+        this.zombies.add(zombie);
+        this.zombieHash.add(zombie);
     }
 
     /**
@@ -325,6 +404,7 @@ public class Minecraft implements Runnable {
      */
     private void moveCameraToPlayer(float partialTicks) {
         Entity player = this.player;
+        EntitySnapshot<Player> snapshot = this.renderSnapshot.player;
 
         // Eye height
         glTranslatef(0.0f, 0.0f, -0.3f);
@@ -334,9 +414,9 @@ public class Minecraft implements Runnable {
         glRotatef(player.yRotation, 0.0f, 1.0f, 0.0f);
 
         // Smooth movement
-        double x = this.player.prevX + (this.player.x - this.player.prevX) * partialTicks;
-        double y = this.player.prevY + (this.player.y - this.player.prevY) * partialTicks;
-        double z = this.player.prevZ + (this.player.z - this.player.prevZ) * partialTicks;
+        double x = snapshot.getX(0, partialTicks);
+        double y = snapshot.getY(0, partialTicks);
+        double z = snapshot.getZ(0, partialTicks);
 
         // Move camera to players location
         glTranslated(-x, -y, -z);
@@ -363,102 +443,43 @@ public class Minecraft implements Runnable {
     }
 
     /**
-     * Setup tile picking camera
+     * Find the tile in front of the camera with a ray trace through the level
      *
-     * @param partialTicks Overflow ticks to calculate smooth a movement
-     * @param x            Screen position x
-     * @param y            Screen position y
-     */
-    private void setupPickCamera(float partialTicks, int x, int y) {
-        glMatrixMode(GL_PROJECTION);
-        glLoadIdentity();
-
-        // Reset buffer
-        this.viewportBuffer.clear();
-
-        // Get viewport value
-        glGetInteger(GL_VIEWPORT, this.viewportBuffer);
-
-        // Flip
-        this.viewportBuffer.flip();
-        this.viewportBuffer.limit(16);
-
-        // Set matrix and camera perspective
-        gluPickMatrix(x, y, 5.0F, 5.0F, this.viewportBuffer);
-        gluPerspective(70.0F, this.width / (float) this.height, 0.05F, 1000.0F);
-
-        glMatrixMode(GL_MODELVIEW);
-        glLoadIdentity();
-
-        // Move camera to middle of level
-        moveCameraToPlayer(partialTicks);
-    }
-
-    /**
      * @param partialTicks Overflow ticks to interpolate
      */
     private void pick(float partialTicks) {
-        // Reset select buffer
-        this.selectBuffer.clear();
-
-        glSelectBuffer(this.selectBuffer);
-        glRenderMode(GL_SELECT);
-
-        // Setup pick camera
-        this.setupPickCamera(partialTicks, this.width / 2, this.height / 2);
-
-        // Render all possible pick selection faces to the target
-        this.levelRenderer.pick(this.player, Frustum.getFrustum());
-
-        // Flip buffer
-        this.selectBuffer.flip();
-        this.selectBuffer.limit(this.selectBuffer.capacity());
-
-        long closest = 0L;
-        int[] names = new int[10];
-        int hitNameCount = 0;
-
-        // Get amount of hits
-        int hits = glRenderMode(GL_RENDER);
-        for (int hitIndex = 0; hitIndex < hits; hitIndex++) {
-
-            // Get name count
-            int nameCount = this.selectBuffer.get();
-            long minZ = this.selectBuffer.get();
-            this.selectBuffer.get();
+        Entity player = this.player;
+        EntitySnapshot<Player> snapshot = this.renderSnapshot.player;
 
-            // Check if the hit is closer to the camera
-            if (minZ < closest || hitIndex == 0) {
-                closest = minZ;
-                hitNameCount = nameCount;
+        // View direction of the camera
+        double yaw = Math.toRadians(player.yRotation);
+        double pitch = Math.toRadians(player.xRotation);
+        double directionX = Math.sin(yaw) * Math.cos(pitch);
+        double directionY = -Math.sin(pitch);
+        double directionZ = -Math.cos(yaw) * Math.cos(pitch);
 
-                // Fill names
-                for (int nameIndex = 0; nameIndex < nameCount; nameIndex++) {
-                    names[nameIndex] = this.selectBuffer.get();
-                }
-            } else {
-                // Skip names
-                for (int nameIndex = 0; nameIndex < nameCount; ++nameIndex) {
-                    this.selectBuffer.get();
-                }
-            }
-        }
+        // Smooth movement, the camera is moved back by the eye offset
+        double x = snapshot.getX(0, partialTicks) - directionX * 0.3;
+        double y = snapshot.getY(0, partialTicks) - directionY * 0.3;
+        double z = snapshot.getZ(0, partialTicks) - directionZ * 0.3;
 
         // Update hit result
-        if (hitNameCount > 0) {
-            this.hitResult = new HitResult(names[0], names[1], names[2], names[3], names[4]);
+        if (this.level.clip(x, y, z, directionX, directionY, directionZ, PICK_REACH, this.pickResult)) {
+            this.hitResult = this.pickResult;
         } else {
             this.hitResult = null;
         }
     }
 
-
     /**
      * Rendering the game
      *
      * @param partialTicks Overflow ticks to interpolate
      */
     private void render(float partialTicks) {
+        // Keyboard input for the next tick
+        handleKeyboard();
+
         // Get mouse motion
         float motionX = Mouse.getDX();
         float motionY = Mouse.getDY();
@@ -473,15 +494,20 @@ public class Minecraft implements Runnable {
         while (Mouse.next()) {
             // Right click
             if (Mouse.getEventButton() == 1 && Mouse.getEventButtonState() && this.hitResult != null) {
-                Tile previousTile = Tile.tiles[this.level.getTile(this.hitResult.x, this.hitResult.y, this.hitResult.z)];
+                int x = this.hitResult.x;
+                int y = this.hitResult.y;
+                int z = this.hitResult.z;
 
-                // Destroy the tile
-                boolean tileChanged = this.level.setTile(this.hitResult.x, this.hitResult.y, this.hitResult.z, 0);
+                // Destroy the tile at the next tick boundary
+                this.simulation.execute(() -> {
+                    Tile previousTile = Tile.tiles[this.level.getTile(x, y, z)];
+                    boolean tileChanged = this.level.setTile(x, y, z, 0);
 
-                // Create particles for this tile
-                if (previousTile != null && tileChanged) {
-                    previousTile.onDestroy(this.level, this.hitResult.x, this.hitResult.y, this.hitResult.z, this.particleEngine);
-                }
+                    // Create particles for this tile
+                    if (previousTile != null && tileChanged) {
+                        previousTile.onDestroy(this.level, x, y, z, this.particleEngine);
+                    }
+                });
             }
 
             // Left click
@@ -499,8 +525,12 @@ public class Minecraft implements Runnable {
                 if (this.hitResult.face == 4) x--;
                 if (this.hitResult.face == 5) x++;
 
-                // Set the tile
-                this.level.setTile(x, y, z, this.selectedTileId);
+                // Set the tile at the next tick boundary
+                int targetX = x;
+                int targetY = y;
+                int targetZ = z;
+                int id = this.selectedTileId;
+                this.simulation.execute(() -> this.level.setTile(targetX, targetY, targetZ, id));
             }
         }
 
@@ -514,44 +544,32 @@ public class Minecraft implements Runnable {
         // Get current frustum
         Frustum frustum = Frustum.getFrustum();
 
-        // Update dirty chunks
-        this.levelRenderer.updateDirtyChunks(this.player);
+        // Camera position of the last tick, the simulation thread already moves the player
+        EntitySnapshot<Player> snapshot = this.renderSnapshot.player;
+        double cameraX = snapshot.getX(0, partialTicks);
+        double cameraY = snapshot.getY(0, partialTicks);
+        double cameraZ = snapshot.getZ(0, partialTicks);
 
-        // Setup daylight fog
-        setupFog(0);
-        glEnable(GL_FOG);
+        // Update the chunks that changed in the finished ticks
+        this.levelRenderer.updateDirtyChunks(this.player, cameraX, cameraY, cameraZ, frustum);
 
-        // Render bright tiles
-        this.levelRenderer.render(0);
+        // Collect chunks that can be seen from the camera
+        this.levelRenderer.updateVisibleChunks(cameraX, cameraY, cameraZ, frustum);
 
-        // Render zombies in sunlight
-        for (Zombie zombie : this.zombies) {
-            if (zombie.isLit() && frustum.isVisible(zombie.boundingBox)) {
-                zombie.render(partialTicks);
-            }
-        }
-
-        // Render particles in sunlight
-        this.particleEngine.render(this.player, this.tessellator, partialTicks, 0);
-
-        // Setup shadow fog
-        setupFog(1);
+        // Setup daylight fog
+        setupFog();
+        glEnable(GL_FOG);
 
-        // Render dark tiles in shadow
-        this.levelRenderer.render(1);
+        // Render all tiles, the light levels are baked into the vertex colors
+        this.levelRenderer.render();
 
-        // Render zombies in shadow
-        for (Zombie zombie : this.zombies) {
-            if (!zombie.isLit() && frustum.isVisible(zombie.boundingBox)) {
-                zombie.render(partialTicks);
-            }
-        }
+        // Render zombies in the light level of their position
+        renderZombies(frustum, partialTicks);
 
-        // Render particles in shadow
-        this.particleEngine.render(this.player, this.tessellator, partialTicks, 1);
+        // Render particles in the light level of their position
+        this.particleEngine.render(this.player, this.tessellator, this.renderSnapshot.particles, partialTicks);
 
         // Finish rendering
-        glDisable(GL_LIGHTING);
         glDisable(GL_TEXTURE_2D);
         glDisable(GL_FOG);
 
@@ -569,6 +587,26 @@ public class Minecraft implements Runnable {
         Display.update();
     }
 
+    /**
+     * Render the zombies of the last tick
+     *
+     * @param frustum      Frustum of the camera
+     * @param partialTicks Overflow ticks to interpolate
+     */
+    private void renderZombies(Frustum frustum, float partialTicks) {
+        EntitySnapshot<Zombie> zombies = this.renderSnapshot.zombies;
+        double seconds = System.nanoTime() / 1000000000D;
+        for (int i = 0; i < zombies.size(); i++) {
+            if (zombies.isVisible(i, frustum)) {
+                ZombieModel.INSTANCE.render(zombies.getX(i, partialTicks), zombies.getY(i, partialTicks), zombies.getZ(i, partialTicks),
+                        zombies.getRotation(i), zombies.getAnimationTime(i, seconds), zombies.getBrightness(i));
+            }
+        }
+
+        // Render the captured zombies of the swarm
+        this.renderSnapshot.swarm.render(frustum, partialTicks);
+    }
+
     /**
      * Draw HUD
      *
@@ -612,7 +650,7 @@ public class Minecraft implements Runnable {
 
         // Render selected tile in hand
         this.tessellator.init();
-        Tile.tiles[this.selectedTileId].render(this.tessellator, this.level, 0, -2, 0, 0);
+        Tile.tiles[this.selectedTileId].render(this.tessellator, this.level, -2, 0, 0);
         this.tessellator.flush();
 
         // Finish tile rendering
@@ -640,54 +678,15 @@ public class Minecraft implements Runnable {
     }
 
     /**
-     * Setup fog with type
-     *
-     * @param fogType Type of the fog. (0: daylight, 1: shadow)
+     * Setup the daylight fog
      */
-    private void setupFog(int fogType) {
-        // Daylight fog
-        if (fogType == 0) {
-            // Fog distance
-            glFogi(GL_FOG_MODE, GL_VIEWPORT_BIT);
-            glFogf(GL_FOG_DENSITY, 0.001F);
-
-            // Set fog color
-            glFog(GL_FOG_COLOR, this.fogColorDaylight);
-
-            glDisable(GL_LIGHTING);
-        }
-
-        // Shadow fog
-        if (fogType == 1) {
-            // Fog distance
-            glFogi(GL_FOG_MODE, GL_VIEWPORT_BIT);
-            glFogf(GL_FOG_DENSITY, 0.06F);
-
-            // Set fog color
-            glFog(GL_FOG_COLOR, this.fogColorShadow);
+    private void setupFog() {
+        // Fog distance
+        glFogi(GL_FOG_MODE, GL_VIEWPORT_BIT);
+        glFogf(GL_FOG_DENSITY, 0.001F);
 
-            glEnable(GL_LIGHTING);
-            glEnable(GL_COLOR_MATERIAL);
-
-            float brightness = 0.6F;
-            glLightModel(GL_LIGHT_MODEL_AMBIENT, this.getBuffer(brightness, brightness, brightness, 1.0F));
-        }
-    }
-
-    /**
-     * Fill float buffer with color values and return it
-     *
-     * @param red   Red value
-     * @param green Green value
-     * @param blue  Blue value
-     * @param alpha Alpha value
-     * @return Float buffer filled in RGBA order
-     */
-    private FloatBuffer getBuffer(float red, float green, float blue, float alpha) {
-        this.colorBuffer.clear();
-        this.colorBuffer.put(red).put(green).put(blue).put(alpha);
-        this.colorBuffer.flip();
-        return this.colorBuffer;
+        // Set fog color
+        glFog(GL_FOG_COLOR, this.fogColorDaylight);
     }
 
     /**
@@ -5,6 +5,14 @@ import org.lwjgl.input.Keyboard;
 
 public class Player extends Entity {
 
+    /**
+     * Keyboard input of the render thread, read by the next tick
+     */
+    private volatile float inputForward;
+    private volatile float inputVertical;
+    private volatile boolean inputJump;
+    private volatile boolean inputReset;
+
     /**
      * The player that is controlling the camera of the game
      *
@@ -16,18 +24,13 @@ public class Player extends Entity {
         this.heightOffset = 1.62f;
     }
 
-    @Override
-    public void onTick() {
-        super.onTick();
-
+    /**
+     * Read the movement keys. Has to be called on the thread that owns the display
+     */
+    public void updateInput() {
         float forward = 0.0F;
         float vertical = 0.0F;
 
-        // Reset the position of the player
-        if (Keyboard.isKeyDown(19)) { // R
-            resetPosition();
-        }
-
         // Player movement
         if (Keyboard.isKeyDown(200) || Keyboard.isKeyDown(17)) { // Up, W
             forward--;
@@ -41,7 +44,27 @@ public class Player extends Entity {
         if (Keyboard.isKeyDown(205) || Keyboard.isKeyDown(32)) {  // Right, D
             vertical++;
         }
-        if ((Keyboard.isKeyDown(57) || Keyboard.isKeyDown(219)) && this.onGround) { // Space, Windows Key
+
+        this.inputForward = forward;
+        this.inputVertical = vertical;
+        this.inputJump = Keyboard.isKeyDown(57) || Keyboard.isKeyDown(219); // Space, Windows Key
+        this.inputReset = Keyboard.isKeyDown(19); // R
+    }
+
+    @Override
+    public void onTick() {
+        super.onTick();
+
+        float forward = this.inputForward;
+        float vertical = this.inputVertical;
+
+        // Reset the position of the player
+        if (this.inputReset) {
+            resetPosition();
+        }
+
+        // Jump
+        if (this.inputJump && this.onGround) {
             this.motionY = 0.5F;
         }
 
@@ -0,0 +1,100 @@
+package com.mojang.minecraft;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+public class SimulationThread extends Thread {
+
+    private final Timer timer;
+    private final Runnable tick;
+
+    /**
+     * Tasks of other threads, they run before the next tick
+     */
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean running = true;
+
+    /**
+     * Runs the game ticks independently of the render loop, so a burst of ticks doesn't freeze the rendering.
+     * Everything that changes the level or the entities has to run on this thread,
+     * other threads hand their changes over with {@link #execute(Runnable)}.
+     *
+     * @param timer Timer of the tick rate
+     * @param tick  Called once per game tick
+     */
+    public SimulationThread(Timer timer, Runnable tick) {
+        super("Simulation");
+        this.timer = timer;
+        this.tick = tick;
+
+        setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (this.running) {
+                // Update the timer
+                this.timer.advanceTime();
+
+                // Call the tick to reach updates 20 per seconds
+                for (int i = 0; i < this.timer.ticks && this.running; i++) {
+                    runTasks();
+                    this.tick.run();
+                }
+
+                // Wait for the next tick
+                long nanos = this.timer.getNanosToNextTick();
+                if (nanos > 0L) {
+                    Thread.sleep(nanos / 1000000L, (int) (nanos % 1000000L));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            this.running = false;
+        }
+    }
+
+    /**
+     * Run a task on the simulation thread at the next tick boundary
+     *
+     * @param task The task
+     */
+    public void execute(Runnable task) {
+        this.tasks.add(task);
+    }
+
+    /**
+     * Check if the thread is still ticking
+     *
+     * @return Simulation is running
+     */
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    /**
+     * Stop ticking and wait until the current tick is finished.
+     * The thread isn't interrupted, an interrupt would close the file channels of a tick that is writing
+     */
+    public void shutdown() {
+        this.running = false;
+
+        try {
+            join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = this.tasks.poll()) != null) {
+            task.run();
+        }
+    }
+}
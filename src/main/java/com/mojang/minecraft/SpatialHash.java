@@ -0,0 +1,334 @@
+package com.mojang.minecraft;
+
+import com.mojang.minecraft.phys.AABB;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+public class SpatialHash<T extends Entity> {
+
+    /**
+     * Cells have the size of a chunk
+     */
+    private static final int CELL_BITS = 4;
+    private static final int CELL_SIZE = 1 << CELL_BITS;
+
+    /**
+     * Largest distance of a bounding box side from the entity position, box queries search the cells around the box
+     */
+    private static final double MAX_ENTITY_EXTENT = 2.0;
+
+    /**
+     * First entity of each bucket, the entities of a bucket are linked through their spatial fields
+     */
+    private final Entity[] buckets;
+    private final int mask;
+    private int size;
+
+    /**
+     * Entities don't update their cells while the hash is frozen, they are updated afterwards
+     */
+    private boolean frozen;
+
+    /**
+     * Entities sorted into 16x16x16 cells. Each entity updates its cell when it crosses a cell border
+     * in {@link Entity#setPosition(double, double, double)} or {@link Entity#move(double, double, double)}.
+     * Cells are hashed into a fixed amount of buckets, so entities outside of the level work the same way.
+     * The entities of a bucket are an intrusive linked list, so neither updates nor queries allocate.
+     * <p>
+     * An entity can only be in one spatial hash. The hash isn't thread-safe.
+     *
+     * @param buckets Amount of buckets, rounded up to a power of two
+     */
+    public SpatialHash(int buckets) {
+        int capacity = Integer.highestOneBit(Math.max(1, buckets - 1)) << 1;
+        this.buckets = new Entity[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Add an entity at its current position
+     *
+     * @param entity The entity
+     */
+    public void add(T entity) {
+        if (entity.spatialHash != null) {
+            throw new IllegalStateException("Entity is already in a spatial hash");
+        }
+
+        entity.spatialHash = this;
+        entity.spatialCell = getCell(entity.x, entity.y, entity.z);
+        link(entity, getBucket(entity.spatialCell));
+        this.size++;
+    }
+
+    /**
+     * Remove an entity
+     *
+     * @param entity The entity
+     */
+    public void remove(T entity) {
+        if (entity.spatialHash != this) {
+            return;
+        }
+
+        unlink(entity);
+        entity.spatialHash = null;
+        this.size--;
+    }
+
+    /**
+     * Move the entity into the cell of its current position
+     *
+     * @param entity Entity of this hash
+     */
+    void update(Entity entity) {
+        if (this.frozen) {
+            return;
+        }
+
+        long cell = getCell(entity.x, entity.y, entity.z);
+        if (cell == entity.spatialCell) {
+            return;
+        }
+
+        entity.spatialCell = cell;
+
+        // Cells of the same bucket share the list
+        int bucket = getBucket(cell);
+        if (bucket != entity.spatialBucket) {
+            unlink(entity);
+            link(entity, bucket);
+        }
+    }
+
+    /**
+     * Stop moving entities between cells, so entities of this hash can move on several threads at once.
+     * Queries see the cells of the time the hash was frozen
+     */
+    void freeze() {
+        this.frozen = true;
+    }
+
+    /**
+     * Move the entities into the cells of their current positions again after a {@link #freeze()}
+     *
+     * @param entities Entities that may have moved while the hash was frozen
+     */
+    void unfreeze(List<? extends Entity> entities) {
+        this.frozen = false;
+
+        for (Entity entity : entities) {
+            if (entity.spatialHash == this) {
+                update(entity);
+            }
+        }
+    }
+
+    /**
+     * Remove all entities
+     */
+    public void clear() {
+        for (Entity head : this.buckets) {
+            for (Entity entity = head; entity != null; ) {
+                Entity next = entity.spatialNext;
+                entity.spatialHash = null;
+                entity.spatialPrev = null;
+                entity.spatialNext = null;
+                entity.spatialBucket = -1;
+                entity = next;
+            }
+        }
+        Arrays.fill(this.buckets, null);
+        this.size = 0;
+    }
+
+    /**
+     * Amount of entities in the hash
+     *
+     * @return Entity count
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Visit all entities whose bounding box intersects the given box.
+     * The action must not add, remove or move entities of this hash
+     *
+     * @param box    The box
+     * @param action Called for each entity in the box
+     * @return Amount of visited entities
+     */
+    @SuppressWarnings("unchecked")
+    public int forEachInBox(AABB box, Consumer<? super T> action) {
+        int minCellX = toCell(box.minX - MAX_ENTITY_EXTENT);
+        int minCellY = toCell(box.minY - MAX_ENTITY_EXTENT);
+        int minCellZ = toCell(box.minZ - MAX_ENTITY_EXTENT);
+        int maxCellX = toCell(box.maxX + MAX_ENTITY_EXTENT);
+        int maxCellY = toCell(box.maxY + MAX_ENTITY_EXTENT);
+        int maxCellZ = toCell(box.maxZ + MAX_ENTITY_EXTENT);
+
+        int count = 0;
+
+        // Scanning all buckets is cheaper than visiting more cells than there are buckets
+        long cells = (long) (maxCellX - minCellX + 1) * (maxCellY - minCellY + 1) * (maxCellZ - minCellZ + 1);
+        if (cells > this.buckets.length) {
+            for (Entity head : this.buckets) {
+                for (Entity entity = head; entity != null; entity = entity.spatialNext) {
+                    if (entity.boundingBox.intersects(box)) {
+                        action.accept((T) entity);
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                    long cell = packCell(cellX, cellY, cellZ);
+
+                    // Only the entities of this cell, other cells of the bucket are visited on their own
+                    for (Entity entity = this.buckets[getBucket(cell)]; entity != null; entity = entity.spatialNext) {
+                        if (entity.spatialCell == cell && entity.boundingBox.intersects(box)) {
+                            action.accept((T) entity);
+                            count++;
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Find the entity with the closest position. Cells are searched in rings around the position,
+     * the search stops as soon as no closer entity can be in the next ring
+     *
+     * @param x           Position x
+     * @param y           Position y
+     * @param z           Position z
+     * @param maxDistance Maximum distance of the entity position
+     * @param filter      Entities to consider, e.g. to skip the searching entity itself
+     * @return The closest entity or null if there is none in range
+     */
+    @SuppressWarnings("unchecked")
+    public T nearest(double x, double y, double z, double maxDistance, Predicate<? super T> filter) {
+        Entity nearest = null;
+        double nearestDistance = maxDistance * maxDistance;
+
+        int rings = (int) Math.ceil(maxDistance / CELL_SIZE);
+        long diameter = 2L * rings + 1;
+
+        // Scanning all buckets is cheaper than visiting more cells than there are buckets
+        if (diameter * diameter * diameter > this.buckets.length) {
+            for (Entity head : this.buckets) {
+                for (Entity entity = head; entity != null; entity = entity.spatialNext) {
+                    double distance = getDistanceSquared(entity, x, y, z);
+                    if (distance <= nearestDistance && filter.test((T) entity)) {
+                        nearest = entity;
+                        nearestDistance = distance;
+                    }
+                }
+            }
+            return (T) nearest;
+        }
+
+        int centerX = toCell(x);
+        int centerY = toCell(y);
+        int centerZ = toCell(z);
+
+        for (int ring = 0; ring <= rings; ring++) {
+            // Every position in this ring is at least this far away
+            double ringDistance = Math.max(0, ring - 1) * (double) CELL_SIZE;
+            if (nearest != null && ringDistance * ringDistance >= nearestDistance) {
+                break;
+            }
+
+            for (int offsetX = -ring; offsetX <= ring; offsetX++) {
+                for (int offsetY = -ring; offsetY <= ring; offsetY++) {
+                    // Inside of the ring only the two outer cells on the z axis belong to it
+                    boolean edge = Math.abs(offsetX) == ring || Math.abs(offsetY) == ring;
+                    int step = edge ? 1 : Math.max(1, 2 * ring);
+
+                    for (int offsetZ = -ring; offsetZ <= ring; offsetZ += step) {
+                        long cell = packCell(centerX + offsetX, centerY + offsetY, centerZ + offsetZ);
+
+                        for (Entity entity = this.buckets[getBucket(cell)]; entity != null; entity = entity.spatialNext) {
+                            if (entity.spatialCell != cell) {
+                                continue;
+                            }
+
+                            double distance = getDistanceSquared(entity, x, y, z);
+                            if (distance <= nearestDistance && filter.test((T) entity)) {
+                                nearest = entity;
+                                nearestDistance = distance;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return (T) nearest;
+    }
+
+    private void link(Entity entity, int bucket) {
+        Entity head = this.buckets[bucket];
+        entity.spatialBucket = bucket;
+        entity.spatialPrev = null;
+        entity.spatialNext = head;
+        if (head != null) {
+            head.spatialPrev = entity;
+        }
+        this.buckets[bucket] = entity;
+    }
+
+    private void unlink(Entity entity) {
+        if (entity.spatialPrev != null) {
+            entity.spatialPrev.spatialNext = entity.spatialNext;
+        } else {
+            this.buckets[entity.spatialBucket] = entity.spatialNext;
+        }
+        if (entity.spatialNext != null) {
+            entity.spatialNext.spatialPrev = entity.spatialPrev;
+        }
+
+        entity.spatialPrev = null;
+        entity.spatialNext = null;
+        entity.spatialBucket = -1;
+    }
+
+    private int getBucket(long cell) {
+        // Mix all bits of the packed coordinates into the low bits (MurmurHash3 finalizer)
+        long hash = cell;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return (int) hash & this.mask;
+    }
+
+    private static double getDistanceSquared(Entity entity, double x, double y, double z) {
+        double distanceX = entity.x - x;
+        double distanceY = entity.y - y;
+        double distanceZ = entity.z - z;
+        return distanceX * distanceX + distanceY * distanceY + distanceZ * distanceZ;
+    }
+
+    private static long getCell(double x, double y, double z) {
+        return packCell(toCell(x), toCell(y), toCell(z));
+    }
+
+    private static int toCell(double position) {
+        return (int) Math.floor(position) >> CELL_BITS;
+    }
+
+    private static long packCell(int cellX, int cellY, int cellZ) {
+        return ((long) cellX & 0x1FFFFF) << 42 | ((long) cellY & 0x1FFFFF) << 21 | (long) cellZ & 0x1FFFFF;
+    }
+}
@@ -31,11 +31,58 @@ public class Textures {
             return idMap.get(resourceName);
         }
 
+        // Create and bind a new texture
+        int id = createTexture(resourceName, mode);
+
+        // Upload the entire image
+        BufferedImage bufferedImage = readImage(resourceName);
+        upload(bufferedImage, 0, 0, bufferedImage.getWidth(), bufferedImage.getHeight());
+
+        return id;
+    }
+
+    /**
+     * Load a single tile of a 16x16 texture atlas as a repeating texture
+     *
+     * @param resourceName Resource path of the atlas
+     * @param slot         Texture slot id of the tile
+     * @param mode         Texture filter mode (GL_NEAREST, GL_LINEAR)
+     * @return Texture id of OpenGL
+     */
+    public static int loadTileTexture(String resourceName, int slot, int mode) {
+        String name = resourceName + "#" + slot;
+        if (idMap.containsKey(name)) {
+            return idMap.get(name);
+        }
+
+        // Create and bind a new texture
+        int id = createTexture(name, mode);
+
+        // Set wrap mode
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_REPEAT);
+        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_REPEAT);
+
+        // Upload the tile of the slot
+        BufferedImage bufferedImage = readImage(resourceName);
+        int size = bufferedImage.getWidth() / 16;
+        upload(bufferedImage, slot % 16 * size, slot / 16 * size, size, size);
+
+        return id;
+    }
+
+    /**
+     * Generate, register and bind a new texture id
+     *
+     * @param name Name of the texture in the id map
+     * @param mode Texture filter mode (GL_NEAREST, GL_LINEAR)
+     * @return Texture id of OpenGL
+     */
+    private static int createTexture(String name, int mode) {
         // Generate a new texture id
         int id = glGenTextures();
 
         // Store id in map
-        idMap.put(resourceName, id);
+        idMap.put(name, id);
 
         // Bind this texture id
         bind(id);
@@ -44,43 +91,57 @@ public class Textures {
         glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, mode);
         glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, mode);
 
+        return id;
+    }
+
+    /**
+     * Read an image from the resources
+     *
+     * @param resourceName Resource path of the image
+     * @return The image
+     */
+    private static BufferedImage readImage(String resourceName) {
         // Read from resources
         InputStream inputStream = Textures.class.getResourceAsStream(resourceName);
 
         try {
-            // Read to buffered image
-            BufferedImage bufferedImage = ImageIO.read(inputStream);
-
-            // Get image size
-            int width = bufferedImage.getWidth();
-            int height = bufferedImage.getHeight();
-
-            // Write image pixels into array
-            int[] pixels = new int[width * height];
-            bufferedImage.getRGB(0, 0, width, height, pixels, 0, width);
-
-            // Flip RGB order of the integers
-            for (int i = 0; i < pixels.length; i++) {
-                int alpha = pixels[i] >> 24 & 0xFF;
-                int red = pixels[i] >> 16 & 0xFF;
-                int green = pixels[i] >> 8 & 0xFF;
-                int blue = pixels[i] & 0xFF;
-
-                // ARGB to ABGR
-                pixels[i] = alpha << 24 | blue << 16 | green << 8 | red;
-            }
-
-            // Create bytebuffer from pixel array
-            ByteBuffer byteBuffer = BufferUtils.createByteBuffer(width * height * 4);
-            byteBuffer.asIntBuffer().put(pixels);
-
-            // Write texture to opengl
-            gluBuild2DMipmaps(GL_TEXTURE_2D, GL_RGBA, width, height, GL_RGBA, GL_UNSIGNED_BYTE, byteBuffer);
+            return ImageIO.read(inputStream);
         } catch (IOException exception) {
             throw new RuntimeException("Could not load texture " + resourceName, exception);
         }
+    }
 
-        return id;
+    /**
+     * Write an area of an image with mipmaps into the bound texture
+     *
+     * @param bufferedImage Source image
+     * @param x             Left edge of the area
+     * @param y             Top edge of the area
+     * @param width         Width of the area
+     * @param height        Height of the area
+     */
+    private static void upload(BufferedImage bufferedImage, int x, int y, int width, int height) {
+        // Write image pixels into array
+        int[] pixels = new int[width * height];
+        bufferedImage.getRGB(x, y, width, height, pixels, 0, width);
+
+        // Flip RGB order of the integers
+        for (int i = 0; i < pixels.length; i++) {
+            int alpha = pixels[i] >> 24 & 0xFF;
+            int red = pixels[i] >> 16 & 0xFF;
+            int green = pixels[i] >> 8 & 0xFF;
+            int blue = pixels[i] & 0xFF;
+
+            // ARGB to ABGR
+            pixels[i] = alpha << 24 | blue << 16 | green << 8 | red;
+        }
+
+        // Create bytebuffer from pixel array
+        ByteBuffer byteBuffer = BufferUtils.createByteBuffer(width * height * 4);
+        byteBuffer.asIntBuffer().put(pixels);
+
+        // Write texture to opengl
+        gluBuild2DMipmaps(GL_TEXTURE_2D, GL_RGBA, width, height, GL_RGBA, GL_UNSIGNED_BYTE, byteBuffer);
     }
 
     /**
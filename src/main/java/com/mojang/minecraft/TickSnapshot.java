@@ -0,0 +1,99 @@
+package com.mojang.minecraft;
+
+import com.mojang.minecraft.character.Zombie;
+import com.mojang.minecraft.character.ZombieSwarm;
+import com.mojang.minecraft.particle.Particle;
+import com.mojang.minecraft.particle.ParticleEngine;
+
+import java.util.List;
+
+public class TickSnapshot {
+
+    public final EntitySnapshot<Player> player = new EntitySnapshot<>();
+    public final EntitySnapshot<Zombie> zombies = new EntitySnapshot<>();
+    public final EntitySnapshot<Particle> particles = new EntitySnapshot<>();
+    public final ZombieSwarm.Snapshot swarm = new ZombieSwarm.Snapshot();
+
+    /**
+     * Back buffer of the capture, filled without the lock and copied to the published state under the lock
+     */
+    private final EntitySnapshot<Player> capturedPlayer = new EntitySnapshot<>();
+    private final EntitySnapshot<Zombie> capturedZombies = new EntitySnapshot<>();
+    private final EntitySnapshot<Particle> capturedParticles = new EntitySnapshot<>();
+    private final ZombieSwarm.Snapshot capturedSwarm = new ZombieSwarm.Snapshot();
+
+    /**
+     * Horizontal distance to the player of the captured swarm zombies
+     */
+    private static final double SWARM_RENDER_DISTANCE = 128.0;
+
+    /**
+     * Nano time at the end of the captured tick
+     */
+    private long time;
+
+    /**
+     * State of all entities at a tick boundary.
+     * The simulation thread writes one instance after each tick, the render thread copies it into its own instance
+     * at the start of a frame. The simulation thread collects the entities into a back buffer first,
+     * so both sides only hold the lock for the array copies, never for a whole tick, frame or entity scan.
+     */
+    public TickSnapshot() {
+    }
+
+    /**
+     * Capture all entities. Has to be called on the simulation thread
+     *
+     * @param player         The player
+     * @param zombies        All zombies
+     * @param swarm          Zombie swarm, only the zombies around the player are captured
+     * @param particleEngine Particle engine with all particles
+     */
+    public void capture(Player player, List<Zombie> zombies, ZombieSwarm swarm, ParticleEngine particleEngine) {
+        this.capturedPlayer.clear();
+        this.capturedPlayer.add(player);
+
+        this.capturedZombies.clear();
+        for (Zombie zombie : zombies) {
+            this.capturedZombies.add(zombie);
+        }
+
+        swarm.capture(this.capturedSwarm, player.x, player.z, SWARM_RENDER_DISTANCE);
+
+        this.capturedParticles.clear();
+        particleEngine.capture(this.capturedParticles);
+
+        // Publish the captured state
+        synchronized (this) {
+            this.player.copyFrom(this.capturedPlayer);
+            this.zombies.copyFrom(this.capturedZombies);
+            this.swarm.copyFrom(this.capturedSwarm);
+            this.particles.copyFrom(this.capturedParticles);
+            this.time = System.nanoTime();
+        }
+    }
+
+    /**
+     * Replace the content with a copy of another snapshot
+     *
+     * @param snapshot The snapshot to copy, it's locked while copying
+     */
+    public void copyFrom(TickSnapshot snapshot) {
+        synchronized (snapshot) {
+            this.player.copyFrom(snapshot.player);
+            this.zombies.copyFrom(snapshot.zombies);
+            this.swarm.copyFrom(snapshot.swarm);
+            this.particles.copyFrom(snapshot.particles);
+            this.time = snapshot.time;
+        }
+    }
+
+    /**
+     * Nano time at the end of the captured tick
+     *
+     * @return Capture time, 0 if nothing was captured yet
+     */
+    public long getTime() {
+        return this.time;
+    }
+}
@@ -80,4 +80,13 @@ public class Timer {
         this.passedTime -= this.ticks;
         this.partialTicks = this.passedTime;
     }
+
+    /**
+     * Time until the passed time reaches the next tick
+     *
+     * @return Remaining nano seconds of the current tick
+     */
+    public long getNanosToNextTick() {
+        return (long) ((1.0F - this.passedTime) * NS_PER_SECOND / (this.ticksPerSecond * this.timeScale));
+    }
 }
@@ -149,15 +149,27 @@ public class Cube {
      * Render the cube
      */
     public void render() {
+        render(this.xRotation, this.yRotation, this.zRotation);
+    }
+
+    /**
+     * Render the cube with the given rotation instead of the rotation of the cube,
+     * so one cube can be shared by many animated models
+     *
+     * @param xRotation Rotation on the x axis in radians
+     * @param yRotation Rotation on the y axis in radians
+     * @param zRotation Rotation on the z axis in radians
+     */
+    public void render(float xRotation, float yRotation, float zRotation) {
         glPushMatrix();
 
         // Position of the cube
         glTranslatef(this.x, this.y, this.z);
 
         // Rotation of the cube
-        glRotated(Math.toDegrees(this.zRotation), 0.0F, 0.0F, 1.0F);
-        glRotated(Math.toDegrees(this.yRotation), 0.0F, 1.0F, 0.0F);
-        glRotated(Math.toDegrees(this.xRotation), 1.0F, 0.0F, 0.0F);
+        glRotated(Math.toDegrees(zRotation), 0.0F, 0.0F, 1.0F);
+        glRotated(Math.toDegrees(yRotation), 0.0F, 1.0F, 0.0F);
+        glRotated(Math.toDegrees(xRotation), 1.0F, 0.0F, 0.0F);
 
         // Start rendering
         glBegin(GL_QUADS);
@@ -37,9 +37,6 @@ public class Polygon {
     }
 
     public void render() {
-        // Set color of polygon
-        glColor3f(1.0F, 1.0F, 1.0F);
-
         // Render all vertices
         for (int i = 3; i >= 0; i--) {
             Vertex vertex = this.vertices[i];
@@ -1,19 +1,29 @@
 package com.mojang.minecraft.character;
 
 import com.mojang.minecraft.Entity;
-import com.mojang.minecraft.Textures;
 import com.mojang.minecraft.level.Level;
 
-import static org.lwjgl.opengl.GL11.*;
+import java.util.SplittableRandom;
 
 public class Zombie extends Entity {
 
-    private final ZombieModel model = new ZombieModel();
-
-    public double rotation = Math.random() * Math.PI * 2;
-    public double rotationMotionFactor = (Math.random() + 1.0) * 0.01F;
-
-    public float timeOffset = (float) (Math.random() * 1239813.0F);
+    /**
+     * Movement of a zombie, shared with the zombies of a {@link ZombieSwarm}
+     */
+    static final float VOID_Y = -100.0F;
+    static final float JUMP_CHANCE = 0.08F;
+    static final float JUMP_MOTION = 0.5F;
+    static final float GROUND_SPEED = 0.1F;
+    static final float AIR_SPEED = 0.02F;
+    static final float GRAVITY = 0.08F;
+    static final float HORIZONTAL_DRAG = 0.91F;
+    static final float VERTICAL_DRAG = 0.98F;
+    static final float GROUND_FRICTION = 0.7F;
+
+    public double rotation = randomRotation(this.random);
+    public double rotationMotionFactor = randomRotationMotionFactor(this.random);
+
+    public float timeOffset = randomTimeOffset(this.random);
     public float speed = 1.0F;
 
     /**
@@ -34,7 +44,7 @@ public class Zombie extends Entity {
         super.onTick();
 
         // Kill in void
-        if (this.y < -100.0F) {
+        if (this.y < VOID_Y) {
             remove();
         }
 
@@ -42,82 +52,92 @@ public class Zombie extends Entity {
         this.rotation += this.rotationMotionFactor;
 
         // Modify direction motion factor
-        this.rotationMotionFactor *= 0.99D;
-        this.rotationMotionFactor += (Math.random() - Math.random()) * Math.random() * Math.random() * 0.009999999776482582;
+        this.rotationMotionFactor = nextRotationMotionFactor(this.rotationMotionFactor, this.random);
 
         // Calculate movement input using rotation
         float vertical = (float) Math.sin(this.rotation);
         float forward = (float) Math.cos(this.rotation);
 
         // Randomly jump
-        if (this.onGround && Math.random() < 0.08F) {
-            this.motionY = 0.5F;
+        if (this.onGround && this.random.nextDouble() < JUMP_CHANCE) {
+            this.motionY = JUMP_MOTION;
         }
 
         // Apply motion the zombie using the vertical and forward direction
-        moveRelative(vertical, forward, this.onGround ? 0.1F : 0.02F);
+        moveRelative(vertical, forward, this.onGround ? GROUND_SPEED : AIR_SPEED);
 
         // Apply gravity
-        this.motionY -= 0.08F;
+        this.motionY -= GRAVITY;
 
         // Move the entity using motion
         move(this.motionX, this.motionY, this.motionZ);
 
         // Decrease motion speed
-        this.motionX *= 0.91F;
-        this.motionY *= 0.98F;
-        this.motionZ *= 0.91F;
+        this.motionX *= HORIZONTAL_DRAG;
+        this.motionY *= VERTICAL_DRAG;
+        this.motionZ *= HORIZONTAL_DRAG;
 
         // Decrease motion speed on ground
         if (this.onGround) {
-            this.motionX *= 0.7F;
-            this.motionZ *= 0.7F;
+            this.motionX *= GROUND_FRICTION;
+            this.motionZ *= GROUND_FRICTION;
         }
     }
 
     /**
-     * Render the zombie
+     * Random start direction of a zombie
      *
-     * @param partialTicks Overflow for interpolation
+     * @param random Random stream of the zombie
+     * @return Rotation in radians
      */
-    public void render(float partialTicks) {
-        // Start rendering
-        glPushMatrix();
-        glEnable(GL_TEXTURE_2D);
-
-        // Bind texture
-        glBindTexture(GL_TEXTURE_2D, Textures.loadTexture("/char.png", GL_NEAREST));
-
-        // Zombie animation time
-        double time = System.nanoTime() / 1000000000D * 10.0 * this.speed + this.timeOffset;
-
-        // Interpolate entity position
-        double interpolatedX = this.prevX + (this.x - this.prevX) * partialTicks;
-        double interpolatedY = this.prevY + (this.y - this.prevY) * partialTicks;
-        double interpolatedZ = this.prevZ + (this.z - this.prevZ) * partialTicks;
-
-        // Translate using interpolated position
-        glTranslated(interpolatedX, interpolatedY, interpolatedZ);
+    static double randomRotation(SplittableRandom random) {
+        return random.nextDouble() * Math.PI * 2;
+    }
 
-        // Flip the entity because it's upside down
-        glScalef(1.0F, -1.0F, 1.0F);
+    /**
+     * Random start turn speed of a zombie
+     *
+     * @param random Random stream of the zombie
+     * @return Rotation change per tick
+     */
+    static double randomRotationMotionFactor(SplittableRandom random) {
+        return (random.nextDouble() + 1.0) * 0.01F;
+    }
 
-        // Actual size of the entity
-        float size = 7.0F / 120.0F;
-        glScalef(size, size, size);
+    /**
+     * Random animation offset, so zombies don't move in sync
+     *
+     * @param random Random stream of the zombie
+     * @return Animation time offset
+     */
+    static float randomTimeOffset(SplittableRandom random) {
+        return (float) (random.nextDouble() * 1239813.0F);
+    }
 
-        // Body offset animation
-        double offsetY = Math.abs(Math.sin(time * 2.0D / 3.0D)) * 5.0 + 23.0D;
-        glTranslated(0.0F, -offsetY, 0.0F);
+    /**
+     * Slow down the turn speed and let it drift randomly
+     *
+     * @param rotationMotionFactor Rotation change per tick
+     * @param random               Random stream of the zombie
+     * @return Rotation change of the next tick
+     */
+    static double nextRotationMotionFactor(double rotationMotionFactor, SplittableRandom random) {
+        return rotationMotionFactor * 0.99D
+                + (random.nextDouble() - random.nextDouble()) * random.nextDouble() * random.nextDouble() * 0.009999999776482582;
+    }
 
-        // Rotate the entity
-        glRotated(Math.toDegrees(this.rotation) + 180, 0.0F, 1.0F, 0.0F);
+    @Override
+    public double getModelRotation() {
+        return this.rotation;
+    }
 
-        // Render the model
-        this.model.render(time);
+    @Override
+    public float getAnimationOffset() {
+        return this.timeOffset;
+    }
 
-        // Stop rendering
-        glDisable(GL_TEXTURE_2D);
-        glPopMatrix();
+    @Override
+    public float getAnimationSpeed() {
+        return this.speed;
     }
 }
@@ -1,15 +1,24 @@
 package com.mojang.minecraft.character;
 
+import com.mojang.minecraft.Textures;
+
+import static org.lwjgl.opengl.GL11.*;
+
 public class ZombieModel {
 
-    public Cube head;
-    public Cube body;
+    /**
+     * The model is never changed after its creation, all zombies share it
+     */
+    public static final ZombieModel INSTANCE = new ZombieModel();
+
+    public final Cube head;
+    public final Cube body;
 
-    public Cube rightArm;
-    public Cube leftArm;
+    public final Cube rightArm;
+    public final Cube leftArm;
 
-    public Cube rightLeg;
-    public Cube leftLeg;
+    public final Cube rightLeg;
+    public final Cube leftLeg;
 
     /**
      * Create cubes for the zombie model
@@ -44,28 +53,65 @@ public class ZombieModel {
         this.leftLeg.setPosition(2.0F, 12.0F, 0.0F);
     }
 
+    /**
+     * Render the model in the level
+     *
+     * @param x          Position x
+     * @param y          Position y
+     * @param z          Position z
+     * @param rotation   Walking direction in radians
+     * @param time       Animation time
+     * @param brightness Brightness of the light level at the position (0.0 - 1.0)
+     */
+    public void render(double x, double y, double z, double rotation, double time, float brightness) {
+        // Start rendering
+        glPushMatrix();
+        glEnable(GL_TEXTURE_2D);
+
+        // Tint the texture with the light level
+        glColor3f(brightness, brightness, brightness);
+
+        // Bind texture
+        glBindTexture(GL_TEXTURE_2D, Textures.loadTexture("/char.png", GL_NEAREST));
+
+        // Translate using interpolated position
+        glTranslated(x, y, z);
+
+        // Flip the entity because it's upside down
+        glScalef(1.0F, -1.0F, 1.0F);
+
+        // Actual size of the entity
+        float size = 7.0F / 120.0F;
+        glScalef(size, size, size);
+
+        // Body offset animation
+        double offsetY = Math.abs(Math.sin(time * 2.0D / 3.0D)) * 5.0 + 23.0D;
+        glTranslated(0.0F, -offsetY, 0.0F);
+
+        // Rotate the entity
+        glRotated(Math.toDegrees(rotation) + 180, 0.0F, 1.0F, 0.0F);
+
+        // Render the model
+        render(time);
+
+        // Stop rendering
+        glColor3f(1.0F, 1.0F, 1.0F);
+        glDisable(GL_TEXTURE_2D);
+        glPopMatrix();
+    }
+
     /**
      * Render the model
      *
      * @param time Animation offset
      */
     public void render(double time) {
-        // Set rotation of cubes
-        this.head.yRotation = (float) Math.sin(time * 0.83);
-        this.head.xRotation = (float) Math.sin(time) * 0.8F;
-        this.rightArm.xRotation = (float) Math.sin(time * 0.6662 + Math.PI) * 2.0F;
-        this.rightArm.zRotation = (float) (Math.sin(time * 0.2312) + 1.0);
-        this.leftArm.xRotation = (float) Math.sin(time * 0.6662) * 2.0f;
-        this.leftArm.zRotation = (float) (Math.sin(time * 0.2812) - 1.0);
-        this.rightLeg.xRotation = (float) Math.sin(time * 0.6662) * 1.4f;
-        this.leftLeg.xRotation = (float) Math.sin(time * 0.6662 + Math.PI) * 1.4F;
-
-        // Render cubes
-        this.head.render();
-        this.body.render();
-        this.rightArm.render();
-        this.leftArm.render();
-        this.rightLeg.render();
-        this.leftLeg.render();
+        // Render cubes with the rotation of this animation time
+        this.head.render((float) Math.sin(time) * 0.8F, (float) Math.sin(time * 0.83), 0.0F);
+        this.body.render(0.0F, 0.0F, 0.0F);
+        this.rightArm.render((float) Math.sin(time * 0.6662 + Math.PI) * 2.0F, 0.0F, (float) (Math.sin(time * 0.2312) + 1.0));
+        this.leftArm.render((float) Math.sin(time * 0.6662) * 2.0f, 0.0F, (float) (Math.sin(time * 0.2812) - 1.0));
+        this.rightLeg.render((float) Math.sin(time * 0.6662) * 1.4f, 0.0F, 0.0F);
+        this.leftLeg.render((float) Math.sin(time * 0.6662 + Math.PI) * 1.4F, 0.0F, 0.0F);
     }
 }
@@ -0,0 +1,437 @@
+package com.mojang.minecraft.character;
+
+import com.mojang.minecraft.Entity;
+import com.mojang.minecraft.level.Frustum;
+import com.mojang.minecraft.level.Level;
+import com.mojang.minecraft.phys.AABB;
+import com.mojang.minecraft.phys.AABBBuffer;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+public class ZombieSwarm {
+
+    /**
+     * Size of the zombie bounding box
+     */
+    private static final float WIDTH = 0.6F;
+    private static final float HEIGHT = 1.8F;
+
+    /**
+     * Zombies per parallel task
+     */
+    private static final int BATCH_SIZE = 2048;
+
+    /**
+     * Swarms of two or more batches are ticked in parallel, a single batch is ticked on the calling thread
+     */
+    private static final int MIN_PARALLEL_BATCHES = 2;
+
+    /**
+     * Collision buffers of each thread
+     */
+    private static final ThreadLocal<Collision> COLLISIONS = ThreadLocal.withInitial(Collision::new);
+
+    private final Level level;
+
+    /**
+     * Root of the random streams, each spawned zombie gets its own split
+     */
+    private final SplittableRandom spawnRandom;
+
+    private int size;
+
+    /**
+     * State of all zombies, one array element per zombie.
+     * The position is the center of the bounding box on x and z and its bottom on y
+     */
+    private double[] x, y, z;
+    private double[] prevX, prevY, prevZ;
+    private double[] motionX, motionY, motionZ;
+    private double[] rotation;
+    private double[] rotationMotionFactor;
+    private float[] timeOffset;
+    private boolean[] onGround;
+    private boolean[] removed;
+    private SplittableRandom[] random;
+
+    /**
+     * Zombies stored in parallel primitive arrays instead of one object per zombie.
+     * A tick walks the arrays in tight loops, large swarms are split into batches on the common fork join pool.
+     * Each zombie owns a split random stream, so a swarm behaves the same for the same seed,
+     * no matter how the batches are distributed over the threads.
+     * All zombies are rendered with the shared {@link ZombieModel#INSTANCE}.
+     *
+     * @param level Level of the zombies
+     * @param seed  Seed of the random streams
+     */
+    public ZombieSwarm(Level level, long seed) {
+        this.level = level;
+        this.spawnRandom = new SplittableRandom(seed);
+
+        allocate(64);
+    }
+
+    /**
+     * Spawn a zombie
+     *
+     * @param x Position x
+     * @param y Position of the feet
+     * @param z Position z
+     */
+    public void spawn(double x, double y, double z) {
+        if (this.size == this.x.length) {
+            allocate(this.size * 2);
+        }
+
+        int i = this.size++;
+        this.x[i] = this.prevX[i] = x;
+        this.y[i] = this.prevY[i] = y;
+        this.z[i] = this.prevZ[i] = z;
+        this.motionX[i] = this.motionY[i] = this.motionZ[i] = 0.0;
+        this.onGround[i] = false;
+        this.removed[i] = false;
+
+        // Independent random stream of this zombie
+        SplittableRandom random = this.random[i] = this.spawnRandom.split();
+
+        this.rotation[i] = Zombie.randomRotation(random);
+        this.rotationMotionFactor[i] = Zombie.randomRotationMotionFactor(random);
+        this.timeOffset[i] = Zombie.randomTimeOffset(random);
+    }
+
+    /**
+     * Tick all zombies and remove the zombies that fell out of the level
+     */
+    public void onTick() {
+        int batches = (this.size + BATCH_SIZE - 1) / BATCH_SIZE;
+        if (batches >= MIN_PARALLEL_BATCHES) {
+            IntStream.range(0, batches).parallel().forEach(batch -> {
+                tickRange(batch * BATCH_SIZE, Math.min(this.size, (batch + 1) * BATCH_SIZE));
+            });
+        } else {
+            tickRange(0, this.size);
+        }
+
+        removeDead();
+    }
+
+    private void tickRange(int from, int to) {
+        Collision collision = COLLISIONS.get();
+        for (int i = from; i < to; i++) {
+            tick(i, collision);
+        }
+    }
+
+    /**
+     * Same movement as {@link Zombie#onTick()}, on the arrays of the swarm
+     */
+    private void tick(int i, Collision collision) {
+        SplittableRandom random = this.random[i];
+
+        // Store previous position
+        this.prevX[i] = this.x[i];
+        this.prevY[i] = this.y[i];
+        this.prevZ[i] = this.z[i];
+
+        // Kill in void
+        if (this.y[i] < Zombie.VOID_Y) {
+            this.removed[i] = true;
+        }
+
+        // Increase movement direction
+        this.rotation[i] += this.rotationMotionFactor[i];
+
+        // Modify direction motion factor
+        this.rotationMotionFactor[i] = Zombie.nextRotationMotionFactor(this.rotationMotionFactor[i], random);
+
+        // Calculate movement input using rotation
+        float vertical = (float) Math.sin(this.rotation[i]);
+        float forward = (float) Math.cos(this.rotation[i]);
+
+        // Randomly jump
+        if (this.onGround[i] && random.nextDouble() < Zombie.JUMP_CHANCE) {
+            this.motionY[i] = Zombie.JUMP_MOTION;
+        }
+
+        // Apply motion in the walking direction, the model is turned instead of the zombie
+        float factor = Entity.getRelativeMotionFactor(vertical, forward, this.onGround[i] ? Zombie.GROUND_SPEED : Zombie.AIR_SPEED);
+        this.motionX[i] += vertical * factor;
+        this.motionZ[i] += forward * factor;
+
+        // Apply gravity
+        this.motionY[i] -= Zombie.GRAVITY;
+
+        // Move the zombie using motion
+        move(i, collision);
+
+        // Decrease motion speed
+        this.motionX[i] *= Zombie.HORIZONTAL_DRAG;
+        this.motionY[i] *= Zombie.VERTICAL_DRAG;
+        this.motionZ[i] *= Zombie.HORIZONTAL_DRAG;
+
+        // Decrease motion speed on ground
+        if (this.onGround[i]) {
+            this.motionX[i] *= Zombie.GROUND_FRICTION;
+            this.motionZ[i] *= Zombie.GROUND_FRICTION;
+        }
+    }
+
+    private void move(int i, Collision collision) {
+        double motionX = this.motionX[i];
+        double motionY = this.motionY[i];
+        double motionZ = this.motionZ[i];
+
+        // Bounding box of the zombie
+        float width = WIDTH / 2.0F;
+        AABB box = collision.box;
+        box.set(this.x[i] - width, this.y[i], this.z[i] - width, this.x[i] + width, this.y[i] + HEIGHT, this.z[i] + width);
+
+        // Get surrounded tiles
+        AABBBuffer boxes = collision.boxes;
+        this.level.getCubes(box.expand(motionX, motionY, motionZ, collision.area), boxes);
+
+        // Move the bounding box as far as the tiles allow
+        int collided = boxes.clipMove(box, motionX, motionY, motionZ);
+
+        // Update on ground state
+        this.onGround[i] = (collided & AABBBuffer.COLLIDED_Y) != 0 && motionY < 0.0F;
+
+        // Stop motion on collision
+        if ((collided & AABBBuffer.COLLIDED_X) != 0) this.motionX[i] = 0.0D;
+        if ((collided & AABBBuffer.COLLIDED_Y) != 0) this.motionY[i] = 0.0D;
+        if ((collided & AABBBuffer.COLLIDED_Z) != 0) this.motionZ[i] = 0.0D;
+
+        // Move the actual zombie position
+        this.x[i] = (box.minX + box.maxX) / 2.0D;
+        this.y[i] = box.minY;
+        this.z[i] = (box.minZ + box.maxZ) / 2.0D;
+    }
+
+    private void removeDead() {
+        int target = 0;
+        for (int i = 0; i < this.size; i++) {
+            if (this.removed[i]) {
+                continue;
+            }
+
+            // Close the gap of the removed zombies, the order is kept
+            if (target != i) {
+                this.x[target] = this.x[i];
+                this.y[target] = this.y[i];
+                this.z[target] = this.z[i];
+                this.prevX[target] = this.prevX[i];
+                this.prevY[target] = this.prevY[i];
+                this.prevZ[target] = this.prevZ[i];
+                this.motionX[target] = this.motionX[i];
+                this.motionY[target] = this.motionY[i];
+                this.motionZ[target] = this.motionZ[i];
+                this.rotation[target] = this.rotation[i];
+                this.rotationMotionFactor[target] = this.rotationMotionFactor[i];
+                this.timeOffset[target] = this.timeOffset[i];
+                this.onGround[target] = this.onGround[i];
+                this.removed[target] = false;
+                this.random[target] = this.random[i];
+            }
+            target++;
+        }
+
+        // Release the random streams of the removed zombies
+        Arrays.fill(this.random, target, this.size, null);
+        this.size = target;
+    }
+
+    /**
+     * Capture the zombies around a position for the render thread
+     *
+     * @param snapshot Target snapshot, it's cleared first
+     * @param x        Center x, usually the player
+     * @param z        Center z, usually the player
+     * @param distance Maximum horizontal distance of the captured zombies
+     */
+    public void capture(Snapshot snapshot, double x, double z, double distance) {
+        snapshot.clear();
+
+        double distanceSquared = distance * distance;
+        for (int i = 0; i < this.size; i++) {
+            double distanceX = this.x[i] - x;
+            double distanceZ = this.z[i] - z;
+            if (distanceX * distanceX + distanceZ * distanceZ > distanceSquared) {
+                continue;
+            }
+
+            float brightness = this.level.getBrightness((int) Math.floor(this.x[i]), (int) Math.floor(this.y[i]), (int) Math.floor(this.z[i]));
+            snapshot.add(this.prevX[i], this.prevY[i], this.prevZ[i], this.x[i], this.y[i], this.z[i],
+                    this.rotation[i], this.timeOffset[i], brightness);
+        }
+    }
+
+    /**
+     * Amount of zombies
+     *
+     * @return Zombie count
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Position x of a zombie
+     *
+     * @param index Index of the zombie
+     * @return Center of the bounding box on x
+     */
+    public double getX(int index) {
+        return this.x[index];
+    }
+
+    /**
+     * Position y of a zombie
+     *
+     * @param index Index of the zombie
+     * @return Bottom of the bounding box
+     */
+    public double getY(int index) {
+        return this.y[index];
+    }
+
+    /**
+     * Position z of a zombie
+     *
+     * @param index Index of the zombie
+     * @return Center of the bounding box on z
+     */
+    public double getZ(int index) {
+        return this.z[index];
+    }
+
+    private void allocate(int capacity) {
+        this.x = grow(this.x, capacity);
+        this.y = grow(this.y, capacity);
+        this.z = grow(this.z, capacity);
+        this.prevX = grow(this.prevX, capacity);
+        this.prevY = grow(this.prevY, capacity);
+        this.prevZ = grow(this.prevZ, capacity);
+        this.motionX = grow(this.motionX, capacity);
+        this.motionY = grow(this.motionY, capacity);
+        this.motionZ = grow(this.motionZ, capacity);
+        this.rotation = grow(this.rotation, capacity);
+        this.rotationMotionFactor = grow(this.rotationMotionFactor, capacity);
+        this.timeOffset = this.timeOffset == null ? new float[capacity] : Arrays.copyOf(this.timeOffset, capacity);
+        this.onGround = this.onGround == null ? new boolean[capacity] : Arrays.copyOf(this.onGround, capacity);
+        this.removed = this.removed == null ? new boolean[capacity] : Arrays.copyOf(this.removed, capacity);
+        this.random = this.random == null ? new SplittableRandom[capacity] : Arrays.copyOf(this.random, capacity);
+    }
+
+    private static double[] grow(double[] array, int capacity) {
+        return array == null ? new double[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    /**
+     * Reused collision state of a thread
+     */
+    private static class Collision {
+        private final AABBBuffer boxes = new AABBBuffer();
+        private final AABB box = new AABB(0.0, 0.0, 0.0, 0.0, 0.0, 0.0);
+        private final AABB area = new AABB(0.0, 0.0, 0.0, 0.0, 0.0, 0.0);
+    }
+
+    /**
+     * Zombies of a swarm at the end of a tick, the render thread interpolates between the captured positions
+     */
+    public static class Snapshot {
+        private static final int STRIDE = 6;
+
+        private double[] positions = new double[64 * STRIDE];
+        private double[] rotations = new double[64];
+        private float[] timeOffsets = new float[64];
+        private float[] brightness = new float[64];
+        private int size;
+
+        /**
+         * Remove all captured zombies
+         */
+        public void clear() {
+            this.size = 0;
+        }
+
+        private void add(double prevX, double prevY, double prevZ, double x, double y, double z,
+                         double rotation, float timeOffset, float brightness) {
+            if (this.size == this.rotations.length) {
+                ensureCapacity(this.size * 2);
+            }
+
+            int offset = this.size * STRIDE;
+            this.positions[offset] = prevX;
+            this.positions[offset + 1] = prevY;
+            this.positions[offset + 2] = prevZ;
+            this.positions[offset + 3] = x;
+            this.positions[offset + 4] = y;
+            this.positions[offset + 5] = z;
+            this.rotations[this.size] = rotation;
+            this.timeOffsets[this.size] = timeOffset;
+            this.brightness[this.size] = brightness;
+            this.size++;
+        }
+
+        /**
+         * Replace the content with a copy of another snapshot
+         *
+         * @param snapshot The snapshot to copy
+         */
+        public void copyFrom(Snapshot snapshot) {
+            ensureCapacity(snapshot.size);
+
+            System.arraycopy(snapshot.positions, 0, this.positions, 0, snapshot.size * STRIDE);
+            System.arraycopy(snapshot.rotations, 0, this.rotations, 0, snapshot.size);
+            System.arraycopy(snapshot.timeOffsets, 0, this.timeOffsets, 0, snapshot.size);
+            System.arraycopy(snapshot.brightness, 0, this.brightness, 0, snapshot.size);
+            this.size = snapshot.size;
+        }
+
+        /**
+         * Render all captured zombies in the light level of their position
+         *
+         * @param frustum      Frustum of the camera
+         * @param partialTicks Overflow ticks to interpolate
+         */
+        public void render(Frustum frustum, float partialTicks) {
+            // Zombie animation time
+            double time = System.nanoTime() / 1000000000D * 10.0;
+            float width = WIDTH / 2.0F;
+
+            for (int i = 0; i < this.size; i++) {
+                int offset = i * STRIDE;
+                double x = this.positions[offset] + (this.positions[offset + 3] - this.positions[offset]) * partialTicks;
+                double y = this.positions[offset + 1] + (this.positions[offset + 4] - this.positions[offset + 1]) * partialTicks;
+                double z = this.positions[offset + 2] + (this.positions[offset + 5] - this.positions[offset + 2]) * partialTicks;
+
+                if (frustum.cubeInFrustum((float) (x - width), (float) y, (float) (z - width),
+                        (float) (x + width), (float) (y + HEIGHT), (float) (z + width))) {
+                    ZombieModel.INSTANCE.render(x, y, z, this.rotations[i], time + this.timeOffsets[i], this.brightness[i]);
+                }
+            }
+        }
+
+        /**
+         * Amount of captured zombies
+         *
+         * @return Zombie count
+         */
+        public int size() {
+            return this.size;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= this.rotations.length) {
+                return;
+            }
+
+            this.positions = Arrays.copyOf(this.positions, capacity * STRIDE);
+            this.rotations = Arrays.copyOf(this.rotations, capacity);
+            this.timeOffsets = Arrays.copyOf(this.timeOffsets, capacity);
+            this.brightness = Arrays.copyOf(this.brightness, capacity);
+        }
+    }
+}
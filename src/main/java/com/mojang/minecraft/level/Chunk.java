@@ -1,16 +1,15 @@
 package com.mojang.minecraft.level;
 
-import com.mojang.minecraft.Player;
+import com.mojang.minecraft.Textures;
 import com.mojang.minecraft.level.tile.Tile;
 import com.mojang.minecraft.phys.AABB;
 
 import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL15.*;
 
 
 public class Chunk {
 
-    private static final Tessellator TESSELLATOR = new Tessellator();
-
     /**
      * Global rebuild statistic
      */
@@ -23,11 +22,24 @@ public class Chunk {
     private static long totalTime;
     private static int totalUpdates;
 
+    /**
+     * OpenGL texture of the atlas and of each repeating atlas slot, 0 until first rendered. Render thread only
+     */
+    private static int atlasTexture;
+    private static final int[] tileTextures = new int[GreedyMesher.TEXTURE_SLOTS];
+
     /**
      * The game level
      */
     private final Level level;
 
+    /**
+     * Rebuild queue of the renderer and the position of this chunk in it
+     */
+    private final DirtyChunkQueue dirtyChunkQueue;
+    int queueIndex = -1;
+    long queueKey;
+
     /**
      * Bounding box values
      */
@@ -36,16 +48,37 @@ public class Chunk {
     private final int maxX, maxY, maxZ;
     private final float x, y, z;
 
+    /**
+     * Vertex buffer of the chunk
+     */
+    private int buffer;
+    private int bufferVertices;
+    private long bufferSize;
+    private int[] batchTextures;
+    private int[] batchOffsets;
+
     /**
      * Rendering states
      */
-    private final int lists;
-    private boolean dirty = true;
+    private volatile boolean dirty;
+    private volatile boolean building;
+
+    /**
+     * Finished mesh of the worker thread
+     */
+    private volatile ChunkMesh mesh;
+
+    /**
+     * Face to face visibility graph of the last upload and of the finished build
+     */
+    private long visibility = ChunkVisibility.ALL;
+    private volatile long builtVisibility;
 
     /**
      * Chunk containing a part of the tiles in a level
      *
-     * @param level The game level
+     * @param level           The game level
+     * @param dirtyChunkQueue Rebuild queue of the renderer, the chunk adds itself when it gets dirty
      * @param minX  Minimal location X
      * @param minY  Minimal location Y
      * @param minZ  Minimal location Z
@@ -53,8 +86,9 @@ public class Chunk {
      * @param maxY  Maximal location Y
      * @param maxZ  Maximal location Z
      */
-    public Chunk(Level level, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+    public Chunk(Level level, DirtyChunkQueue dirtyChunkQueue, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
         this.level = level;
+        this.dirtyChunkQueue = dirtyChunkQueue;
 
         this.minX = minX;
         this.minY = minY;
@@ -68,82 +102,274 @@ public class Chunk {
         this.y = (minY + maxY) / 2.0f;
         this.z = (minZ + maxZ) / 2.0f;
 
-        // Generate lists id
-        this.lists = glGenLists(2);
-
         // Create bounding box object of chunk
         this.boundingBox = new AABB(minX, minY, minZ, maxX, maxY, maxZ);
     }
 
     /**
-     * Render all tiles in this chunk
+     * Build the mesh of all tiles in this chunk. Called on a chunk builder thread
      *
-     * @param layer The layer of the chunk (For shadows)
+     * @param meshBuffer   Mesh buffer of the worker thread
+     * @param greedyMesher Greedy mesher for the solid tiles or null to render every face separately
+     * @return The finished mesh
      */
-    public void rebuild(int layer) {
-        // Update global stats
-        updates++;
+    public ChunkMesh build(MeshBuffer meshBuffer, GreedyMesher greedyMesher) {
+        // Setup tile rendering
+        meshBuffer.clear();
 
-        // Mark chunk as no longer dirty
-        this.dirty = false;
+        // For each tile in this chunk, skip uniform sections without any visible face
+        if (!isHidden()) {
+            for (int x = this.minX; x < this.maxX; ++x) {
+                for (int y = this.minY; y < this.maxY; ++y) {
+                    for (int z = this.minZ; z < this.maxZ; ++z) {
+                        int tileId = this.level.getTile(x, y, z);
 
-        // Tile render counter
-        int tiles = 0;
-        long timeRebuildStart = System.nanoTime();
+                        // Is a tile at this location?
+                        if (tileId > 0) {
+                            Tile tile = Tile.tiles[tileId];
 
-        // Setup tile rendering
-        glNewList(this.lists + layer, GL_COMPILE);
-        TESSELLATOR.init();
-
-        // For each tile in this chunk
-        for (int x = this.minX; x < this.maxX; ++x) {
-            for (int y = this.minY; y < this.maxY; ++y) {
-                for (int z = this.minZ; z < this.maxZ; ++z) {
-                    int tileId = this.level.getTile(x, y, z);
-
-                    // Is a tile at this location?
-                    if (tileId > 0) {
-                        // Render the tile
-                        Tile.tiles[tileId].render(TESSELLATOR, this.level, layer, x, y, z);
-
-                        // Increase tile render counter
-                        tiles++;
+                            // Render the tile, solid tiles are handled by the greedy mesher
+                            if (greedyMesher == null || !tile.isSolid()) {
+                                tile.render(meshBuffer, this.level, x, y, z);
+                            }
+                        }
                     }
                 }
             }
         }
 
         // Finish tile rendering
-        TESSELLATOR.flush();
-        glEndList();
+        ChunkMesh mesh;
+        if (greedyMesher == null || isHidden()) {
+            mesh = meshBuffer.toMesh();
+        } else {
+            // Add merged faces of the solid tiles
+            greedyMesher.build(this.level, meshBuffer, this.minX, this.minY, this.minZ, this.maxX, this.maxY, this.maxZ);
+
+            // Atlas batch followed by the batches of the greedy mesher
+            int batches = greedyMesher.getBatchCount();
+            int[] batchTextures = new int[batches + 1];
+            int[] batchOffsets = new int[batches + 2];
+            batchTextures[0] = ChunkMesh.ATLAS;
+            batchOffsets[0] = 0;
+            System.arraycopy(greedyMesher.getBatchTextures(), 0, batchTextures, 1, batches);
+            System.arraycopy(greedyMesher.getBatchOffsets(), 0, batchOffsets, 1, batches + 1);
+
+            mesh = meshBuffer.toMesh(batchTextures, batchOffsets);
+        }
+
+        return mesh;
+    }
+
+    /**
+     * Build the mesh and the visibility graph. Called on a chunk builder thread
+     *
+     * @param meshBuffer       Mesh buffer of the worker thread
+     * @param greedyMesher     Greedy mesher of the worker thread or null
+     * @param chunkVisibility  Visibility graph calculator of the worker thread
+     */
+    public void build(MeshBuffer meshBuffer, GreedyMesher greedyMesher, ChunkVisibility chunkVisibility) {
+        long timeRebuildStart = System.nanoTime();
+
+        this.builtVisibility = chunkVisibility.compute(this.level, this.minX, this.minY, this.minZ, this.maxX, this.maxY, this.maxZ);
+        this.mesh = build(meshBuffer, greedyMesher);
+
+        // Update rebuild time statistic, hidden chunks are skipped almost for free
+        if (!isHidden()) {
+            addRebuildTime(System.nanoTime() - timeRebuildStart);
+        }
+    }
+
+    /**
+     * Upload the finished mesh into the vertex buffer. Has to be called on the render thread
+     *
+     * @return Amount of uploaded vertices
+     */
+    public int upload() {
+        ChunkMesh mesh = this.mesh;
+        this.mesh = null;
+        this.building = false;
+
+        // Chunk changed while it was building
+        if (this.dirty) {
+            this.dirtyChunkQueue.add(this);
+        }
+
+        // Build failed, keep the previous buffer
+        if (mesh == null) {
+            return 0;
+        }
+
+        // Update global stats
+        updates++;
+
+        // Apply visibility graph together with the mesh
+        this.visibility = this.builtVisibility;
+
+        // Generate buffer id on first upload
+        if (this.buffer == 0) {
+            this.buffer = glGenBuffers();
+        }
+
+        // Replace the buffer content
+        glBindBuffer(GL_ARRAY_BUFFER, this.buffer);
+        if (mesh.getVertices() > 0) {
+            glBufferData(GL_ARRAY_BUFFER, mesh.getBuffer(), GL_STATIC_DRAW);
+        } else {
+            glBufferData(GL_ARRAY_BUFFER, 0L, GL_STATIC_DRAW);
+        }
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+
+        // Track GPU memory
+        this.bufferVertices = mesh.getVertices();
+        this.batchTextures = mesh.getBatchTextures();
+        this.batchOffsets = mesh.getBatchOffsets();
+        this.bufferSize = (long) mesh.getVertices() * ChunkMesh.STRIDE;
+
+        return mesh.getVertices();
+    }
+
+    /**
+     * Delete the vertex buffer of this chunk
+     */
+    public void destroy() {
+        if (this.buffer != 0) {
+            glDeleteBuffers(this.buffer);
+            this.buffer = 0;
+        }
+
+        this.bufferVertices = 0;
+        this.bufferSize = 0;
+    }
+
+    /**
+     * Face to face visibility graph of the uploaded meshes
+     *
+     * @return Visibility graph, see {@link ChunkVisibility#isConnected(long, int, int)}
+     */
+    public long getVisibility() {
+        return this.visibility;
+    }
+
+    /**
+     * GPU memory used by the vertex buffer of this chunk
+     *
+     * @return Size in bytes
+     */
+    public long getMemoryUsage() {
+        return this.bufferSize;
+    }
+
+    private static synchronized void addRebuildTime(long time) {
+        totalTime += time;
+        totalUpdates++;
+    }
+
+    /**
+     * Average time of a chunk rebuild on a worker thread
+     *
+     * @return Average rebuild time in nanoseconds or 0 if no chunk was built yet
+     */
+    public static synchronized long getAverageRebuildTime() {
+        return totalUpdates == 0 ? 0L : totalTime / totalUpdates;
+    }
+
+    /**
+     * Check if the chunk can't contain any visible face.
+     * That's the case for a uniform air section or a uniform solid section that is enclosed by uniform solid sections.
+     *
+     * @return Chunk has nothing to render
+     */
+    private boolean isHidden() {
+        int tileId = this.level.getUniformTile(this.minX, this.minY, this.minZ);
+
+        // Empty or mixed section
+        if (tileId <= 0) {
+            return tileId == 0;
+        }
+
+        // Check if all neighbour sections are solid as well
+        return isSolidSection(tileId)
+                && isSolidSection(this.level.getUniformTile(this.minX - 1, this.minY, this.minZ))
+                && isSolidSection(this.level.getUniformTile(this.maxX, this.minY, this.minZ))
+                && isSolidSection(this.level.getUniformTile(this.minX, this.minY - 1, this.minZ))
+                && isSolidSection(this.level.getUniformTile(this.minX, this.maxY, this.minZ))
+                && isSolidSection(this.level.getUniformTile(this.minX, this.minY, this.minZ - 1))
+                && isSolidSection(this.level.getUniformTile(this.minX, this.minY, this.maxZ));
+    }
 
-        // Update chunk update counter
-        if (tiles > 0) {
-            totalTime += System.nanoTime() - timeRebuildStart;
-            totalUpdates++;
+    private static boolean isSolidSection(int uniformTileId) {
+        return uniformTileId > 0 && Tile.tiles[uniformTileId].isSolid();
+    }
+
+    /**
+     * Render all tiles in this chunk.
+     * The vertex, texture coordinate and color client states have to be enabled and the terrain atlas has to be bound.
+     */
+    public void render() {
+        int vertices = this.bufferVertices;
+        if (vertices == 0) {
+            return;
+        }
+
+        // Bind the vertex buffer and set the interleaved pointers
+        glBindBuffer(GL_ARRAY_BUFFER, this.buffer);
+        glVertexPointer(3, GL_FLOAT, ChunkMesh.STRIDE, 0L);
+        glTexCoordPointer(2, GL_FLOAT, ChunkMesh.STRIDE, 3 * 4L);
+        glColorPointer(3, GL_FLOAT, ChunkMesh.STRIDE, 5 * 4L);
+
+        int[] batchTextures = this.batchTextures;
+        int[] batchOffsets = this.batchOffsets;
+
+        // Draw quads of each batch
+        for (int batch = 0; batch < batchTextures.length; batch++) {
+            int count = batchOffsets[batch + 1] - batchOffsets[batch];
+            if (count == 0) {
+                continue;
+            }
+
+            // Bind repeating texture of merged faces
+            if (batchTextures[batch] != ChunkMesh.ATLAS) {
+                glBindTexture(GL_TEXTURE_2D, getTileTexture(batchTextures[batch]));
+            }
+
+            glDrawArrays(GL_QUADS, batchOffsets[batch], count);
+        }
+
+        // Restore terrain atlas
+        if (batchTextures[batchTextures.length - 1] != ChunkMesh.ATLAS) {
+            glBindTexture(GL_TEXTURE_2D, getAtlasTexture());
         }
     }
 
     /**
-     * Rebuild the chunk for all layers
+     * Texture of the terrain atlas, resolved on first use
+     *
+     * @return Texture id of OpenGL
      */
-    public void rebuild() {
-        rebuild(0);
-        rebuild(1);
+    private static int getAtlasTexture() {
+        if (atlasTexture == 0) {
+            atlasTexture = Textures.loadTexture("/terrain.png", GL_NEAREST);
+        }
+        return atlasTexture;
     }
 
     /**
-     * Render all tiles in this chunk
+     * Repeating texture of an atlas slot, resolved on first use
      *
-     * @param layer The render layer (Shadow layer)
+     * @param slot Texture slot id
+     * @return Texture id of OpenGL
      */
-    public void render(int layer) {
-        // Call lists id to render the chunk
-        glCallList(this.lists + layer);
+    private static int getTileTexture(int slot) {
+        int id = tileTextures[slot];
+        if (id == 0) {
+            id = tileTextures[slot] = Textures.loadTileTexture("/terrain.png", slot, GL_NEAREST);
+        }
+        return id;
     }
 
     /**
-     * Mark chunk as dirty. The chunk will rebuild in the next frame
+     * Mark chunk as dirty and add it to the rebuild queue. The chunk will rebuild in one of the next frames
      */
     public void setDirty() {
         if (!this.dirty) {
@@ -151,6 +377,19 @@ public class Chunk {
         }
 
         this.dirty = true;
+
+        // A building chunk is queued again after the upload
+        if (!this.building) {
+            this.dirtyChunkQueue.add(this);
+        }
+    }
+
+    /**
+     * Mark chunk as submitted to a chunk builder. It's no longer dirty until it changes again
+     */
+    public void setBuilding() {
+        this.dirty = false;
+        this.building = true;
     }
 
     /**
@@ -163,15 +402,26 @@ public class Chunk {
     }
 
     /**
-     * Calculate squared distance to the player
+     * Chunk is currently built by a worker thread
+     *
+     * @return Chunk is building
+     */
+    public boolean isBuilding() {
+        return building;
+    }
+
+    /**
+     * Calculate squared distance to a location
      *
-     * @param player The player for the location
-     * @return The squared distance from the center of the chunk to the player
+     * @param x Location X
+     * @param y Location Y
+     * @param z Location Z
+     * @return The squared distance from the center of the chunk to the location
      */
-    public double distanceToSqr(Player player) {
-        double distanceX = player.x - this.x;
-        double distanceY = player.y - this.y;
-        double distanceZ = player.z - this.z;
+    public double distanceToSqr(double x, double y, double z) {
+        double distanceX = x - this.x;
+        double distanceY = y - this.y;
+        double distanceZ = z - this.z;
         return distanceX * distanceX + distanceY * distanceY + distanceZ * distanceZ;
     }
 }
@@ -0,0 +1,135 @@
+package com.mojang.minecraft.level;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ChunkBuilder {
+
+    /**
+     * Mesh buffer of each worker thread
+     */
+    private final ThreadLocal<MeshBuffer> meshBuffers = ThreadLocal.withInitial(MeshBuffer::new);
+    private final ThreadLocal<GreedyMesher> greedyMeshers = ThreadLocal.withInitial(GreedyMesher::new);
+    private final ThreadLocal<ChunkVisibility> chunkVisibilities = ThreadLocal.withInitial(ChunkVisibility::new);
+
+    /**
+     * Merge coplanar faces of solid tiles
+     */
+    private volatile boolean greedyMeshing;
+
+    private final ExecutorService executor;
+    private final int threads;
+
+    /**
+     * Chunks with finished meshes, waiting for the upload
+     */
+    private final Queue<Chunk> finished = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * Build chunk meshes on a pool of worker threads.
+     * The render thread only uploads finished meshes.
+     */
+    public ChunkBuilder() {
+        this.threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+        AtomicInteger threadId = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.threads, runnable -> {
+            Thread thread = new Thread(runnable, "Chunk Builder #" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start building the chunk on a worker thread
+     *
+     * @param chunk The dirty chunk
+     */
+    public void submit(Chunk chunk) {
+        chunk.setBuilding();
+        this.pending.incrementAndGet();
+
+        boolean greedyMeshing = this.greedyMeshing;
+        this.executor.execute(() -> {
+            try {
+                chunk.build(this.meshBuffers.get(), greedyMeshing ? this.greedyMeshers.get() : null, this.chunkVisibilities.get());
+            } finally {
+                this.finished.add(chunk);
+            }
+        });
+    }
+
+    /**
+     * Upload finished meshes until the time budget is used up. At least one chunk is always uploaded.
+     * Has to be called on the render thread
+     *
+     * @param budget Upload time budget in nanoseconds
+     * @return Amount of uploaded chunks
+     */
+    public int uploadFinished(long budget) {
+        long start = System.nanoTime();
+        int uploaded = 0;
+
+        do {
+            Chunk chunk = this.finished.poll();
+            if (chunk == null) {
+                break;
+            }
+
+            // Upload mesh to the GPU
+            chunk.upload();
+            this.pending.decrementAndGet();
+            uploaded++;
+        } while (System.nanoTime() - start < budget);
+
+        return uploaded;
+    }
+
+    /**
+     * Check if more chunks can be submitted. Keeps the queue short, so the build order follows the camera
+     *
+     * @param rebuildLimit Amount of chunks the scheduler allows per frame
+     * @return Builder has capacity for another chunk
+     */
+    public boolean hasCapacity(int rebuildLimit) {
+        return this.pending.get() < this.threads + rebuildLimit;
+    }
+
+    /**
+     * Amount of worker threads
+     *
+     * @return Thread count
+     */
+    public int getThreads() {
+        return this.threads;
+    }
+
+    /**
+     * Enable or disable the greedy mesher for solid tiles
+     *
+     * @param greedyMeshing Merge coplanar faces into larger quads
+     */
+    public void setGreedyMeshing(boolean greedyMeshing) {
+        this.greedyMeshing = greedyMeshing;
+    }
+
+    /**
+     * Greedy meshing state
+     *
+     * @return Coplanar faces are merged
+     */
+    public boolean isGreedyMeshing() {
+        return this.greedyMeshing;
+    }
+
+    /**
+     * Stop all worker threads
+     */
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+}
@@ -0,0 +1,89 @@
+package com.mojang.minecraft.level;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+public class ChunkMesh {
+
+    /**
+     * Interleaved vertex layout: position (3), texture UV (2), color (3)
+     */
+    public static final int VERTEX_SIZE = 8;
+    public static final int STRIDE = VERTEX_SIZE * 4;
+
+    /**
+     * Batch texture of the terrain atlas
+     */
+    public static final int ATLAS = -1;
+
+    private final FloatBuffer buffer;
+    private final int vertices;
+
+    /**
+     * Texture of each batch (ATLAS or a texture slot id) and the vertex offsets of the batches
+     */
+    private final int[] batchTextures;
+    private final int[] batchOffsets;
+
+    /**
+     * Finished CPU-side geometry of a chunk, waiting to be uploaded by the render thread
+     *
+     * @param vertices Amount of vertices in the mesh
+     */
+    public ChunkMesh(int vertices) {
+        this(vertices, new int[]{ATLAS}, new int[]{0, vertices});
+    }
+
+    /**
+     * Finished CPU-side geometry of a chunk, split into batches with different textures
+     *
+     * @param vertices      Amount of vertices in the mesh
+     * @param batchTextures Texture of each batch (ATLAS or a repeating texture slot)
+     * @param batchOffsets  First vertex of each batch, followed by the end of the last batch
+     */
+    public ChunkMesh(int vertices, int[] batchTextures, int[] batchOffsets) {
+        this.vertices = vertices;
+        this.batchTextures = batchTextures;
+        this.batchOffsets = batchOffsets;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(1, vertices) * STRIDE)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+    }
+
+    /**
+     * Interleaved vertex data
+     *
+     * @return Buffer containing all vertices
+     */
+    public FloatBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    /**
+     * Amount of vertices
+     *
+     * @return Vertex count
+     */
+    public int getVertices() {
+        return this.vertices;
+    }
+
+    /**
+     * Texture of each batch
+     *
+     * @return ATLAS or a texture slot id for each batch
+     */
+    public int[] getBatchTextures() {
+        return this.batchTextures;
+    }
+
+    /**
+     * Vertex offsets of the batches
+     *
+     * @return First vertex of each batch, followed by the end of the last batch
+     */
+    public int[] getBatchOffsets() {
+        return this.batchOffsets;
+    }
+}
@@ -0,0 +1,107 @@
+package com.mojang.minecraft.level;
+
+public class ChunkUpdateScheduler {
+
+    /**
+     * Shrink factor of the budget if a frame took longer than the target
+     */
+    private static final double BACK_OFF = 0.75;
+
+    /**
+     * Part of the unused frame time that is added to the budget
+     */
+    private static final double CATCH_UP = 0.5;
+
+    private final long targetFrameTime;
+    private final long minBudget;
+    private final long maxBudget;
+
+    private long budget;
+    private long lastFrameTime;
+    private long lastFrameDuration;
+
+    /**
+     * Decide how much chunk work fits into a frame.
+     * The budget shrinks if frames take longer than the target and grows with the unused time of fast frames,
+     * so the rebuild rate catches up quickly while the frame rate has headroom.
+     *
+     * @param targetFrameMillis Target duration of a frame in milliseconds
+     * @param budgetMillis      Initial chunk update budget per frame in milliseconds
+     */
+    public ChunkUpdateScheduler(float targetFrameMillis, float budgetMillis) {
+        this.targetFrameTime = (long) (targetFrameMillis * 1000000L);
+        this.budget = (long) (budgetMillis * 1000000L);
+
+        // Always allow a little progress, but never the whole frame
+        this.minBudget = Math.min(this.budget, 500000L);
+        this.maxBudget = Math.max(this.budget, this.targetFrameTime * 3 / 4);
+    }
+
+    /**
+     * Measure the duration of the previous frame and adapt the budget. Call once per frame
+     */
+    public void beginFrame() {
+        long now = System.nanoTime();
+
+        if (this.lastFrameTime != 0) {
+            this.lastFrameDuration = now - this.lastFrameTime;
+
+            if (this.lastFrameDuration > this.targetFrameTime) {
+                // Frame was too slow, reduce the chunk work
+                this.budget = (long) (this.budget * BACK_OFF);
+            } else {
+                // Use a part of the headroom for chunk work
+                this.budget += (long) ((this.targetFrameTime - this.lastFrameDuration) * CATCH_UP);
+            }
+
+            this.budget = Math.max(this.minBudget, Math.min(this.maxBudget, this.budget));
+        }
+
+        this.lastFrameTime = now;
+    }
+
+    /**
+     * Time the render thread may spend on uploading finished chunks in this frame
+     *
+     * @return Upload budget in nanoseconds
+     */
+    public long getUploadBudget() {
+        return this.budget;
+    }
+
+    /**
+     * Amount of chunks to hand to the chunk builder in this frame.
+     * Uses the average rebuild time of the chunk statistics, each worker thread gets as much work as fits into the budget.
+     *
+     * @param threads Amount of chunk builder threads
+     * @return Maximal amount of chunk rebuilds to start
+     */
+    public int getRebuildLimit(int threads) {
+        long averageRebuildTime = Chunk.getAverageRebuildTime();
+
+        // No statistic yet, give each worker a chunk
+        if (averageRebuildTime <= 0) {
+            return threads;
+        }
+
+        return (int) Math.max(1L, Math.min(Integer.MAX_VALUE, this.budget * threads / averageRebuildTime));
+    }
+
+    /**
+     * Current chunk update budget
+     *
+     * @return Budget per frame in milliseconds
+     */
+    public float getBudgetMillis() {
+        return this.budget / 1000000.0F;
+    }
+
+    /**
+     * Measured duration of the previous frame
+     *
+     * @return Frame duration in milliseconds
+     */
+    public float getLastFrameMillis() {
+        return this.lastFrameDuration / 1000000.0F;
+    }
+}
@@ -0,0 +1,149 @@
+package com.mojang.minecraft.level;
+
+import com.mojang.minecraft.level.tile.Tile;
+
+import java.util.Arrays;
+
+public class ChunkVisibility {
+
+    /**
+     * All faces can see each other
+     */
+    public static final long ALL = (1L << 36) - 1;
+
+    /**
+     * No face can see another face
+     */
+    public static final long NONE = 0L;
+
+    private final int[] queue = new int[LevelSection.VOLUME];
+    private final boolean[] visited = new boolean[LevelSection.VOLUME];
+
+    /**
+     * Check if two faces of a chunk can see each other
+     *
+     * @param visibility Visibility graph of the chunk
+     * @param from       Face id of the first side (0: Bottom, 1: Top, 2: Z-, 3: Z+, 4: X-, 5: X+)
+     * @param to         Face id of the second side
+     * @return The two sides are connected through non-solid tiles
+     */
+    public static boolean isConnected(long visibility, int from, int to) {
+        return (visibility >>> (from * 6 + to) & 1L) != 0;
+    }
+
+    /**
+     * Get the opposite face id
+     *
+     * @param face Face id
+     * @return The face on the other side
+     */
+    public static int getOpposite(int face) {
+        return face ^ 1;
+    }
+
+    /**
+     * Calculate which of the six chunk sides can see each other through non-solid tiles.
+     * Runs a flood fill for each connected area of non-solid tiles and connects all sides the area touches.
+     *
+     * @param level The level
+     * @param minX  Minimal chunk location X
+     * @param minY  Minimal chunk location Y
+     * @param minZ  Minimal chunk location Z
+     * @param maxX  Maximal chunk location X
+     * @param maxY  Maximal chunk location Y
+     * @param maxZ  Maximal chunk location Z
+     * @return Face to face visibility graph
+     */
+    public long compute(Level level, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        // Uniform sections are fully open or fully closed
+        int uniformTileId = level.getUniformTile(minX, minY, minZ);
+        if (uniformTileId >= 0) {
+            return isOpaque(uniformTileId) ? NONE : ALL;
+        }
+
+        int sizeX = maxX - minX;
+        int sizeY = maxY - minY;
+        int sizeZ = maxZ - minZ;
+
+        long visibility = NONE;
+        Arrays.fill(this.visited, false);
+
+        // Start a flood fill from each unvisited non-solid tile
+        for (int start = 0; start < sizeX * sizeY * sizeZ; start++) {
+            if (this.visited[start] || isOpaque(level, minX, minY, minZ, start, sizeX, sizeZ)) {
+                continue;
+            }
+
+            int faces = 0;
+            int head = 0;
+            int tail = 0;
+
+            this.visited[start] = true;
+            this.queue[tail++] = start;
+
+            while (head < tail) {
+                int index = this.queue[head++];
+                int x = index % sizeX;
+                int z = index / sizeX % sizeZ;
+                int y = index / sizeX / sizeZ;
+
+                // Collect touched chunk sides
+                if (y == 0) faces |= 1;
+                if (y == sizeY - 1) faces |= 1 << 1;
+                if (z == 0) faces |= 1 << 2;
+                if (z == sizeZ - 1) faces |= 1 << 3;
+                if (x == 0) faces |= 1 << 4;
+                if (x == sizeX - 1) faces |= 1 << 5;
+
+                // Visit neighbours inside of the chunk
+                if (y > 0) tail = visit(level, minX, minY, minZ, index - sizeX * sizeZ, sizeX, sizeZ, tail);
+                if (y < sizeY - 1) tail = visit(level, minX, minY, minZ, index + sizeX * sizeZ, sizeX, sizeZ, tail);
+                if (z > 0) tail = visit(level, minX, minY, minZ, index - sizeX, sizeX, sizeZ, tail);
+                if (z < sizeZ - 1) tail = visit(level, minX, minY, minZ, index + sizeX, sizeX, sizeZ, tail);
+                if (x > 0) tail = visit(level, minX, minY, minZ, index - 1, sizeX, sizeZ, tail);
+                if (x < sizeX - 1) tail = visit(level, minX, minY, minZ, index + 1, sizeX, sizeZ, tail);
+            }
+
+            // Connect all sides of this area with each other
+            for (int from = 0; from < 6; from++) {
+                if ((faces >> from & 1) == 0) {
+                    continue;
+                }
+                for (int to = 0; to < 6; to++) {
+                    if ((faces >> to & 1) != 0) {
+                        visibility |= 1L << (from * 6 + to);
+                    }
+                }
+            }
+
+            // Nothing more to find
+            if (visibility == ALL) {
+                break;
+            }
+        }
+
+        return visibility;
+    }
+
+    private int visit(Level level, int minX, int minY, int minZ, int index, int sizeX, int sizeZ, int tail) {
+        if (this.visited[index] || isOpaque(level, minX, minY, minZ, index, sizeX, sizeZ)) {
+            return tail;
+        }
+
+        this.visited[index] = true;
+        this.queue[tail] = index;
+        return tail + 1;
+    }
+
+    private static boolean isOpaque(Level level, int minX, int minY, int minZ, int index, int sizeX, int sizeZ) {
+        int x = minX + index % sizeX;
+        int z = minZ + index / sizeX % sizeZ;
+        int y = minY + index / sizeX / sizeZ;
+        return isOpaque(level.getTile(x, y, z));
+    }
+
+    private static boolean isOpaque(int tileId) {
+        Tile tile = Tile.tiles[tileId];
+        return tile != null && tile.isSolid();
+    }
+}
@@ -0,0 +1,212 @@
+package com.mojang.minecraft.level;
+
+import com.mojang.minecraft.Player;
+
+import java.util.Arrays;
+
+public class DirtyChunkQueue {
+
+    private static final int CHUNK_SIZE = 16;
+
+    /**
+     * Camera rotation in degrees after which the visibility keys are recalculated
+     */
+    private static final float ROTATION_THRESHOLD = 15.0F;
+
+    /**
+     * Chunks dirtied within the same duration share the age priority
+     */
+    private static final long DIRTY_DURATION = 2000L;
+    private static final long MAX_AGE_BUCKET = (1L << 29) - 1;
+
+    private final long startTime = System.currentTimeMillis();
+
+    /**
+     * Binary min heap of the dirty chunks, each chunk knows its own heap index
+     */
+    private Chunk[] heap = new Chunk[64];
+    private int size;
+
+    /**
+     * Camera state of the current keys
+     */
+    private Frustum frustum;
+    private double cameraX, cameraY, cameraZ;
+    private int cameraChunkX, cameraChunkY, cameraChunkZ;
+    private float cameraXRotation, cameraYRotation;
+    private boolean hasCamera;
+
+    /**
+     * Dirty chunks sorted by the rebuild priority.
+     * - Chunks that are visible in the camera have a higher priority than chunks behind the camera.
+     * - Chunks that were dirtied more recently have a higher priority.
+     * - Chunks closer to the player have a higher priority.
+     * The keys are only recalculated if the camera enters another chunk or rotates past a threshold,
+     * so polling the next chunk is O(log n) and doesn't scan the level.
+     */
+    public DirtyChunkQueue() {
+    }
+
+    /**
+     * Update the camera of the priority keys
+     *
+     * @param player  The player holding the camera rotation
+     * @param x       Camera position x for the distance priority
+     * @param y       Camera position y for the distance priority
+     * @param z       Camera position z for the distance priority
+     * @param frustum Frustum for the visible-in-camera priority
+     */
+    public void updateCamera(Player player, double x, double y, double z, Frustum frustum) {
+        this.frustum = frustum;
+
+        int chunkX = (int) Math.floor(x / CHUNK_SIZE);
+        int chunkY = (int) Math.floor(y / CHUNK_SIZE);
+        int chunkZ = (int) Math.floor(z / CHUNK_SIZE);
+
+        // Keep keys as long as the camera stays in the same chunk and looks in the same direction
+        if (this.hasCamera
+                && chunkX == this.cameraChunkX && chunkY == this.cameraChunkY && chunkZ == this.cameraChunkZ
+                && Math.abs(player.xRotation - this.cameraXRotation) < ROTATION_THRESHOLD
+                && Math.abs(player.yRotation - this.cameraYRotation) < ROTATION_THRESHOLD) {
+            return;
+        }
+
+        this.hasCamera = true;
+        this.cameraX = x;
+        this.cameraY = y;
+        this.cameraZ = z;
+        this.cameraChunkX = chunkX;
+        this.cameraChunkY = chunkY;
+        this.cameraChunkZ = chunkZ;
+        this.cameraXRotation = player.xRotation;
+        this.cameraYRotation = player.yRotation;
+
+        // Recalculate all keys and rebuild the heap in O(n)
+        for (int i = 0; i < this.size; i++) {
+            this.heap[i].queueKey = calculateKey(this.heap[i]);
+        }
+        for (int i = this.size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    /**
+     * Add a dirty chunk. Does nothing if the chunk is already queued
+     *
+     * @param chunk The dirty chunk
+     */
+    public void add(Chunk chunk) {
+        if (chunk.queueIndex >= 0) {
+            return;
+        }
+
+        if (this.size == this.heap.length) {
+            this.heap = Arrays.copyOf(this.heap, this.size * 2);
+        }
+
+        chunk.queueKey = calculateKey(chunk);
+        this.heap[this.size] = chunk;
+        chunk.queueIndex = this.size;
+        siftUp(this.size++);
+    }
+
+    /**
+     * Remove the chunk with the highest priority
+     *
+     * @return The next chunk to rebuild or null if the queue is empty
+     */
+    public Chunk poll() {
+        if (this.size == 0) {
+            return null;
+        }
+
+        Chunk chunk = this.heap[0];
+        chunk.queueIndex = -1;
+
+        // Move last chunk to the top
+        Chunk last = this.heap[--this.size];
+        this.heap[this.size] = null;
+        if (this.size > 0) {
+            this.heap[0] = last;
+            last.queueIndex = 0;
+            siftDown(0);
+        }
+        return chunk;
+    }
+
+    /**
+     * Amount of queued chunks
+     *
+     * @return Dirty chunk count
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Check if there are no dirty chunks
+     *
+     * @return Queue is empty
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Calculate the priority key of a chunk, lower keys are built first
+     */
+    private long calculateKey(Chunk chunk) {
+        // Visible chunks first
+        boolean visible = this.frustum == null || this.frustum.isVisible(chunk.boundingBox);
+
+        // More recently dirtied chunks first
+        long ageBucket = Math.max(0L, (chunk.dirtiedTime - this.startTime) / DIRTY_DURATION);
+        ageBucket = Math.min(ageBucket, MAX_AGE_BUCKET);
+
+        // Closer chunks first
+        long distance = this.hasCamera ? (long) chunk.distanceToSqr(this.cameraX, this.cameraY, this.cameraZ) : 0L;
+        distance = Math.min(distance, 0xFFFFFFFFL);
+
+        return (visible ? 0L : 1L << 61) | (MAX_AGE_BUCKET - ageBucket) << 32 | distance;
+    }
+
+    private void siftUp(int index) {
+        Chunk chunk = this.heap[index];
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            Chunk parent = this.heap[parentIndex];
+            if (parent.queueKey <= chunk.queueKey) {
+                break;
+            }
+
+            this.heap[index] = parent;
+            parent.queueIndex = index;
+            index = parentIndex;
+        }
+        this.heap[index] = chunk;
+        chunk.queueIndex = index;
+    }
+
+    private void siftDown(int index) {
+        Chunk chunk = this.heap[index];
+        int half = this.size >>> 1;
+        while (index < half) {
+            int childIndex = 2 * index + 1;
+            Chunk child = this.heap[childIndex];
+            int rightIndex = childIndex + 1;
+            if (rightIndex < this.size && this.heap[rightIndex].queueKey < child.queueKey) {
+                childIndex = rightIndex;
+                child = this.heap[childIndex];
+            }
+            if (chunk.queueKey <= child.queueKey) {
+                break;
+            }
+
+            this.heap[index] = child;
+            child.queueIndex = index;
+            index = childIndex;
+        }
+        this.heap[index] = chunk;
+        chunk.queueIndex = index;
+    }
+}
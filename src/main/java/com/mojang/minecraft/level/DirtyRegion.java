@@ -0,0 +1,149 @@
+package com.mojang.minecraft.level;
+
+import java.util.BitSet;
+
+public class DirtyRegion {
+
+    private final int width;
+    private final int height;
+    private final int depth;
+
+    private final int chunkAmountX;
+    private final int chunkAmountY;
+    private final int chunkAmountZ;
+
+    /**
+     * One bit per chunk, indexed like the level sections
+     */
+    private final BitSet chunks;
+
+    /**
+     * Set of changed 16x16x16 chunks of a level. Adding the same chunk multiple times costs a single bit,
+     * so the receiver of the region only handles each changed chunk once.
+     *
+     * @param width  Level width
+     * @param height Level height
+     * @param depth  Level depth
+     */
+    public DirtyRegion(int width, int height, int depth) {
+        this.width = width;
+        this.height = height;
+        this.depth = depth;
+
+        this.chunkAmountX = (width + LevelSection.SIZE - 1) >> LevelSection.SIZE_BITS;
+        this.chunkAmountY = (depth + LevelSection.SIZE - 1) >> LevelSection.SIZE_BITS;
+        this.chunkAmountZ = (height + LevelSection.SIZE - 1) >> LevelSection.SIZE_BITS;
+        this.chunks = new BitSet(this.chunkAmountX * this.chunkAmountY * this.chunkAmountZ);
+    }
+
+    /**
+     * Mark all chunks that intersect the given tile area. The area is clamped to the level
+     *
+     * @param minX Minimum tile position X
+     * @param minY Minimum tile position Y
+     * @param minZ Minimum tile position Z
+     * @param maxX Maximum tile position X
+     * @param maxY Maximum tile position Y
+     * @param maxZ Maximum tile position Z
+     */
+    public void add(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        // To chunk coordinates inside of the level
+        int minChunkX = Math.max(minX, 0) >> LevelSection.SIZE_BITS;
+        int minChunkY = Math.max(minY, 0) >> LevelSection.SIZE_BITS;
+        int minChunkZ = Math.max(minZ, 0) >> LevelSection.SIZE_BITS;
+        int maxChunkX = Math.min(maxX, this.width - 1) >> LevelSection.SIZE_BITS;
+        int maxChunkY = Math.min(maxY, this.depth - 1) >> LevelSection.SIZE_BITS;
+        int maxChunkZ = Math.min(maxZ, this.height - 1) >> LevelSection.SIZE_BITS;
+
+        for (int chunkY = minChunkY; chunkY <= maxChunkY; chunkY++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                // Rows along x are consecutive bits
+                int index = (chunkY * this.chunkAmountZ + chunkZ) * this.chunkAmountX;
+                if (minChunkX <= maxChunkX) {
+                    this.chunks.set(index + minChunkX, index + maxChunkX + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Mark all chunks of another region of the same level
+     *
+     * @param region The other region
+     */
+    public void add(DirtyRegion region) {
+        this.chunks.or(region.chunks);
+    }
+
+    /**
+     * Mark the entire level
+     */
+    public void addAll() {
+        this.chunks.set(0, this.chunkAmountX * this.chunkAmountY * this.chunkAmountZ);
+    }
+
+    /**
+     * Get the next marked chunk
+     *
+     * @param fromIndex First chunk index to check
+     * @return Index of the next marked chunk or -1 if there is none
+     */
+    public int nextChunk(int fromIndex) {
+        return this.chunks.nextSetBit(fromIndex);
+    }
+
+    /**
+     * Chunk position x of a chunk index
+     *
+     * @param index Chunk index
+     * @return Chunk position x
+     */
+    public int getChunkX(int index) {
+        return index % this.chunkAmountX;
+    }
+
+    /**
+     * Chunk position y of a chunk index
+     *
+     * @param index Chunk index
+     * @return Chunk position y
+     */
+    public int getChunkY(int index) {
+        return index / this.chunkAmountX / this.chunkAmountZ;
+    }
+
+    /**
+     * Chunk position z of a chunk index
+     *
+     * @param index Chunk index
+     * @return Chunk position z
+     */
+    public int getChunkZ(int index) {
+        return index / this.chunkAmountX % this.chunkAmountZ;
+    }
+
+    /**
+     * Amount of marked chunks
+     *
+     * @return Chunk count
+     */
+    public int size() {
+        return this.chunks.cardinality();
+    }
+
+    /**
+     * Check if no chunk is marked
+     *
+     * @return Region is empty
+     */
+    public boolean isEmpty() {
+        return this.chunks.isEmpty();
+    }
+
+    /**
+     * Unmark all chunks
+     */
+    public void clear() {
+        this.chunks.clear();
+    }
+}
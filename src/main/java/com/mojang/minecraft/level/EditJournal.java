@@ -0,0 +1,446 @@
+package com.mojang.minecraft.level;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+public class EditJournal implements Closeable {
+
+    private static final byte TYPE_TILE = 1;
+    private static final byte TYPE_REGION = 2;
+    private static final byte TYPE_FILL = 3;
+    private static final byte TYPE_REPLACE = 4;
+
+    /**
+     * Tick, position and the previous and new tile id
+     */
+    private static final int TILE_PAYLOAD_SIZE = 8 + 4 * 3 + 2;
+
+    /**
+     * Tick, position, size and the length of the compressed tiles
+     */
+    private static final int REGION_HEADER_SIZE = 8 + 4 * 3 + 4 * 3 + 4;
+
+    /**
+     * Tick, minimum and maximum of the area and the new tile id
+     */
+    private static final int FILL_PAYLOAD_SIZE = 8 + 4 * 6 + 1;
+
+    /**
+     * Tick, minimum and maximum of the area and the replaced and the new tile id
+     */
+    private static final int REPLACE_PAYLOAD_SIZE = 8 + 4 * 6 + 2;
+
+    private final Path path;
+    private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    private final CRC32 checksum = new CRC32();
+
+    /**
+     * Active journal file, opened with the first record
+     */
+    private FileChannel channel;
+    private int nextRotation;
+
+    /**
+     * Flushes the written records to the storage device, one flush covers all records written before it started
+     */
+    private final ExecutorService syncExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Edit journal sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> pendingSync;
+    private volatile boolean syncRequested;
+    private final AtomicBoolean syncRunning = new AtomicBoolean();
+
+    /**
+     * Buffer position of the record that is currently written
+     */
+    private int recordStart;
+
+    /**
+     * Append-only log of the tile changes since the last save.
+     * Records are collected in memory and written once per tick (Group commit),
+     * the flush to the storage device runs on a background thread.
+     * On each save the active file is rotated, the rotated files are deleted once the save is on disk.
+     * Every record sets absolute tile ids, so replaying records that are already part of the saved level is harmless.
+     *
+     * @param path Path of the active journal file, rotated files get a numbered suffix
+     * @throws IOException If the existing rotated files can't be listed
+     */
+    public EditJournal(Path path) throws IOException {
+        this.path = path;
+
+        // Continue the numbering of the rotated files
+        for (Path rotated : getRotatedFiles()) {
+            this.nextRotation = Math.max(this.nextRotation, getRotation(rotated) + 1);
+        }
+    }
+
+    /**
+     * Append a single tile change
+     *
+     * @param x      Tile position x
+     * @param y      Tile position y
+     * @param z      Tile position z
+     * @param prevId Previous tile id
+     * @param id     New tile id
+     * @param tick   Game tick of the change
+     */
+    public void appendTile(int x, int y, int z, int prevId, int id, long tick) {
+        ByteBuffer record = beginRecord(TYPE_TILE, TILE_PAYLOAD_SIZE);
+        record.putLong(tick).putInt(x).putInt(y).putInt(z).put((byte) prevId).put((byte) id);
+        endRecord(record);
+    }
+
+    /**
+     * Append the result of a bulk edit
+     *
+     * @param x      Target position of the region minimum x
+     * @param y      Target position of the region minimum y
+     * @param z      Target position of the region minimum z
+     * @param region Tiles of the edited area after the edit
+     * @param tick   Game tick of the change
+     */
+    public void appendRegion(int x, int y, int z, TileRegion region, long tick) {
+        byte[] compressed = RegionFile.compress(region.getTiles());
+
+        ByteBuffer record = beginRecord(TYPE_REGION, REGION_HEADER_SIZE + compressed.length);
+        record.putLong(tick).putInt(x).putInt(y).putInt(z);
+        record.putInt(region.width).putInt(region.height).putInt(region.depth);
+        record.putInt(compressed.length).put(compressed);
+        endRecord(record);
+    }
+
+    /**
+     * Append a fill of an area, only the operation is stored
+     *
+     * @param minX Minimum tile position X
+     * @param minY Minimum tile position Y
+     * @param minZ Minimum tile position Z
+     * @param maxX Maximum tile position X
+     * @param maxY Maximum tile position Y
+     * @param maxZ Maximum tile position Z
+     * @param id   Type of tile
+     * @param tick Game tick of the change
+     */
+    public void appendFill(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int id, long tick) {
+        ByteBuffer record = beginRecord(TYPE_FILL, FILL_PAYLOAD_SIZE);
+        record.putLong(tick).putInt(minX).putInt(minY).putInt(minZ).putInt(maxX).putInt(maxY).putInt(maxZ);
+        record.put((byte) id);
+        endRecord(record);
+    }
+
+    /**
+     * Append a replacement of a tile type in an area, only the operation is stored
+     *
+     * @param minX   Minimum tile position X
+     * @param minY   Minimum tile position Y
+     * @param minZ   Minimum tile position Z
+     * @param maxX   Maximum tile position X
+     * @param maxY   Maximum tile position Y
+     * @param maxZ   Maximum tile position Z
+     * @param fromId Type of the replaced tiles
+     * @param toId   New type of the replaced tiles
+     * @param tick   Game tick of the change
+     */
+    public void appendReplace(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int fromId, int toId, long tick) {
+        ByteBuffer record = beginRecord(TYPE_REPLACE, REPLACE_PAYLOAD_SIZE);
+        record.putLong(tick).putInt(minX).putInt(minY).putInt(minZ).putInt(maxX).putInt(maxY).putInt(maxZ);
+        record.put((byte) fromId).put((byte) toId);
+        endRecord(record);
+    }
+
+    /**
+     * Write all appended records of this tick and request a flush to the storage device
+     */
+    public void commit() {
+        if (this.buffer.position() == 0) {
+            return;
+        }
+
+        try {
+            this.buffer.flip();
+            writeFully(this.buffer);
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            this.buffer.clear();
+        }
+
+        requestSync();
+    }
+
+    /**
+     * Commit the records and move the active file aside, the following records go into a new file
+     *
+     * @return Number of the rotated file or -1 if there were no records
+     * @throws IOException If the file can't be rotated
+     */
+    public int rotate() throws IOException {
+        commit();
+        if (this.channel == null) {
+            return -1;
+        }
+
+        awaitSync();
+        this.channel.force(false);
+        this.channel.close();
+        this.channel = null;
+
+        int rotation = this.nextRotation++;
+        Files.move(this.path, getRotatedPath(rotation));
+        return rotation;
+    }
+
+    /**
+     * Delete a rotated file, its records are part of a saved level.
+     * Can be called from any thread
+     *
+     * @param rotation Number of the rotated file
+     */
+    public void deleteRotated(int rotation) {
+        try {
+            Files.deleteIfExists(getRotatedPath(rotation));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Delete all journal files without replaying them
+     *
+     * @throws IOException If a file can't be deleted
+     */
+    public void discard() throws IOException {
+        this.buffer.clear();
+        if (this.channel != null) {
+            awaitSync();
+            this.channel.close();
+            this.channel = null;
+        }
+
+        for (Path rotated : getRotatedFiles()) {
+            Files.deleteIfExists(rotated);
+        }
+        Files.deleteIfExists(this.path);
+    }
+
+    /**
+     * Apply all records of the rotated files and the active file in order.
+     * Replaying stops at the first incomplete or damaged record, which is the tail of an interrupted write
+     *
+     * @param level The level, it must not write into this journal while replaying
+     * @return Amount of applied records
+     * @throws IOException If a journal file can't be read
+     */
+    public int replay(Level level) throws IOException {
+        List<Path> files = getRotatedFiles();
+        files.sort((first, second) -> Integer.compare(getRotation(first), getRotation(second)));
+        if (Files.exists(this.path)) {
+            files.add(this.path);
+        }
+
+        int records = 0;
+        for (Path file : files) {
+            ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+
+            while (data.remaining() >= 4) {
+                int length = data.getInt();
+                if (length < 1 || data.remaining() < length + 4) {
+                    break;
+                }
+
+                // Verify the checksum of the type and the payload
+                this.checksum.reset();
+                this.checksum.update(data.array(), data.position(), length);
+                ByteBuffer record = ByteBuffer.wrap(data.array(), data.position(), length).slice();
+                data.position(data.position() + length);
+                if ((int) this.checksum.getValue() != data.getInt()) {
+                    break;
+                }
+
+                apply(level, record);
+                records++;
+            }
+        }
+        return records;
+    }
+
+    private void apply(Level level, ByteBuffer record) throws IOException {
+        byte type = record.get();
+        record.getLong(); // Tick of the change
+
+        int x = record.getInt();
+        int y = record.getInt();
+        int z = record.getInt();
+
+        if (type == TYPE_TILE) {
+            record.get(); // Previous tile id
+            level.setTile(x, y, z, record.get() & 0xFF);
+        }
+
+        if (type == TYPE_REGION) {
+            TileRegion region = new TileRegion(record.getInt(), record.getInt(), record.getInt());
+            byte[] compressed = new byte[record.getInt()];
+            record.get(compressed);
+
+            // Inflate tile ids of the region
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(compressed);
+                inflater.inflate(region.getTiles());
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt journal record", e);
+            } finally {
+                inflater.end();
+            }
+
+            level.pasteRegion(region, x, y, z);
+        }
+
+        if (type == TYPE_FILL) {
+            level.fill(x, y, z, record.getInt(), record.getInt(), record.getInt(), record.get() & 0xFF);
+        }
+
+        if (type == TYPE_REPLACE) {
+            level.replace(x, y, z, record.getInt(), record.getInt(), record.getInt(), record.get() & 0xFF, record.get() & 0xFF);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        commit();
+        awaitSync();
+        this.syncExecutor.shutdown();
+
+        if (this.channel != null) {
+            this.channel.force(false);
+            this.channel.close();
+            this.channel = null;
+        }
+    }
+
+    private ByteBuffer beginRecord(byte type, int payloadSize) {
+        int recordSize = 4 + 1 + payloadSize + 4;
+
+        // Write the buffered records if the record doesn't fit, large records get their own buffer
+        if (recordSize > this.buffer.remaining()) {
+            commit();
+        }
+        ByteBuffer record = recordSize > this.buffer.capacity() ? ByteBuffer.allocate(recordSize) : this.buffer;
+
+        this.recordStart = record.position();
+        record.putInt(1 + payloadSize);
+        record.put(type);
+        return record;
+    }
+
+    private void endRecord(ByteBuffer record) {
+        // Checksum of the type and the payload behind the length
+        this.checksum.reset();
+        this.checksum.update(record.array(), this.recordStart + 4, record.getInt(this.recordStart));
+        record.putInt((int) this.checksum.getValue());
+
+        if (record != this.buffer) {
+            try {
+                record.flip();
+                writeFully(record);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+
+            // Large records bypass the buffer and need their own flush
+            requestSync();
+        }
+    }
+
+    /**
+     * Flush the written records to the storage device on the sync thread.
+     * A running flush picks up the request with another pass, otherwise a new flush is started
+     */
+    private void requestSync() {
+        this.syncRequested = true;
+        if (!this.syncRunning.compareAndSet(false, true)) {
+            return;
+        }
+
+        FileChannel channel = this.channel;
+        this.pendingSync = this.syncExecutor.submit(() -> {
+            do {
+                while (this.syncRequested) {
+                    this.syncRequested = false;
+                    try {
+                        channel.force(false);
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+                this.syncRunning.set(false);
+
+                // A request that came in after the last pass but before the flag was cleared wasn't submitted
+            } while (this.syncRequested && this.syncRunning.compareAndSet(false, true));
+        });
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        if (this.channel == null) {
+            this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer);
+        }
+    }
+
+    private void awaitSync() {
+        if (this.pendingSync == null) {
+            return;
+        }
+
+        try {
+            this.pendingSync.get();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        this.pendingSync = null;
+    }
+
+    private List<Path> getRotatedFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        Path directory = this.path.toAbsolutePath().getParent();
+        String prefix = this.path.getFileName() + ".";
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, this.path.getFileName() + ".*")) {
+            for (Path file : stream) {
+                String suffix = file.getFileName().toString().substring(prefix.length());
+                if (!suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit)) {
+                    files.add(file);
+                }
+            }
+        }
+        return files;
+    }
+
+    private Path getRotatedPath(int rotation) {
+        return this.path.resolveSibling(this.path.getFileName() + "." + rotation);
+    }
+
+    private static int getRotation(Path rotated) {
+        String name = rotated.getFileName().toString();
+        return Integer.parseInt(name.substring(name.lastIndexOf('.') + 1));
+    }
+}
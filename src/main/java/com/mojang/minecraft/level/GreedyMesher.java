@@ -0,0 +1,294 @@
+package com.mojang.minecraft.level;
+
+import com.mojang.minecraft.level.tile.Tile;
+
+import java.util.Arrays;
+
+public class GreedyMesher {
+
+    private static final int QUAD_SIZE = 8;
+
+    /**
+     * Amount of texture slots in the 16x16 terrain atlas
+     */
+    public static final int TEXTURE_SLOTS = 256;
+
+    /**
+     * Bit offset of the light level in the mask key
+     */
+    private static final int LIGHT_SHIFT = 9;
+
+    /**
+     * Face mask of the current slice. Contains the texture slot + 1 and the light level of the visible face or 0
+     */
+    private int[] mask = new int[0];
+
+    /**
+     * Merged quads: face, x, y, z, size u, size v, texture slot, light level
+     */
+    private int[] quads = new int[QUAD_SIZE * 256];
+    private int quadCount;
+
+    /**
+     * Amount of quads of each texture slot
+     */
+    private final int[] slotCounts = new int[TEXTURE_SLOTS];
+
+    /**
+     * Chunk bounds and the current tile position, indexed by axis
+     */
+    private final int[] min = new int[3];
+    private final int[] max = new int[3];
+    private final int[] position = new int[3];
+
+    /**
+     * Render batches of the last build
+     */
+    private int[] batchTextures = new int[16];
+    private int[] batchOffsets = new int[17];
+    private int batchCount;
+
+    /**
+     * Merge adjacent coplanar faces of solid tiles into larger quads.
+     * Faces are only merged if they share the texture slot, the shade and the light level.
+     * The quads use texture coordinates in tile units, so they have to be rendered with a repeating tile texture.
+     * Each texture slot is written as a separate batch.
+     *
+     * @param level       The level
+     * @param vertexSink  Target of the merged quads
+     * @param minX        Minimal chunk location X
+     * @param minY        Minimal chunk location Y
+     * @param minZ        Minimal chunk location Z
+     * @param maxX        Maximal chunk location X
+     * @param maxY        Maximal chunk location Y
+     * @param maxZ        Maximal chunk location Z
+     */
+    public void build(Level level, VertexSink vertexSink, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        this.quadCount = 0;
+        this.batchCount = 0;
+
+        int[] min = this.min;
+        int[] max = this.max;
+        int[] position = this.position;
+        min[0] = minX;
+        min[1] = minY;
+        min[2] = minZ;
+        max[0] = maxX;
+        max[1] = maxY;
+        max[2] = maxZ;
+
+        // Merge the faces of each direction
+        for (int face = 0; face < 6; face++) {
+            // Axis of the face normal
+            int axis = face < 2 ? 1 : face < 4 ? 2 : 0;
+
+            // Axes of the face plane (y faces: x/z, z faces: x/y, x faces: z/y)
+            int axisU = axis == 0 ? 2 : 0;
+            int axisV = axis == 1 ? 2 : 1;
+
+            int sizeU = max[axisU] - min[axisU];
+            int sizeV = max[axisV] - min[axisV];
+
+            // Neighbour offset in face direction
+            int offset = face % 2 == 0 ? -1 : 1;
+
+            if (this.mask.length < sizeU * sizeV) {
+                this.mask = new int[sizeU * sizeV];
+            }
+
+            // For each slice along the face normal
+            for (int slice = min[axis]; slice < max[axis]; slice++) {
+                position[axis] = slice;
+
+                // Fill face mask of this slice
+                for (int v = 0; v < sizeV; v++) {
+                    for (int u = 0; u < sizeU; u++) {
+                        position[axisU] = min[axisU] + u;
+                        position[axisV] = min[axisV] + v;
+
+                        this.mask[u + v * sizeU] = getFaceKey(level, position[0], position[1], position[2], axis, offset, face);
+                    }
+                }
+
+                // Merge faces of the slice
+                for (int v = 0; v < sizeV; v++) {
+                    for (int u = 0; u < sizeU; ) {
+                        int key = this.mask[u + v * sizeU];
+                        if (key == 0) {
+                            u++;
+                            continue;
+                        }
+
+                        // Extend quad along u
+                        int width = 1;
+                        while (u + width < sizeU && this.mask[u + width + v * sizeU] == key) {
+                            width++;
+                        }
+
+                        // Extend quad along v
+                        int height = 1;
+                        extend:
+                        while (v + height < sizeV) {
+                            for (int i = 0; i < width; i++) {
+                                if (this.mask[u + i + (v + height) * sizeU] != key) {
+                                    break extend;
+                                }
+                            }
+                            height++;
+                        }
+
+                        // Clear merged faces
+                        for (int j = 0; j < height; j++) {
+                            Arrays.fill(this.mask, u + (v + j) * sizeU, u + width + (v + j) * sizeU, 0);
+                        }
+
+                        // Store quad
+                        position[axisU] = min[axisU] + u;
+                        position[axisV] = min[axisV] + v;
+                        addQuad(face, position[0], position[1], position[2], width, height,
+                                (key & ((1 << LIGHT_SHIFT) - 1)) - 1, key >>> LIGHT_SHIFT);
+
+                        u += width;
+                    }
+                }
+            }
+        }
+
+        emitQuads(vertexSink);
+    }
+
+    /**
+     * Get the mask key of a tile face
+     *
+     * @return Texture slot + 1 combined with the light level in front of the face or 0 if there is no visible face
+     */
+    private static int getFaceKey(Level level, int x, int y, int z, int axis, int offset, int face) {
+        int tileId = level.getTile(x, y, z);
+        if (tileId <= 0) {
+            return 0;
+        }
+
+        // Only solid tiles are rendered as full cubes
+        Tile tile = Tile.tiles[tileId];
+        if (!tile.isSolid()) {
+            return 0;
+        }
+
+        // Check neighbour tile in face direction
+        int neighbourX = axis == 0 ? x + offset : x;
+        int neighbourY = axis == 1 ? y + offset : y;
+        int neighbourZ = axis == 2 ? z + offset : z;
+        if (!tile.shouldRenderFace(level, neighbourX, neighbourY, neighbourZ)) {
+            return 0;
+        }
+
+        // Faces with different light levels can't be merged
+        int light = level.getLight(neighbourX, neighbourY, neighbourZ);
+        return tile.getTexture(face) + 1 | light << LIGHT_SHIFT;
+    }
+
+    private void addQuad(int face, int x, int y, int z, int sizeU, int sizeV, int textureId, int light) {
+        if (this.quads.length < (this.quadCount + 1) * QUAD_SIZE) {
+            this.quads = Arrays.copyOf(this.quads, this.quads.length * 2);
+        }
+
+        int index = this.quadCount++ * QUAD_SIZE;
+        this.quads[index] = face;
+        this.quads[index + 1] = x;
+        this.quads[index + 2] = y;
+        this.quads[index + 3] = z;
+        this.quads[index + 4] = sizeU;
+        this.quads[index + 5] = sizeV;
+        this.quads[index + 6] = textureId;
+        this.quads[index + 7] = light;
+    }
+
+    /**
+     * Write all quads sorted by texture slot and record a batch for each slot
+     */
+    private void emitQuads(VertexSink vertexSink) {
+        int[] slotCounts = this.slotCounts;
+        Arrays.fill(slotCounts, 0);
+        for (int i = 0; i < this.quadCount; i++) {
+            slotCounts[this.quads[i * QUAD_SIZE + 6]]++;
+        }
+
+        for (int textureId = 0; textureId < slotCounts.length; textureId++) {
+            if (slotCounts[textureId] == 0) {
+                continue;
+            }
+
+            addBatch(textureId, vertexSink.getVertices());
+
+            for (int i = 0; i < this.quadCount; i++) {
+                int index = i * QUAD_SIZE;
+                if (this.quads[index + 6] == textureId) {
+                    emitQuad(vertexSink, index);
+                }
+            }
+        }
+
+        // End of last batch
+        this.batchOffsets[this.batchCount] = vertexSink.getVertices();
+    }
+
+    private void emitQuad(VertexSink vertexSink, int index) {
+        int face = this.quads[index];
+        int x = this.quads[index + 1];
+        int y = this.quads[index + 2];
+        int z = this.quads[index + 3];
+        int sizeU = this.quads[index + 4];
+        int sizeV = this.quads[index + 5];
+
+        // Size of the quad on each axis
+        int sizeX = face < 4 ? sizeU : 1;
+        int sizeY = face < 2 ? 1 : sizeV;
+        int sizeZ = face < 2 ? sizeV : face < 4 ? 1 : sizeU;
+
+        // Shade of the face direction
+        float shade = face < 2 ? 1.0F : face < 4 ? 0.8F : 0.6F;
+        float brightness = shade * Level.getBrightness(this.quads[index + 7]);
+        vertexSink.color(brightness, brightness, brightness);
+
+        // Texture coordinates in tile units, the texture repeats for each tile
+        Tile.renderFace(vertexSink, face, x, y, z, x + sizeX, y + sizeY, z + sizeZ, 0.0F, sizeU, 0.0F, sizeV);
+    }
+
+    private void addBatch(int textureId, int offset) {
+        if (this.batchCount == this.batchTextures.length) {
+            this.batchTextures = Arrays.copyOf(this.batchTextures, this.batchCount * 2);
+            this.batchOffsets = Arrays.copyOf(this.batchOffsets, this.batchCount * 2 + 1);
+        }
+
+        this.batchTextures[this.batchCount] = textureId;
+        this.batchOffsets[this.batchCount] = offset;
+        this.batchCount++;
+    }
+
+    /**
+     * Amount of batches of the last build
+     *
+     * @return Batch count
+     */
+    public int getBatchCount() {
+        return this.batchCount;
+    }
+
+    /**
+     * Texture slot of each batch of the last build
+     *
+     * @return Texture slot ids
+     */
+    public int[] getBatchTextures() {
+        return this.batchTextures;
+    }
+
+    /**
+     * First vertex of each batch of the last build, followed by the end of the last batch
+     *
+     * @return Vertex offsets
+     */
+    public int[] getBatchOffsets() {
+        return this.batchOffsets;
+    }
+}
@@ -1,69 +1,276 @@
 package com.mojang.minecraft.level;
 
+import com.mojang.minecraft.HitResult;
 import com.mojang.minecraft.level.tile.Tile;
 import com.mojang.minecraft.phys.AABB;
+import com.mojang.minecraft.phys.AABBBuffer;
 
 import java.io.DataInputStream;
-import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 public class Level {
 
+    /**
+     * Level file with the independently compressed sections and the legacy gzip level file
+     */
+    private static final String REGION_FILE = "level.region";
+    private static final String LEVEL_FILE = "level.dat";
+    private static final String JOURNAL_FILE = "level.journal";
+
+    /**
+     * Light blocking state of each tile id
+     */
+    static final boolean[] LIGHT_BLOCKERS = new boolean[Tile.tiles.length];
+
+    /**
+     * Tick state of each tile id
+     */
+    private static final boolean[] TICKABLE_TILES = new boolean[Tile.tiles.length];
+
+    /**
+     * Each tile in a section with tickable tiles is ticked randomly once per this amount of game ticks on average
+     */
+    private static final int RANDOM_TICK_INTERVAL = 400;
+
+    /**
+     * Maximal amount of scheduled ticks processed per game tick, the remaining ticks are processed in the next game tick
+     */
+    private static final int SCHEDULED_TICK_BUDGET = 1024;
+
+    /**
+     * Bulk edits that cover at least 1/64 of the level recalculate the light of the entire level,
+     * the flood fill of that many queued tiles costs as much as a full calculation
+     */
+    private static final int BULK_LIGHT_FRACTION = 64;
+
+    /**
+     * Minimal area in columns for a parallel light depth calculation
+     */
+    private static final int PARALLEL_LIGHT_COLUMNS = 4096;
+
+    /**
+     * Brightness of each light level
+     */
+    private static final float[] BRIGHTNESS = new float[LightEngine.MAX_LIGHT + 1];
+
+    static {
+        for (int light = 0; light <= LightEngine.MAX_LIGHT; light++) {
+            BRIGHTNESS[light] = 0.2F + 0.8F * (float) Math.pow(0.8, LightEngine.MAX_LIGHT - light);
+        }
+        for (int id = 0; id < Tile.tiles.length; id++) {
+            LIGHT_BLOCKERS[id] = Tile.tiles[id] != null && Tile.tiles[id].blocksLight();
+            TICKABLE_TILES[id] = Tile.tiles[id] != null && Tile.tiles[id].isTickable();
+        }
+    }
+
     public final int width;
     public final int height;
     public final int depth;
 
-    private final byte[] blocks;
+    /**
+     * Seed of the terrain generator
+     */
+    private long seed;
+
+    private final LevelSection[] sections;
+
+    /**
+     * Sections that changed since the last save
+     */
+    private final BitSet dirtySections;
+    private final LevelSaver saver = new LevelSaver(Paths.get(REGION_FILE));
+
+    /**
+     * Journal of the changes since the last save, null if the level isn't stored in a file
+     */
+    private EditJournal journal;
+
+    /**
+     * Rotated journal files that no successful save covers yet, the files of failed saves stay until a later save
+     */
+    private final List<Integer> unsavedRotations = new ArrayList<>();
+    private int autosaveInterval;
+    private final int sectionAmountX;
+    private final int sectionAmountY;
+    private final int sectionAmountZ;
+
     private final int[] lightDepths;
+    private final LightEngine lightEngine;
+
+    /**
+     * Amount of tickable tiles of each section and an unordered list of all sections that contain tickable tiles.
+     * Each section knows its slot in the list or -1
+     */
+    private final int[] tickableCounts;
+    private final int[] activeSections;
+    private final int[] activeSectionSlots;
+    private int activeSectionCount;
+    private long randomTickProgress;
+
+    private final ScheduledTickQueue scheduledTicks;
+    private long tickCount;
 
     private final ArrayList<LevelListener> levelListeners = new ArrayList<>();
+
+    /**
+     * Listeners that receive the changes of a tick as a single region and the accumulated region
+     */
+    private final ArrayList<LevelListener> batchedListeners = new ArrayList<>();
+    private final DirtyRegion dirtyRegion;
     private final Random random = new Random();
 
     /**
-     * Three dimensional level containing all tiles
+     * Root of the random streams of all entities, derived from the level seed
+     */
+    private SplittableRandom entityRandom;
+
+    /**
+     * Three dimensional level containing all tiles.
+     * Loads the level from level.dat or generates a new one
      *
      * @param width  Level width
      * @param height Level height
      * @param depth  Level depth
      */
     public Level(int width, int height, int depth) {
+        this(width, height, depth, new Random().nextLong(), true);
+    }
+
+    /**
+     * Generate a new level without touching level.dat
+     *
+     * @param width  Level width
+     * @param height Level height
+     * @param depth  Level depth
+     * @param seed   Seed of the terrain generator
+     */
+    public Level(int width, int height, int depth, long seed) {
+        this(width, height, depth, seed, false);
+    }
+
+    private Level(int width, int height, int depth, long seed, boolean loadLevel) {
         this.width = width;
         this.height = height;
         this.depth = depth;
+        this.seed = seed;
+
+        // Calculate amount of sections of level
+        this.sectionAmountX = (width + LevelSection.SIZE - 1) >> LevelSection.SIZE_BITS;
+        this.sectionAmountY = (depth + LevelSection.SIZE - 1) >> LevelSection.SIZE_BITS;
+        this.sectionAmountZ = (height + LevelSection.SIZE - 1) >> LevelSection.SIZE_BITS;
+
+        // Create empty sections
+        this.sections = new LevelSection[this.sectionAmountX * this.sectionAmountY * this.sectionAmountZ];
+        for (int i = 0; i < this.sections.length; i++) {
+            this.sections[i] = new LevelSection(0);
+        }
 
-        this.blocks = new byte[width * height * depth];
         this.lightDepths = new int[width * height];
+        this.lightEngine = new LightEngine(this, this.sections.length);
+
+        this.tickableCounts = new int[this.sections.length];
+        this.activeSections = new int[this.sections.length];
+        this.activeSectionSlots = new int[this.sections.length];
+        Arrays.fill(this.activeSectionSlots, -1);
+        this.scheduledTicks = new ScheduledTickQueue(width * height * depth);
+        this.dirtyRegion = new DirtyRegion(width, height, depth);
+        this.dirtySections = new BitSet(this.sections.length);
 
         // Load level if it exists
-        boolean mapLoaded = load();
+        boolean mapLoaded = loadLevel && load();
 
         // Generate a new level if file doesn't exists
         if (!mapLoaded) {
-            generateMap();
+            generateMap(seed);
+
+            // A generated level isn't saved yet
+            this.dirtySections.set(0, this.sections.length);
+
+            // A loaded level is initialized by load()
+            initializeTiles();
         }
 
-        // Calculate light depth of the entire level
-        calcLightDepths(0, 0, width, height);
+        // Seeded after loading, a loaded level uses its stored seed
+        this.entityRandom = new SplittableRandom(this.seed);
+
+        if (loadLevel) {
+            openJournal(mapLoaded);
+        }
+    }
+
+    /**
+     * Replay the changes that were made after the last save and start a new journal
+     *
+     * @param mapLoaded The level was loaded from the level file
+     */
+    private void openJournal(boolean mapLoaded) {
+        try {
+            EditJournal journal = new EditJournal(Paths.get(JOURNAL_FILE));
+
+            // The journal is only valid on top of the saved level
+            int records = mapLoaded ? journal.replay(this) : 0;
+            updateLight();
+
+            // Save the recovered changes before the replayed files are removed
+            if (records > 0) {
+                this.saver.save(createSnapshot());
+            }
+            journal.discard();
+
+            this.journal = journal;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     /**
-     * Generate a new level
+     * Generate a new level. The same seed always generates the same tiles.
+     * The noise maps are calculated concurrently and the columns are filled in parallel,
+     * each task owns a column of sections so no section is written by two threads.
+     *
+     * @param seed Seed of the noise maps
      */
-    private void generateMap() {
-        int[] firstHeightMap = new PerlinNoiseFilter(0).read(this.width, this.height);
-        int[] secondHeightMap = new PerlinNoiseFilter(0).read(this.width, this.height);
-        int[] cliffMap = new PerlinNoiseFilter(1).read(this.width, this.height);
-        int[] rockMap = new PerlinNoiseFilter(1).read(this.width, this.height);
+    private void generateMap(long seed) {
+        // Seeds of the noise maps are drawn up front, so the result doesn't depend on the thread timing
+        Random random = new Random(seed);
+        CompletableFuture<int[]> firstHeightMapFuture = readNoiseAsync(0, random.nextLong());
+        CompletableFuture<int[]> secondHeightMapFuture = readNoiseAsync(0, random.nextLong());
+        CompletableFuture<int[]> cliffMapFuture = readNoiseAsync(1, random.nextLong());
+        CompletableFuture<int[]> rockMapFuture = readNoiseAsync(1, random.nextLong());
+
+        int[] firstHeightMap = firstHeightMapFuture.join();
+        int[] secondHeightMap = secondHeightMapFuture.join();
+        int[] cliffMap = cliffMapFuture.join();
+        int[] rockMap = rockMapFuture.join();
+
+        // Generate tiles of each section column
+        IntStream.range(0, this.sectionAmountX * this.sectionAmountZ).parallel().forEach(sectionColumn -> {
+            int minX = (sectionColumn % this.sectionAmountX) << LevelSection.SIZE_BITS;
+            int minZ = (sectionColumn / this.sectionAmountX) << LevelSection.SIZE_BITS;
+            int maxX = Math.min(minX + LevelSection.SIZE, this.width);
+            int maxZ = Math.min(minZ + LevelSection.SIZE, this.height);
 
-        // Generate tiles
-        for (int x = 0; x < this.width; ++x) {
-            for (int y = 0; y < this.depth; ++y) {
-                for (int z = 0; z < this.height; ++z) {
+            // Height of the layers in each column
+            int[] levelHeights = new int[LevelSection.SIZE * LevelSection.SIZE];
+            int[] rockHeights = new int[LevelSection.SIZE * LevelSection.SIZE];
+            int minRockHeight = Integer.MAX_VALUE;
+
+            for (int z = minZ; z < maxZ; z++) {
+                for (int x = minX; x < maxX; x++) {
                     // Extract values from height map
                     int firstHeightValue = firstHeightMap[x + z * this.width];
                     int secondHeightValue = secondHeightMap[x + z * this.width];
@@ -84,109 +291,545 @@ public class Level {
                         maxRockHeight = maxLevelHeight - 2;
                     }
 
-                    // Get block array index
-                    int index = (y * this.height + z) * this.width + x;
+                    int column = (x - minX) + (z - minZ) * LevelSection.SIZE;
+                    levelHeights[column] = maxLevelHeight;
+                    rockHeights[column] = maxRockHeight;
+                    minRockHeight = Math.min(minRockHeight, maxRockHeight);
+                }
+            }
 
-                    int id = 0;
+            for (int minY = 0; minY < this.depth; minY += LevelSection.SIZE) {
+                int maxY = Math.min(minY + LevelSection.SIZE, this.depth);
+                LevelSection section = getSection(minX, minY, minZ);
 
-                    // Grass layer
-                    if (y == maxLevelHeight) {
-                        id = Tile.grass.id;
-                    }
+                // Section is entirely below the rock layer of all columns
+                if (maxY - 1 <= minRockHeight && maxX - minX == LevelSection.SIZE && maxZ - minZ == LevelSection.SIZE
+                        && maxY - minY == LevelSection.SIZE) {
+                    section.fill(Tile.rock.id);
+                    continue;
+                }
 
-                    // Dirt layer
-                    if (y < maxLevelHeight) {
-                        id = Tile.dirt.id;
-                    }
+                for (int z = minZ; z < maxZ; z++) {
+                    for (int x = minX; x < maxX; x++) {
+                        int column = (x - minX) + (z - minZ) * LevelSection.SIZE;
+                        int maxLevelHeight = levelHeights[column];
+                        int maxRockHeight = rockHeights[column];
 
-                    // Rock layer
-                    if (y <= maxRockHeight) {
-                        id = Tile.rock.id;
+                        // Rock layer, dirt layer and grass layer, air above
+                        for (int y = minY; y < maxY && y <= maxLevelHeight; y++) {
+                            int id = y <= maxRockHeight ? Tile.rock.id : y < maxLevelHeight ? Tile.dirt.id : Tile.grass.id;
+                            section.setTile(getSectionIndex(x, y, z), id);
+                        }
                     }
-
-                    // Set the tile id
-                    this.blocks[index] = (byte) id;
                 }
             }
-        }
+        });
+    }
+
+    private CompletableFuture<int[]> readNoiseAsync(int octave, long seed) {
+        return CompletableFuture.supplyAsync(() -> new PerlinNoiseFilter(octave, seed).read(this.width, this.height));
+    }
+
+    /**
+     * Seed of the terrain generator of this level
+     *
+     * @return Generator seed, generating a level with this seed creates the same terrain
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Create the random stream of a new entity. Streams are split from a root seeded with the level seed,
+     * so entities that are created in the same order get the same streams in every run.
+     * The stream of an entity is independent of the others, so entities can be ticked in parallel
+     *
+     * @return New random stream
+     */
+    public synchronized SplittableRandom createEntityRandom() {
+        return this.entityRandom.split();
     }
 
     /**
-     * Load blocks from level.dat
+     * Load blocks and the generator seed from level.region, or from the legacy level.dat if there is no region file
      *
      * @return successfully loaded
      */
     public boolean load() {
         try {
-            DataInputStream dis = new DataInputStream(new GZIPInputStream(new FileInputStream("level.dat")));
-            dis.readFully(this.blocks);
-            calcLightDepths(0, 0, this.width, this.height);
-            dis.close();
+            if (Files.exists(Paths.get(REGION_FILE))) {
+                loadRegionFile();
+            } else {
+                loadLevelFile();
+            }
+
+            initializeTiles();
+            this.scheduledTicks.clear();
 
             // Notify all tiles changed
+            this.dirtyRegion.clear();
             for (LevelListener levelListener : this.levelListeners) {
                 levelListener.allChanged();
             }
+            for (LevelListener levelListener : this.batchedListeners) {
+                levelListener.allChanged();
+            }
 
             return true;
         } catch (Exception e) {
             e.printStackTrace();
 
+            // Drop partially loaded tiles
+            for (LevelSection section : this.sections) {
+                section.fill(0);
+            }
+
             return false;
         }
     }
 
     /**
-     * Store blocks in level.dat
+     * Calculate light depths, light levels and tickable tiles of the entire level after all tiles were replaced
+     */
+    private void initializeTiles() {
+        // The light engine initializes every light level, so no column updates are queued
+        calcLightDepths(0, 0, this.width, this.height, false);
+        this.lightEngine.initialize();
+        countTickableTiles();
+    }
+
+    /**
+     * Read all sections of the region file, the sections are decompressed in parallel
+     */
+    private void loadRegionFile() throws IOException {
+        try (RegionFile regionFile = new RegionFile(Paths.get(REGION_FILE), this.width, this.height, this.depth)) {
+            this.seed = regionFile.getSeed();
+
+            IntStream.range(0, this.sections.length).parallel().forEach(index -> {
+                try {
+                    if (!regionFile.readSection(index, this.sections[index])) {
+                        this.sections[index].fill(0);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        // Sections that are missing in the file are written with the next save, see save()
+        this.dirtySections.clear();
+    }
+
+    /**
+     * Read the gzip compressed blocks of the legacy level.dat
+     */
+    private void loadLevelFile() throws IOException {
+        DataInputStream dis = new DataInputStream(new GZIPInputStream(new FileInputStream(LEVEL_FILE)));
+        byte[] blocks = new byte[this.width * this.height * this.depth];
+        dis.readFully(blocks);
+
+        // Seed of the generator, level.dat files without a seed keep the current seed
+        try {
+            this.seed = dis.readLong();
+        } catch (EOFException e) {
+            // Saved before the seed was stored
+        }
+        dis.close();
+
+        // Write blocks into the sections
+        for (int y = 0; y < this.depth; y++) {
+            for (int z = 0; z < this.height; z++) {
+                for (int x = 0; x < this.width; x++) {
+                    getSection(x, y, z).setTile(getSectionIndex(x, y, z), blocks[(y * this.height + z) * this.width + x] & 0xFF);
+                }
+            }
+        }
+
+        // The next save converts the level into a region file
+        this.dirtySections.set(0, this.sections.length);
+    }
+
+    /**
+     * Reload the sections of an area from level.region, unsaved changes of these sections are discarded.
+     * Only the sections inside of the area are read and decompressed
+     *
+     * @param minX Minimum tile position X
+     * @param minY Minimum tile position Y
+     * @param minZ Minimum tile position Z
+     * @param maxX Maximum tile position X
+     * @param maxY Maximum tile position Y
+     * @param maxZ Maximum tile position Z
+     * @return Amount of changed tiles
+     * @throws IOException If the region file can't be read
+     */
+    public int loadRegion(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) throws IOException {
+        try (RegionFile regionFile = new RegionFile(Paths.get(REGION_FILE), this.width, this.height, this.depth)) {
+            LevelSection storedSection = new LevelSection(0);
+
+            // The stored tiles can change with the next save, so the loaded result is journaled
+            EditRecord record = (journal, fromX, fromY, fromZ, toX, toY, toZ, tick) ->
+                    journal.appendRegion(fromX, fromY, fromZ, copyRegion(fromX, fromY, fromZ, toX, toY, toZ), tick);
+            return editRegion(minX, minY, minZ, maxX, maxY, maxZ, record, (section, fromX, fromY, fromZ, toX, toY, toZ) -> {
+                try {
+                    if (!regionFile.readSection(getSectionArrayIndex(fromX, fromY, fromZ), storedSection)) {
+                        return 0;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+
+                int changed = 0;
+                for (int y = fromY; y <= toY; y++) {
+                    for (int z = fromZ; z <= toZ; z++) {
+                        for (int x = fromX; x <= toX; x++) {
+                            int index = getSectionIndex(x, y, z);
+                            int id = storedSection.getTile(index);
+                            if (section.setTile(index, id) != id) {
+                                changed++;
+                            }
+                        }
+                    }
+                }
+                return changed;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Store the level in level.region and wait until it's written.
+     * Waits for a running background save first
      */
     public void save() {
         try {
-            DataOutputStream dos = new DataOutputStream(new GZIPOutputStream(new FileOutputStream("level.dat")));
-            dos.write(this.blocks);
-            dos.close();
+            // The outcome of the running save decides which changes the snapshot has to retry
+            this.saver.awaitPendingSave();
+            this.saver.save(createSnapshot());
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Store the level in level.region on a background thread. The tiles are captured immediately with copy-on-write
+     * section snapshots, the compression and the file writes don't block the calling thread
+     *
+     * @return The save was started, false if the previous save is still running
+     */
+    public boolean saveAsync() {
+        if (this.saver.isSaving()) {
+            return false;
+        }
+        return this.saver.saveAsync(createSnapshot());
+    }
+
+    /**
+     * Save the level in the background every given amount of ticks if it has unsaved changes
+     *
+     * @param ticks Game ticks between two saves, 0 to disable the autosave
+     */
+    public void setAutosaveInterval(int ticks) {
+        this.autosaveInterval = ticks;
+    }
+
+    /**
+     * Capture the tiles of all sections and reset the unsaved changes
+     *
+     * @return Snapshot for the level saver
+     */
+    private LevelSaver.Snapshot createSnapshot() {
+        // Retry the changes of failed saves
+        this.dirtySections.or(this.saver.takeFailedSections());
+
+        LevelSection[] snapshots = new LevelSection[this.sections.length];
+        for (int i = 0; i < this.sections.length; i++) {
+            snapshots[i] = this.sections[i].snapshot();
+        }
+
+        BitSet changedSections = (BitSet) this.dirtySections.clone();
+        this.dirtySections.clear();
+
+        // The journal up to this point is obsolete once the snapshot is saved, including the files of failed saves
+        // because their sections are retried by this snapshot
+        Runnable onSaved = null;
+        if (this.journal != null) {
+            try {
+                int rotation = this.journal.rotate();
+                Integer[] rotations;
+                synchronized (this.unsavedRotations) {
+                    if (rotation != -1) {
+                        this.unsavedRotations.add(rotation);
+                    }
+                    rotations = this.unsavedRotations.toArray(new Integer[0]);
+                }
+
+                EditJournal journal = this.journal;
+                onSaved = () -> {
+                    for (int saved : rotations) {
+                        journal.deleteRotated(saved);
+                    }
+                    synchronized (this.unsavedRotations) {
+                        this.unsavedRotations.removeAll(Arrays.asList(rotations));
+                    }
+                };
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        return new LevelSaver.Snapshot(this.width, this.height, this.depth, this.seed, snapshots, changedSections, onSaved);
+    }
+
+    /**
+     * Amount of sections that changed since the last save
+     *
+     * @return Dirty section count
+     */
+    public int getUnsavedSectionCount() {
+        return this.dirtySections.cardinality();
+    }
+
+    /**
+     * Calculate light depth of given area. The columns are scanned in parallel,
+     * the listeners are notified on the calling thread afterwards.
+     *
+     * @param minX  Minimum on X axis
+     * @param minZ  Minimum on Z axis
+     * @param sizeX Amount of columns on X axis
+     * @param sizeZ Amount of columns on Z axis
+     */
+    public void calcLightDepths(int minX, int minZ, int sizeX, int sizeZ) {
+        calcLightDepths(minX, minZ, sizeX, sizeZ, true);
+    }
+
     /**
      * Calculate light depth of given area
      *
-     * @param minX Minimum on X axis
-     * @param minZ Minimum on Z axis
-     * @param maxX Maximum on X axis
-     * @param maxZ Maximum on Z axis
+     * @param minX       Minimum on X axis
+     * @param minZ       Minimum on Z axis
+     * @param sizeX      Amount of columns on X axis
+     * @param sizeZ      Amount of columns on Z axis
+     * @param queueLight Queue the changed columns in the light engine, false if all light levels are recalculated anyway
+     */
+    private void calcLightDepths(int minX, int minZ, int sizeX, int sizeZ, boolean queueLight) {
+        int[] prevDepths = new int[sizeX * sizeZ];
+
+        // Scan all rows of the area, large areas are split across threads
+        IntStream rows = IntStream.range(0, sizeZ);
+        if (sizeX * sizeZ >= PARALLEL_LIGHT_COLUMNS) {
+            rows = rows.parallel();
+        }
+        rows.forEach(row -> {
+            int z = minZ + row;
+            for (int x = minX; x < minX + sizeX; x++) {
+                // Store previous light depth value and calculate new light depth
+                prevDepths[(x - minX) + row * sizeX] = this.lightDepths[x + z * this.width];
+                this.lightDepths[x + z * this.width] = findLightDepth(x, this.depth - 1, z);
+            }
+        });
+
+        // Notify all changed columns
+        for (int z = minZ; z < minZ + sizeZ; z++) {
+            for (int x = minX; x < minX + sizeX; x++) {
+                int prevDepth = prevDepths[(x - minX) + (z - minZ) * sizeX];
+                lightDepthChanged(x, z, prevDepth, this.lightDepths[x + z * this.width], queueLight);
+            }
+        }
+    }
+
+    /**
+     * Update the light depth of a column after a tile changed.
+     * A new light blocker above the current depth is an O(1) update, only a removed top blocker scans downwards.
+     *
+     * @param x              Tile position x
+     * @param y              Tile position y
+     * @param z              Tile position z
+     * @param prevBlocksLight The previous tile blocked the light
+     * @param blocksLight     The new tile blocks the light
      */
-    private void calcLightDepths(int minX, int minZ, int maxX, int maxZ) {
-        // For each x/z position in level
-        for (int x = minX; x < minX + maxX; x++) {
-            for (int z = minZ; z < minZ + maxZ; z++) {
+    private void updateLightDepth(int x, int y, int z, boolean prevBlocksLight, boolean blocksLight) {
+        int prevDepth = this.lightDepths[x + z * this.width];
+        int depth = prevDepth;
+
+        if (blocksLight && y > prevDepth) {
+            // New top blocker of the column
+            depth = y;
+        } else if (prevBlocksLight && !blocksLight && y == prevDepth) {
+            // Top blocker removed, find the next blocker below
+            depth = findLightDepth(x, y - 1, z);
+        }
 
-                // Get previous light depth value
-                int prevDepth = this.lightDepths[x + z * this.width];
+        if (depth != prevDepth) {
+            this.lightDepths[x + z * this.width] = depth;
+            lightDepthChanged(x, z, prevDepth, depth, true);
 
-                // Calculate new light depth
-                int depth = this.depth - 1;
-                while (depth > 0 && !isLightBlocker(x, depth, z)) {
-                    depth--;
+            // Notify tiles that lost the sunlight
+            for (int shadowY = prevDepth; shadowY < depth; shadowY++) {
+                Tile tile = Tile.tiles[getTile(x, shadowY, z)];
+                if (tile != null) {
+                    tile.onLightChanged(this, x, shadowY, z);
                 }
+            }
+        }
+    }
 
-                // Set new light depth
-                this.lightDepths[x + z * this.width] = depth;
+    /**
+     * Find the highest light blocker in a column at or below the given height.
+     * Skips uniform sections without light blockers and reads the section palettes directly.
+     *
+     * @param x    Tile position x
+     * @param maxY Highest position to check
+     * @param z    Tile position z
+     * @return Light depth of the column, 0 if there is no light blocker
+     */
+    private int findLightDepth(int x, int maxY, int z) {
+        int y = maxY;
+        while (y > 0) {
+            LevelSection section = getSection(x, y, z);
+            int sectionMinY = y & ~(LevelSection.SIZE - 1);
 
-                // On light depth change
-                if (prevDepth != depth) {
-                    // Get changed range
-                    int minTileChangeY = Math.min(prevDepth, depth);
-                    int maxTileChangeY = Math.max(prevDepth, depth);
+            int uniformTileId = section.getUniformTile();
+            if (uniformTileId >= 0) {
+                // Whole section is either blocking or open
+                if (LIGHT_BLOCKERS[uniformTileId]) {
+                    return y;
+                }
+                y = sectionMinY - 1;
+                continue;
+            }
 
-                    // Notify tile column changed
-                    for (LevelListener levelListener : this.levelListeners) {
-                        levelListener.lightColumnChanged(x, z, minTileChangeY, maxTileChangeY);
-                    }
+            // Scan the tiles of this section
+            for (; y >= sectionMinY && y > 0; y--) {
+                if (LIGHT_BLOCKERS[section.getTile(getSectionIndex(x, y, z))]) {
+                    return y;
                 }
             }
         }
+        return 0;
+    }
+
+    /**
+     * Notify all listeners about a changed light depth
+     */
+    private void lightDepthChanged(int x, int z, int prevDepth, int depth, boolean queueLight) {
+        if (prevDepth == depth) {
+            return;
+        }
+
+        // Get changed range
+        int minTileChangeY = Math.min(prevDepth, depth);
+        int maxTileChangeY = Math.max(prevDepth, depth);
+
+        // Queue light update of the column
+        if (queueLight) {
+            this.lightEngine.queueColumn(x, z, minTileChangeY, maxTileChangeY);
+        }
+
+        // Notify tile column changed
+        for (LevelListener levelListener : this.levelListeners) {
+            levelListener.lightColumnChanged(x, z, minTileChangeY, maxTileChangeY);
+        }
+        if (!this.batchedListeners.isEmpty()) {
+            this.dirtyRegion.add(x - 1, minTileChangeY - 1, z - 1, x + 1, maxTileChangeY + 1, z + 1);
+        }
+    }
+
+    /**
+     * Get the section containing the given tile position. The position must be inside of the level
+     *
+     * @param x Level position x
+     * @param y Level position y
+     * @param z Level position z
+     * @return Section of this position
+     */
+    LevelSection getSection(int x, int y, int z) {
+        return this.sections[getSectionArrayIndex(x, y, z)];
+    }
+
+    /**
+     * Get the index of the section containing the given tile position in the section array
+     *
+     * @param x Level position x
+     * @param y Level position y
+     * @param z Level position z
+     * @return Index of the section
+     */
+    int getSectionArrayIndex(int x, int y, int z) {
+        int sectionX = x >> LevelSection.SIZE_BITS;
+        int sectionY = y >> LevelSection.SIZE_BITS;
+        int sectionZ = z >> LevelSection.SIZE_BITS;
+        return (sectionY * this.sectionAmountZ + sectionZ) * this.sectionAmountX + sectionX;
+    }
+
+    /**
+     * Notify all listeners about changed light levels in a section
+     *
+     * @param sectionArrayIndex Index of the section in the section array
+     */
+    void sectionLightChanged(int sectionArrayIndex) {
+        int sectionX = sectionArrayIndex % this.sectionAmountX;
+        int sectionZ = sectionArrayIndex / this.sectionAmountX % this.sectionAmountZ;
+        int sectionY = sectionArrayIndex / this.sectionAmountX / this.sectionAmountZ;
+
+        int minX = sectionX << LevelSection.SIZE_BITS;
+        int minY = sectionY << LevelSection.SIZE_BITS;
+        int minZ = sectionZ << LevelSection.SIZE_BITS;
+        int maxX = Math.min(minX + LevelSection.SIZE, this.width) - 1;
+        int maxY = Math.min(minY + LevelSection.SIZE, this.depth) - 1;
+        int maxZ = Math.min(minZ + LevelSection.SIZE, this.height) - 1;
+
+        for (LevelListener levelListener : this.levelListeners) {
+            levelListener.lightChanged(minX, minY, minZ, maxX, maxY, maxZ);
+        }
+        if (!this.batchedListeners.isEmpty()) {
+            this.dirtyRegion.add(minX - 1, minY - 1, minZ - 1, maxX + 1, maxY + 1, maxZ + 1);
+        }
+    }
+
+    /**
+     * Get the index of a tile position inside of its section
+     *
+     * @param x Level position x
+     * @param y Level position y
+     * @param z Level position z
+     * @return Local index in the section
+     */
+    static int getSectionIndex(int x, int y, int z) {
+        int mask = LevelSection.SIZE - 1;
+        return LevelSection.getIndex(x & mask, y & mask, z & mask);
+    }
+
+    /**
+     * Get the uniform tile id of the section containing the given tile position
+     *
+     * @param x Level position x
+     * @param y Level position y
+     * @param z Level position z
+     * @return Tile id filling the entire section, -1 if the section has mixed tiles or -2 if out of the level
+     */
+    public int getUniformTile(int x, int y, int z) {
+        // Is location out of the level?
+        if (x < 0 || y < 0 || z < 0 || x >= this.width || y >= this.depth || z >= this.height) {
+            return -2;
+        }
+
+        return getSection(x, y, z).getUniformTile();
+    }
+
+    /**
+     * Approximate heap usage of the tile storage
+     *
+     * @return Size in bytes
+     */
+    public long getMemoryUsage() {
+        long size = 0;
+        for (LevelSection section : this.sections) {
+            size += section.getMemoryUsage();
+        }
+        return size;
     }
 
     /**
@@ -203,11 +846,8 @@ public class Level {
             return false;
         }
 
-        // Calculate index from x, y and z
-        int index = (y * this.height + z) * this.width + x;
-
         // Return true if there is a tile at this location
-        return this.blocks[index] != 0;
+        return getSection(x, y, z).getTile(getSectionIndex(x, y, z)) != 0;
     }
 
     /**
@@ -224,11 +864,8 @@ public class Level {
             return 0;
         }
 
-        // Calculate index from x, y and z
-        int index = (y * this.height + z) * this.width + x;
-
         // Return tile id
-        return this.blocks[index];
+        return getSection(x, y, z).getTile(getSectionIndex(x, y, z));
     }
 
     /**
@@ -257,14 +894,86 @@ public class Level {
         return tile != null && tile.blocksLight();
     }
 
+    /**
+     * Trace a ray through the tile grid and find the first tile it hits.
+     * Walks from tile to tile along the ray (DDA), so the cost only depends on the amount of crossed tiles.
+     *
+     * @param x          Ray origin x
+     * @param y          Ray origin y
+     * @param z          Ray origin z
+     * @param directionX Normalized ray direction x
+     * @param directionY Normalized ray direction y
+     * @param directionZ Normalized ray direction z
+     * @param reach      Maximal distance of the hit
+     * @param hitResult  Target for the hit tile and the face the ray entered through
+     * @return A tile was hit within the reach
+     */
+    public boolean clip(double x, double y, double z,
+                        double directionX, double directionY, double directionZ,
+                        double reach, HitResult hitResult) {
+        // Tile of the ray origin
+        int tileX = (int) Math.floor(x);
+        int tileY = (int) Math.floor(y);
+        int tileZ = (int) Math.floor(z);
+
+        // Step direction on each axis
+        int stepX = directionX > 0 ? 1 : directionX < 0 ? -1 : 0;
+        int stepY = directionY > 0 ? 1 : directionY < 0 ? -1 : 0;
+        int stepZ = directionZ > 0 ? 1 : directionZ < 0 ? -1 : 0;
+
+        // Ray distance between two tile borders on each axis
+        double deltaX = stepX == 0 ? Double.POSITIVE_INFINITY : Math.abs(1.0 / directionX);
+        double deltaY = stepY == 0 ? Double.POSITIVE_INFINITY : Math.abs(1.0 / directionY);
+        double deltaZ = stepZ == 0 ? Double.POSITIVE_INFINITY : Math.abs(1.0 / directionZ);
+
+        // Ray distance to the next tile border on each axis
+        double nextX = stepX == 0 ? Double.POSITIVE_INFINITY : (stepX > 0 ? tileX + 1 - x : x - tileX) * deltaX;
+        double nextY = stepY == 0 ? Double.POSITIVE_INFINITY : (stepY > 0 ? tileY + 1 - y : y - tileY) * deltaY;
+        double nextZ = stepZ == 0 ? Double.POSITIVE_INFINITY : (stepZ > 0 ? tileZ + 1 - z : z - tileZ) * deltaZ;
+
+        while (true) {
+            // Step into the closest neighbour tile and remember the entered face
+            double distance;
+            int face;
+            if (nextX < nextY && nextX < nextZ) {
+                distance = nextX;
+                tileX += stepX;
+                nextX += deltaX;
+                face = stepX > 0 ? 4 : 5;
+            } else if (nextY < nextZ) {
+                distance = nextY;
+                tileY += stepY;
+                nextY += deltaY;
+                face = stepY > 0 ? 0 : 1;
+            } else {
+                distance = nextZ;
+                tileZ += stepZ;
+                nextZ += deltaZ;
+                face = stepZ > 0 ? 2 : 3;
+            }
+
+            // Out of reach
+            if (distance > reach) {
+                return false;
+            }
+
+            // Hit any tile, including non-solid ones
+            if (this.getTile(tileX, tileY, tileZ) != 0) {
+                hitResult.set(0, tileX, tileY, tileZ, face);
+                return true;
+            }
+        }
+    }
+
     /**
      * Get bounding box of all tiles surrounded by the given bounding box
      *
      * @param boundingBox Target bounding box located in the level
-     * @return List of bounding boxes representing the tiles around the given bounding box
+     * @param target      Buffer that is cleared and filled with the bounding boxes of the tiles around the given bounding box
+     * @return Amount of bounding boxes
      */
-    public ArrayList<AABB> getCubes(AABB boundingBox) {
-        ArrayList<AABB> boundingBoxList = new ArrayList<>();
+    public int getCubes(AABB boundingBox, AABBBuffer target) {
+        target.clear();
 
         int minX = (int) (Math.floor(boundingBox.minX) - 1);
         int maxX = (int) (Math.ceil(boundingBox.maxX) + 1);
@@ -293,15 +1002,14 @@ public class Level {
                     if (tile != null) {
 
                         // Get bounding box of the the tile
-                        AABB aabb = tile.getAABB(x, y, z);
-                        if (aabb != null) {
-                            boundingBoxList.add(aabb);
+                        if (!tile.getAABB(x, y, z, target.add())) {
+                            target.removeLast();
                         }
                     }
                 }
             }
         }
-        return boundingBoxList;
+        return target.size();
     }
 
 
@@ -320,34 +1028,403 @@ public class Level {
             return false;
         }
 
-        // Get index of this position
-        int index = (y * this.height + z) * this.width + x;
-
-        // Check if type changed
-        if (id == this.blocks[index])
+        // Set tile and check if type changed
+        int sectionArrayIndex = getSectionArrayIndex(x, y, z);
+        int prevId = this.sections[sectionArrayIndex].setTile(getSectionIndex(x, y, z), id);
+        if (prevId == id)
             return false;
 
-        // Set tile
-        this.blocks[index] = (byte) id;
+        // Remember section for the next save
+        this.dirtySections.set(sectionArrayIndex);
+        if (this.journal != null) {
+            this.journal.appendTile(x, y, z, prevId, id, this.tickCount);
+        }
+
+        // Update lightning, the light levels are updated in the next tick
+        updateLightDepth(x, y, z, LIGHT_BLOCKERS[prevId], LIGHT_BLOCKERS[id]);
+        this.lightEngine.queueTile(x, y, z);
 
-        // Update lightning
-        this.calcLightDepths(x, z, 1, 1);
+        // Update random tick state of the section
+        if (TICKABLE_TILES[prevId] != TICKABLE_TILES[id]) {
+            addTickableTiles(sectionArrayIndex, TICKABLE_TILES[id] ? 1 : -1);
+        }
 
         // Notify tile changed
         for (LevelListener levelListener : this.levelListeners) {
             levelListener.tileChanged(x, y, z);
         }
+        if (!this.batchedListeners.isEmpty()) {
+            this.dirtyRegion.add(x - 1, y - 1, z - 1, x + 1, y + 1, z + 1);
+        }
+
+        // Notify surrounding tiles
+        neighbourChanged(x - 1, y, z);
+        neighbourChanged(x + 1, y, z);
+        neighbourChanged(x, y - 1, z);
+        neighbourChanged(x, y + 1, z);
+        neighbourChanged(x, y, z - 1);
+        neighbourChanged(x, y, z + 1);
 
         return true;
     }
 
+    private void neighbourChanged(int x, int y, int z) {
+        Tile tile = Tile.tiles[getTile(x, y, z)];
+        if (tile != null) {
+            tile.onNeighbourChanged(this, x, y, z);
+        }
+    }
+
+    /**
+     * Set all tiles of an area to the same type. Sections that are entirely inside of the area are replaced in one step.
+     * Bulk edits don't notify the surrounding tiles
+     *
+     * @param minX Minimum tile position X
+     * @param minY Minimum tile position Y
+     * @param minZ Minimum tile position Z
+     * @param maxX Maximum tile position X
+     * @param maxY Maximum tile position Y
+     * @param maxZ Maximum tile position Z
+     * @param id   Type of tile
+     * @return Amount of changed tiles
+     */
+    public int fill(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int id) {
+        EditRecord record = (journal, fromX, fromY, fromZ, toX, toY, toZ, tick) -> journal.appendFill(fromX, fromY, fromZ, toX, toY, toZ, id, tick);
+        return editRegion(minX, minY, minZ, maxX, maxY, maxZ, record, (section, fromX, fromY, fromZ, toX, toY, toZ) -> {
+            // Replace the entire section
+            if (isEntireSection(fromX, fromY, fromZ, toX, toY, toZ)) {
+                int changed = LevelSection.VOLUME - section.countTiles(id);
+                if (changed > 0) {
+                    section.fill(id);
+                }
+                return changed;
+            }
+
+            int changed = 0;
+            for (int y = fromY; y <= toY; y++) {
+                for (int z = fromZ; z <= toZ; z++) {
+                    for (int x = fromX; x <= toX; x++) {
+                        if (section.setTile(getSectionIndex(x, y, z), id) != id) {
+                            changed++;
+                        }
+                    }
+                }
+            }
+            return changed;
+        });
+    }
+
+    /**
+     * Replace all tiles of a type in an area with another type. Sections without the type are skipped.
+     * Bulk edits don't notify the surrounding tiles
+     *
+     * @param minX   Minimum tile position X
+     * @param minY   Minimum tile position Y
+     * @param minZ   Minimum tile position Z
+     * @param maxX   Maximum tile position X
+     * @param maxY   Maximum tile position Y
+     * @param maxZ   Maximum tile position Z
+     * @param fromId Type of the replaced tiles
+     * @param toId   New type of the replaced tiles
+     * @return Amount of changed tiles
+     */
+    public int replace(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, int fromId, int toId) {
+        if (fromId == toId) {
+            return 0;
+        }
+
+        EditRecord record = (journal, fromX, fromY, fromZ, toX, toY, toZ, tick) -> journal.appendReplace(fromX, fromY, fromZ, toX, toY, toZ, fromId, toId, tick);
+        return editRegion(minX, minY, minZ, maxX, maxY, maxZ, record, (section, fromX, fromY, fromZ, toX, toY, toZ) -> {
+            int count = section.countTiles(fromId);
+            if (count == 0) {
+                return 0;
+            }
+
+            // Replace the entire section
+            if (count == LevelSection.VOLUME && isEntireSection(fromX, fromY, fromZ, toX, toY, toZ)) {
+                section.fill(toId);
+                return count;
+            }
+
+            int changed = 0;
+            for (int y = fromY; y <= toY; y++) {
+                for (int z = fromZ; z <= toZ; z++) {
+                    for (int x = fromX; x <= toX; x++) {
+                        int index = getSectionIndex(x, y, z);
+                        if (section.getTile(index) == fromId) {
+                            section.setTile(index, toId);
+                            changed++;
+                        }
+                    }
+                }
+            }
+            return changed;
+        });
+    }
+
+    /**
+     * Copy the tiles of an area. Uniform sections are copied as filled rows
+     *
+     * @param minX Minimum tile position X
+     * @param minY Minimum tile position Y
+     * @param minZ Minimum tile position Z
+     * @param maxX Maximum tile position X
+     * @param maxY Maximum tile position Y
+     * @param maxZ Maximum tile position Z
+     * @return Copied tiles, positions outside of the level are air
+     */
+    public TileRegion copyRegion(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        TileRegion region = new TileRegion(maxX - minX + 1, maxZ - minZ + 1, maxY - minY + 1);
+
+        forEachSection(minX, minY, minZ, maxX, maxY, maxZ, (section, fromX, fromY, fromZ, toX, toY, toZ) -> {
+            int uniformTileId = section.getUniformTile();
+
+            for (int y = fromY; y <= toY; y++) {
+                for (int z = fromZ; z <= toZ; z++) {
+                    if (uniformTileId >= 0) {
+                        region.fillRow(fromX - minX, toX - minX, y - minY, z - minZ, uniformTileId);
+                        continue;
+                    }
+
+                    for (int x = fromX; x <= toX; x++) {
+                        region.setTile(x - minX, y - minY, z - minZ, section.getTile(getSectionIndex(x, y, z)));
+                    }
+                }
+            }
+            return 0;
+        });
+
+        return region;
+    }
+
+    /**
+     * Paste copied tiles into the level. Tiles outside of the level are dropped.
+     * Bulk edits don't notify the surrounding tiles
+     *
+     * @param region Copied tiles
+     * @param x      Target position of the region minimum x
+     * @param y      Target position of the region minimum y
+     * @param z      Target position of the region minimum z
+     * @return Amount of changed tiles
+     */
+    public int pasteRegion(TileRegion region, int x, int y, int z) {
+        // The pasted tiles are journaled as they are, tiles outside of the level are dropped again on replay
+        EditRecord record = (journal, fromX, fromY, fromZ, toX, toY, toZ, tick) -> journal.appendRegion(x, y, z, region, tick);
+        return editRegion(x, y, z, x + region.width - 1, y + region.depth - 1, z + region.height - 1, record,
+                (section, fromX, fromY, fromZ, toX, toY, toZ) -> {
+                    int changed = 0;
+                    for (int tileY = fromY; tileY <= toY; tileY++) {
+                        for (int tileZ = fromZ; tileZ <= toZ; tileZ++) {
+                            for (int tileX = fromX; tileX <= toX; tileX++) {
+                                int id = region.getTile(tileX - x, tileY - y, tileZ - z);
+                                if (section.setTile(getSectionIndex(tileX, tileY, tileZ), id) != id) {
+                                    changed++;
+                                }
+                            }
+                        }
+                    }
+                    return changed;
+                });
+    }
+
+    /**
+     * Apply an edit to all sections of an area and update the level state once for the entire area.
+     * The light depth is recalculated once per column, the listeners get a single tilesChanged call
+     *
+     * @return Amount of changed tiles
+     */
+    private int editRegion(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, EditRecord record, SectionEdit edit) {
+        // Limit the area to the level
+        minX = Math.max(minX, 0);
+        minY = Math.max(minY, 0);
+        minZ = Math.max(minZ, 0);
+        maxX = Math.min(maxX, this.width - 1);
+        maxY = Math.min(maxY, this.depth - 1);
+        maxZ = Math.min(maxZ, this.height - 1);
+
+        int changed = forEachSection(minX, minY, minZ, maxX, maxY, maxZ, (section, fromX, fromY, fromZ, toX, toY, toZ) -> {
+            // Keep the random tick state of the section up to date
+            int tickableTiles = section.countTiles(TICKABLE_TILES);
+            int sectionChanged = edit.apply(section, fromX, fromY, fromZ, toX, toY, toZ);
+            if (sectionChanged > 0) {
+                int sectionArrayIndex = getSectionArrayIndex(fromX, fromY, fromZ);
+                addTickableTiles(sectionArrayIndex, section.countTiles(TICKABLE_TILES) - tickableTiles);
+                this.dirtySections.set(sectionArrayIndex);
+            }
+            return sectionChanged;
+        });
+
+        if (changed == 0) {
+            return 0;
+        }
+
+        // Update lightning of all affected columns
+        calcLightDepths(minX, minZ, maxX - minX + 1, maxZ - minZ + 1);
+
+        long volume = (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+        if (volume * BULK_LIGHT_FRACTION >= (long) this.width * this.height * this.depth) {
+            // Large edits are faster with a full light calculation
+            this.lightEngine.initialize();
+            this.dirtyRegion.addAll();
+        } else {
+            this.lightEngine.queueArea(minX, minY, minZ, maxX, maxY, maxZ);
+        }
+
+        // Notify tiles changed
+        for (LevelListener levelListener : this.levelListeners) {
+            levelListener.tilesChanged(minX, minY, minZ, maxX, maxY, maxZ);
+        }
+        if (!this.batchedListeners.isEmpty()) {
+            this.dirtyRegion.add(minX - 1, minY - 1, minZ - 1, maxX + 1, maxY + 1, maxZ + 1);
+        }
+
+        // Journal the edit
+        if (this.journal != null) {
+            record.append(this.journal, minX, minY, minZ, maxX, maxY, maxZ, this.tickCount);
+        }
+
+        // Deliver the edit together with its light changes
+        updateLight();
+        flushChanges();
+
+        return changed;
+    }
+
+    /**
+     * Call the consumer for the part of each section inside of the area. The area must be inside of the level
+     *
+     * @return Sum of the consumer results
+     */
+    private int forEachSection(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, SectionEdit consumer) {
+        // Limit the area to the level
+        int fromX = Math.max(minX, 0);
+        int fromY = Math.max(minY, 0);
+        int fromZ = Math.max(minZ, 0);
+        int toX = Math.min(maxX, this.width - 1);
+        int toY = Math.min(maxY, this.depth - 1);
+        int toZ = Math.min(maxZ, this.height - 1);
+
+        int result = 0;
+        for (int sectionY = fromY >> LevelSection.SIZE_BITS; sectionY <= toY >> LevelSection.SIZE_BITS; sectionY++) {
+            for (int sectionZ = fromZ >> LevelSection.SIZE_BITS; sectionZ <= toZ >> LevelSection.SIZE_BITS; sectionZ++) {
+                for (int sectionX = fromX >> LevelSection.SIZE_BITS; sectionX <= toX >> LevelSection.SIZE_BITS; sectionX++) {
+                    // Part of the area inside of this section
+                    int sectionMinX = Math.max(fromX, sectionX << LevelSection.SIZE_BITS);
+                    int sectionMinY = Math.max(fromY, sectionY << LevelSection.SIZE_BITS);
+                    int sectionMinZ = Math.max(fromZ, sectionZ << LevelSection.SIZE_BITS);
+                    int sectionMaxX = Math.min(toX, (sectionX << LevelSection.SIZE_BITS) + LevelSection.SIZE - 1);
+                    int sectionMaxY = Math.min(toY, (sectionY << LevelSection.SIZE_BITS) + LevelSection.SIZE - 1);
+                    int sectionMaxZ = Math.min(toZ, (sectionZ << LevelSection.SIZE_BITS) + LevelSection.SIZE - 1);
+
+                    LevelSection section = getSection(sectionMinX, sectionMinY, sectionMinZ);
+                    result += consumer.apply(section, sectionMinX, sectionMinY, sectionMinZ, sectionMaxX, sectionMaxY, sectionMaxZ);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isEntireSection(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return maxX - minX == LevelSection.SIZE - 1
+                && maxY - minY == LevelSection.SIZE - 1
+                && maxZ - minZ == LevelSection.SIZE - 1;
+    }
+
+    /**
+     * Edit of the part of a section inside of an area
+     */
+    private interface SectionEdit {
+        /**
+         * @param section The section
+         * @param minX    Minimum level position X inside of the section
+         * @param minY    Minimum level position Y inside of the section
+         * @param minZ    Minimum level position Z inside of the section
+         * @param maxX    Maximum level position X inside of the section
+         * @param maxY    Maximum level position Y inside of the section
+         * @param maxZ    Maximum level position Z inside of the section
+         * @return Amount of changed tiles
+         */
+        int apply(LevelSection section, int minX, int minY, int minZ, int maxX, int maxY, int maxZ);
+    }
+
+    /**
+     * Journal record of a bulk edit
+     */
+    private interface EditRecord {
+        /**
+         * @param journal The journal of the level
+         * @param minX    Minimum tile position X of the edited area inside of the level
+         * @param minY    Minimum tile position Y of the edited area inside of the level
+         * @param minZ    Minimum tile position Z of the edited area inside of the level
+         * @param maxX    Maximum tile position X of the edited area inside of the level
+         * @param maxY    Maximum tile position Y of the edited area inside of the level
+         * @param maxZ    Maximum tile position Z of the edited area inside of the level
+         * @param tick    Game tick of the edit
+         */
+        void append(EditJournal journal, int minX, int minY, int minZ, int maxX, int maxY, int maxZ, long tick);
+    }
+
+    /**
+     * Deliver the accumulated changes to the batched listeners as a single region
+     */
+    public void flushChanges() {
+        if (this.dirtyRegion.isEmpty()) {
+            return;
+        }
+
+        for (LevelListener levelListener : this.batchedListeners) {
+            levelListener.regionChanged(this.dirtyRegion);
+        }
+        this.dirtyRegion.clear();
+    }
+
+    /**
+     * Schedule a tick of a tile. Does nothing if the tile already has a pending scheduled tick
+     *
+     * @param x     Tile position x
+     * @param y     Tile position y
+     * @param z     Tile position z
+     * @param delay Amount of game ticks until the tile is ticked
+     * @return The tick was scheduled
+     */
+    public boolean scheduleTick(int x, int y, int z, int delay) {
+        // Check if position is out of level
+        if (x < 0 || y < 0 || z < 0 || x >= this.width || y >= this.depth || z >= this.height) {
+            return false;
+        }
+
+        return this.scheduledTicks.schedule((y * this.height + z) * this.width + x, this.tickCount + Math.max(1, delay));
+    }
+
+    /**
+     * Amount of pending scheduled ticks
+     *
+     * @return Scheduled tick count
+     */
+    public int getScheduledTickCount() {
+        return this.scheduledTicks.size();
+    }
+
+    /**
+     * Amount of processed game ticks
+     *
+     * @return Game tick count
+     */
+    public long getTickCount() {
+        return this.tickCount;
+    }
+
     /**
      * Register a level listener
      *
      * @param levelListener Listener interface
      */
     public void addListener(LevelListener levelListener) {
-        this.levelListeners.add(levelListener);
+        if (levelListener.isBatched()) {
+            this.batchedListeners.add(levelListener);
+        } else {
+            this.levelListeners.add(levelListener);
+        }
     }
 
     /**
@@ -363,28 +1440,167 @@ public class Level {
     }
 
     /**
-     * Tick a random tile in the level
+     * Get the light level of a tile
+     *
+     * @param x Tile position x
+     * @param y Tile position y
+     * @param z Tile position z
+     * @return Light level (0 - 15), tiles outside of the level are in the sun
+     */
+    public int getLight(int x, int y, int z) {
+        return this.lightEngine.getLight(x, y, z);
+    }
+
+    /**
+     * Get the brightness of a tile for the vertex colors
+     *
+     * @param x Tile position x
+     * @param y Tile position y
+     * @param z Tile position z
+     * @return Brightness factor (0.0 - 1.0)
+     */
+    public float getBrightness(int x, int y, int z) {
+        return BRIGHTNESS[getLight(x, y, z)];
+    }
+
+    /**
+     * Get the brightness of a light level for the vertex colors
+     *
+     * @param light Light level (0 - 15)
+     * @return Brightness factor (0.0 - 1.0)
+     */
+    public static float getBrightness(int light) {
+        return BRIGHTNESS[light];
+    }
+
+    /**
+     * Get the light depth of a column
+     *
+     * @param x Tile position x
+     * @param z Tile position z
+     * @return Height of the highest light blocker or 0
+     */
+    int getLightDepth(int x, int z) {
+        return this.lightDepths[x + z * this.width];
+    }
+
+    /**
+     * Process all queued light changes
+     */
+    public void updateLight() {
+        this.lightEngine.update();
+    }
+
+    /**
+     * Count the tickable tiles of all sections and rebuild the list of active sections
+     */
+    private void countTickableTiles() {
+        Arrays.fill(this.activeSectionSlots, -1);
+        this.activeSectionCount = 0;
+
+        for (int i = 0; i < this.sections.length; i++) {
+            this.tickableCounts[i] = 0;
+            addTickableTiles(i, this.sections[i].countTiles(TICKABLE_TILES));
+        }
+    }
+
+    /**
+     * Change the amount of tickable tiles of a section and update the list of active sections
+     *
+     * @param sectionArrayIndex Index of the section in the section array
+     * @param amount            Added (Or removed if negative) amount of tickable tiles
+     */
+    private void addTickableTiles(int sectionArrayIndex, int amount) {
+        int prevCount = this.tickableCounts[sectionArrayIndex];
+        int count = prevCount + amount;
+        this.tickableCounts[sectionArrayIndex] = count;
+
+        if (prevCount == 0 && count > 0) {
+            // Section became active
+            this.activeSections[this.activeSectionCount] = sectionArrayIndex;
+            this.activeSectionSlots[sectionArrayIndex] = this.activeSectionCount++;
+        } else if (prevCount > 0 && count == 0) {
+            // Section became inactive, move the last active section into the free slot
+            int slot = this.activeSectionSlots[sectionArrayIndex];
+            int lastSection = this.activeSections[--this.activeSectionCount];
+            this.activeSections[slot] = lastSection;
+            this.activeSectionSlots[lastSection] = slot;
+            this.activeSectionSlots[sectionArrayIndex] = -1;
+        }
+    }
+
+    /**
+     * Amount of sections that contain tickable tiles
+     *
+     * @return Active section count
+     */
+    public int getActiveSectionCount() {
+        return this.activeSectionCount;
+    }
+
+    /**
+     * Tick random tiles in the level and process the due scheduled ticks.
+     * Only sections with tickable tiles are sampled, each of their tiles is ticked once per RANDOM_TICK_INTERVAL game ticks on average.
      */
     public void onTick() {
-        // Amount of tiles in this level
-        int totalTiles = this.width * this.height * this.depth;
+        this.tickCount++;
 
-        // Amount of tiles to process for this tick
-        int ticks = totalTiles / 400;
+        // Amount of tiles to process for this tick, the remainder is carried into the next tick
+        this.randomTickProgress += (long) this.activeSectionCount * LevelSection.VOLUME;
+        long ticks = this.randomTickProgress / RANDOM_TICK_INTERVAL;
+        this.randomTickProgress %= RANDOM_TICK_INTERVAL;
 
         // Tick multiple tiles in one game tick
-        for (int i = 0; i < ticks; ++i) {
-            // Get random position of the tile
-            int x = this.random.nextInt(this.width);
-            int y = this.random.nextInt(this.depth);
-            int z = this.random.nextInt(this.height);
+        for (long i = 0; i < ticks && this.activeSectionCount > 0; ++i) {
+            // Get random active section and random position in it
+            int sectionArrayIndex = this.activeSections[this.random.nextInt(this.activeSectionCount)];
+            int index = this.random.nextInt(LevelSection.VOLUME);
+
+            int x = (sectionArrayIndex % this.sectionAmountX) << LevelSection.SIZE_BITS
+                    | index & (LevelSection.SIZE - 1);
+            int z = (sectionArrayIndex / this.sectionAmountX % this.sectionAmountZ) << LevelSection.SIZE_BITS
+                    | (index >> LevelSection.SIZE_BITS) & (LevelSection.SIZE - 1);
+            int y = (sectionArrayIndex / this.sectionAmountX / this.sectionAmountZ) << LevelSection.SIZE_BITS
+                    | index >> (LevelSection.SIZE_BITS * 2);
+
+            // Sections at the border can exceed the level
+            if (x >= this.width || y >= this.depth || z >= this.height) {
+                continue;
+            }
 
             // Get tile type
-            Tile tile = Tile.tiles[this.getTile(x, y, z)];
-            if (tile != null) {
+            int tileId = this.sections[sectionArrayIndex].getTile(index);
+            if (TICKABLE_TILES[tileId]) {
                 // Tick tile
-                tile.onTick(this, x, y, z, this.random);
+                Tile.tiles[tileId].onTick(this, x, y, z, this.random);
             }
         }
+
+        // Process due scheduled ticks, the overflow stays in the queue for the next game tick
+        for (int i = 0; i < SCHEDULED_TICK_BUDGET && this.scheduledTicks.hasDue(this.tickCount); i++) {
+            int position = this.scheduledTicks.poll();
+            int x = position % this.width;
+            int z = position / this.width % this.height;
+            int y = position / this.width / this.height;
+
+            Tile tile = Tile.tiles[getTile(x, y, z)];
+            if (tile != null) {
+                tile.onScheduledTick(this, x, y, z, this.random);
+            }
+        }
+
+        // Process all light changes of this tick in one pass
+        updateLight();
+
+        // Deliver all changes of this tick and write them into the journal
+        flushChanges();
+        if (this.journal != null) {
+            this.journal.commit();
+        }
+
+        // Save at a tick boundary, the previous save may still be running
+        if (this.autosaveInterval > 0 && this.tickCount % this.autosaveInterval == 0 && !this.dirtySections.isEmpty()) {
+            saveAsync();
+        }
     }
 }
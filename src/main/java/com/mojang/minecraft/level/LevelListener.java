@@ -11,6 +11,18 @@ public interface LevelListener {
      */
     void lightColumnChanged(int x, int z, int minY, int maxY);
 
+    /**
+     * Gets called once per update for each area with changed light levels
+     *
+     * @param minX Minimum tile position X
+     * @param minY Minimum tile position Y
+     * @param minZ Minimum tile position Z
+     * @param maxX Maximum tile position X
+     * @param maxY Maximum tile position Y
+     * @param maxZ Maximum tile position Z
+     */
+    void lightChanged(int minX, int minY, int minZ, int maxX, int maxY, int maxZ);
+
     /**
      * Gets called when a tile changed it's type
      *
@@ -20,8 +32,39 @@ public interface LevelListener {
      */
     void tileChanged(int x, int y, int z);
 
+    /**
+     * Gets called once for a bulk edit of an area, instead of a tileChanged call per tile
+     *
+     * @param minX Minimum tile position X
+     * @param minY Minimum tile position Y
+     * @param minZ Minimum tile position Z
+     * @param maxX Maximum tile position X
+     * @param maxY Maximum tile position Y
+     * @param maxZ Maximum tile position Z
+     */
+    void tilesChanged(int minX, int minY, int minZ, int maxX, int maxY, int maxZ);
+
     /**
      * Gets called when the entire level changed
      */
     void allChanged();
+
+    /**
+     * Batched listeners only receive regionChanged and allChanged, the single change callbacks are not called.
+     * Checked once when the listener is registered
+     *
+     * @return Listener receives the changes as a batch
+     */
+    default boolean isBatched() {
+        return false;
+    }
+
+    /**
+     * Gets called once per tick (Or on Level.flushChanges) with all chunks that changed since the last call.
+     * The region includes the direct neighbours of the changed tiles and is cleared after the call
+     *
+     * @param region Changed chunks
+     */
+    default void regionChanged(DirtyRegion region) {
+    }
 }
\ No newline at end of file
@@ -4,25 +4,52 @@ import com.mojang.minecraft.HitResult;
 import com.mojang.minecraft.Player;
 import com.mojang.minecraft.Textures;
 import com.mojang.minecraft.level.tile.Tile;
-import com.mojang.minecraft.phys.AABB;
-
-import java.util.ArrayList;
-import java.util.List;
 
 import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.glBindBuffer;
 
 public class LevelRenderer implements LevelListener {
 
     private static final int CHUNK_SIZE = 16;
 
+    /**
+     * Target frame time and initial time budget of the chunk updates in milliseconds
+     */
+    private static final float TARGET_FRAME_MILLIS = 1000.0F / 60.0F;
+    private static final float CHUNK_UPDATE_BUDGET_MILLIS = 4.0F;
+
     private final Tessellator tessellator;
     private final Level level;
     private final Chunk[] chunks;
+    private final ChunkBuilder chunkBuilder = new ChunkBuilder();
+    private final DirtyChunkQueue dirtyChunkQueue = new DirtyChunkQueue();
+    private final ChunkUpdateScheduler chunkUpdateScheduler = new ChunkUpdateScheduler(TARGET_FRAME_MILLIS, CHUNK_UPDATE_BUDGET_MILLIS);
 
     private final int chunkAmountX;
     private final int chunkAmountY;
     private final int chunkAmountZ;
 
+    /**
+     * Changed chunks reported by the simulation thread, they are marked dirty at the start of the next frame
+     */
+    private final DirtyRegion pendingRegion;
+
+    /**
+     * Chunks to render in the current frame
+     */
+    private final Chunk[] visibleChunks;
+    private int visibleChunkCount;
+
+    /**
+     * Breadth-first search state of the visibility culling
+     */
+    private final int[] searchQueue;
+    private final int[] searchEnteredFace;
+    private final int[] searchDirections;
+    private final int[] searchVisitedFrame;
+    private int searchFrame;
+
     /**
      * Create renderer for level
      *
@@ -38,9 +65,17 @@ public class LevelRenderer implements LevelListener {
         this.chunkAmountX = level.width / CHUNK_SIZE;
         this.chunkAmountY = level.depth / CHUNK_SIZE;
         this.chunkAmountZ = level.height / CHUNK_SIZE;
+        this.pendingRegion = new DirtyRegion(level.width, level.height, level.depth);
 
         // Create chunk array
         this.chunks = new Chunk[this.chunkAmountX * this.chunkAmountY * this.chunkAmountZ];
+        this.visibleChunks = new Chunk[this.chunks.length];
+
+        // Create search buffers
+        this.searchQueue = new int[this.chunks.length];
+        this.searchEnteredFace = new int[this.chunks.length];
+        this.searchDirections = new int[this.chunks.length];
+        this.searchVisitedFrame = new int[this.chunks.length];
 
         // Fill level with chunks
         for (int x = 0; x < this.chunkAmountX; x++) {
@@ -62,196 +97,274 @@ public class LevelRenderer implements LevelListener {
                     maxChunkZ = Math.min(level.height, maxChunkZ);
 
                     // Create chunk based on bounds
-                    Chunk chunk = new Chunk(level, minChunkX, minChunkY, minChunkZ, maxChunkX, maxChunkY, maxChunkZ);
-                    this.chunks[(x + y * this.chunkAmountX) * this.chunkAmountZ + z] = chunk;
+                    Chunk chunk = new Chunk(level, this.dirtyChunkQueue, minChunkX, minChunkY, minChunkZ, maxChunkX, maxChunkY, maxChunkZ);
+                    this.chunks[getChunkIndex(x, y, z)] = chunk;
                 }
             }
         }
-    }
 
-    /**
-     * Get all chunks with dirty flag
-     *
-     * @return List of dirty chunks
-     */
-    public List<Chunk> getAllDirtyChunks() {
-        ArrayList<Chunk> dirty = new ArrayList<>();
-        for (final Chunk chunk : this.chunks) {
-            if (chunk.isDirty()) {
-                dirty.add(chunk);
-            }
-        }
-        return dirty;
+        // Initial build
+        allChanged();
     }
 
     /**
-     * Render all chunks of the level
-     *
-     * @param layer The render layer
+     * Render all chunks of the level. The light levels are baked into the vertex colors, so it's a single pass
      */
-    public void render(int layer) {
+    public void render() {
         glEnable(GL_TEXTURE_2D);
         glBindTexture(GL_TEXTURE_2D, Textures.loadTexture("/terrain.png", GL_NEAREST));
 
-        // Get current camera frustum
-        Frustum frustum = Frustum.getFrustum();
-
-        // For all chunks
-        for (Chunk chunk : this.chunks) {
-
-            // Render if bounding box of chunk is in frustum
-            if (frustum.isVisible(chunk.boundingBox)) {
+        // Enable client states for the chunk vertex buffers
+        glEnableClientState(GL_VERTEX_ARRAY);
+        glEnableClientState(GL_TEXTURE_COORD_ARRAY);
+        glEnableClientState(GL_COLOR_ARRAY);
 
-                // Render chunk
-                chunk.render(layer);
-            }
+        // Render all chunks of the visibility search
+        for (int i = 0; i < this.visibleChunkCount; i++) {
+            this.visibleChunks[i].render();
         }
 
+        // Reset client states and buffer binding
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        glDisableClientState(GL_VERTEX_ARRAY);
+        glDisableClientState(GL_TEXTURE_COORD_ARRAY);
+        glDisableClientState(GL_COLOR_ARRAY);
+
         glDisable(GL_TEXTURE_2D);
     }
 
     /**
-     * Rebuild all dirty chunks in a sorted order
+     * Collect the chunks to render in this frame.
+     * A breadth-first search starts at the camera chunk and only walks through chunk sides that can see each other,
+     * so chunks enclosed by solid tiles are never reached. Only reached chunks are tested against the frustum.
      *
-     * @param player The player for the sort priority. Chunks closer to the player will get a higher priority.
+     * @param x       Interpolated camera position x
+     * @param y       Interpolated camera position y
+     * @param z       Interpolated camera position z
+     * @param frustum Frustum of the camera
      */
-    public void updateDirtyChunks(Player player) {
-        // Get all dirty chunks
-        List<Chunk> dirty = getAllDirtyChunks();
-        if (!dirty.isEmpty()) {
-
-            // Sort the dirty chunk list
-            dirty.sort(new DirtyChunkSorter(player, Frustum.getFrustum()));
+    public void updateVisibleChunks(double x, double y, double z, Frustum frustum) {
+        this.visibleChunkCount = 0;
+        this.searchFrame++;
+
+        int cameraX = (int) Math.floor(x / CHUNK_SIZE);
+        int cameraY = (int) Math.floor(y / CHUNK_SIZE);
+        int cameraZ = (int) Math.floor(z / CHUNK_SIZE);
+
+        // Camera is outside of the level on the X or Z axis, render all chunks in the frustum
+        if (cameraX < 0 || cameraZ < 0 || cameraX >= this.chunkAmountX || cameraZ >= this.chunkAmountZ || cameraY < 0) {
+            for (Chunk chunk : this.chunks) {
+                if (frustum.isVisible(chunk.boundingBox)) {
+                    this.visibleChunks[this.visibleChunkCount++] = chunk;
+                }
+            }
+            return;
+        }
 
-            // Rebuild max 8 chunks per frame
-            for (int i = 0; i < 8 && i < dirty.size(); i++) {
-                dirty.get(i).rebuild();
+        int head = 0;
+        int tail = 0;
+
+        if (cameraY < this.chunkAmountY) {
+            // Start search at the camera chunk, it can see through all of its sides
+            int index = getChunkIndex(cameraX, cameraY, cameraZ);
+            this.searchVisitedFrame[index] = this.searchFrame;
+            this.searchQueue[tail] = index;
+            this.searchEnteredFace[tail] = -1;
+            this.searchDirections[tail] = 0;
+            tail++;
+        } else {
+            // Camera is above the level, enter the top chunks from above
+            for (int chunkX = 0; chunkX < this.chunkAmountX; chunkX++) {
+                for (int chunkZ = 0; chunkZ < this.chunkAmountZ; chunkZ++) {
+                    int index = getChunkIndex(chunkX, this.chunkAmountY - 1, chunkZ);
+                    if (frustum.isVisible(this.chunks[index].boundingBox)) {
+                        this.searchVisitedFrame[index] = this.searchFrame;
+                        this.searchQueue[tail] = index;
+                        this.searchEnteredFace[tail] = 1;
+                        this.searchDirections[tail] = 1;
+                        tail++;
+                    }
+                }
             }
         }
-    }
 
-    /**
-     * Mark all chunks inside of the given area as dirty.
-     *
-     * @param minX Minimum on X axis
-     * @param minY Minimum on Y axis
-     * @param minZ Minimum on Z axis
-     * @param maxX Maximum on X axis
-     * @param maxY Maximum on Y axis
-     * @param maxZ Maximum on Z axis
-     */
-    public void setDirty(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
-        // To chunk coordinates
-        minX /= CHUNK_SIZE;
-        minY /= CHUNK_SIZE;
-        minZ /= CHUNK_SIZE;
-        maxX /= CHUNK_SIZE;
-        maxY /= CHUNK_SIZE;
-        maxZ /= CHUNK_SIZE;
-
-        // Minimum limit
-        minX = Math.max(minX, 0);
-        minY = Math.max(minY, 0);
-        minZ = Math.max(minZ, 0);
-
-        // Maximum limit
-        maxX = Math.min(maxX, this.chunkAmountX - 1);
-        maxY = Math.min(maxY, this.chunkAmountY - 1);
-        maxZ = Math.min(maxZ, this.chunkAmountZ - 1);
-
-        // Mark all chunks as dirty
-        for (int x = minX; x <= maxX; x++) {
-            for (int y = minY; y <= maxY; y++) {
-                for (int z = minZ; z <= maxZ; z++) {
-                    // Get chunk at this position
-                    Chunk chunk = this.chunks[(x + y * this.chunkAmountX) * this.chunkAmountZ + z];
-
-                    // Set dirty
-                    chunk.setDirty();
+        while (head < tail) {
+            int index = this.searchQueue[head];
+            int enteredFace = this.searchEnteredFace[head];
+            int directions = this.searchDirections[head];
+            head++;
+
+            Chunk chunk = this.chunks[index];
+
+            // Only reached chunks are tested against the frustum
+            if (!frustum.isVisible(chunk.boundingBox)) {
+                continue;
+            }
+            this.visibleChunks[this.visibleChunkCount++] = chunk;
+
+            int chunkZ = index % this.chunkAmountZ;
+            int chunkX = index / this.chunkAmountZ % this.chunkAmountX;
+            int chunkY = index / this.chunkAmountZ / this.chunkAmountX;
+            long visibility = chunk.getVisibility();
+
+            for (int face = 0; face < 6; face++) {
+                // Never walk back towards the camera
+                if ((directions >> ChunkVisibility.getOpposite(face) & 1) != 0) {
+                    continue;
+                }
+
+                // The side we came from has to see the side we leave through
+                if (enteredFace != -1 && !ChunkVisibility.isConnected(visibility, enteredFace, face)) {
+                    continue;
                 }
+
+                // Get neighbour chunk
+                int neighbourX = chunkX + (face == 4 ? -1 : face == 5 ? 1 : 0);
+                int neighbourY = chunkY + (face == 0 ? -1 : face == 1 ? 1 : 0);
+                int neighbourZ = chunkZ + (face == 2 ? -1 : face == 3 ? 1 : 0);
+                if (neighbourX < 0 || neighbourY < 0 || neighbourZ < 0
+                        || neighbourX >= this.chunkAmountX || neighbourY >= this.chunkAmountY || neighbourZ >= this.chunkAmountZ) {
+                    continue;
+                }
+
+                int neighbourIndex = getChunkIndex(neighbourX, neighbourY, neighbourZ);
+                if (this.searchVisitedFrame[neighbourIndex] == this.searchFrame) {
+                    continue;
+                }
+
+                // Enter neighbour through the opposite side
+                this.searchVisitedFrame[neighbourIndex] = this.searchFrame;
+                this.searchQueue[tail] = neighbourIndex;
+                this.searchEnteredFace[tail] = ChunkVisibility.getOpposite(face);
+                this.searchDirections[tail] = directions | 1 << face;
+                tail++;
             }
         }
     }
 
     /**
-     * Render pick selection face on tile
+     * Amount of chunks rendered in this frame
      *
-     * @param player The player
+     * @return Visible chunk count
      */
-    public void pick(Player player, Frustum frustum) {
-        float radius = 3.0F;
-        AABB boundingBox = player.boundingBox.grow(radius, radius, radius);
+    public int getVisibleChunkCount() {
+        return this.visibleChunkCount;
+    }
 
-        int minX = (int) boundingBox.minX;
-        int maxX = (int) (boundingBox.maxX + 1.0F);
-        int minY = (int) boundingBox.minY;
-        int maxY = (int) (boundingBox.maxY + 1.0F);
-        int minZ = (int) boundingBox.minZ;
-        int maxZ = (int) (boundingBox.maxZ + 1.0F);
+    private int getChunkIndex(int x, int y, int z) {
+        return (x + y * this.chunkAmountX) * this.chunkAmountZ + z;
+    }
 
-        glInitNames();
+    /**
+     * Upload finished chunk meshes and submit dirty chunks to the chunk builder in the order of the dirty chunk queue.
+     * The amount of work per frame follows the time budget of the chunk update scheduler.
+     *
+     * @param player  The player holding the camera rotation
+     * @param x       Interpolated camera position x. Chunks closer to the camera will get a higher priority.
+     * @param y       Interpolated camera position y
+     * @param z       Interpolated camera position z
+     * @param frustum Frustum of the camera. Visible chunks will get a higher priority.
+     */
+    public void updateDirtyChunks(Player player, double x, double y, double z, Frustum frustum) {
+        // Adapt the budget to the duration of the last frame
+        this.chunkUpdateScheduler.beginFrame();
 
-        // Define type
-        glPushName(0); // Type 0
+        // Take over the changes of the finished ticks
+        markPendingChunks();
 
-        // Define name value x
-        glPushName(0);
+        // Upload meshes of the worker threads
+        this.chunkBuilder.uploadFinished(this.chunkUpdateScheduler.getUploadBudget());
 
-        for (int x = minX; x < maxX; x++) {
-            // Set last pushed value to x
-            glLoadName(x);
+        // Update queue priorities if the camera moved to another chunk or turned around
+        this.dirtyChunkQueue.updateCamera(player, x, y, z, frustum);
 
-            // Define name value y
-            glPushName(0);
+        // Build as many chunks as fit into the budget
+        int rebuildLimit = this.chunkUpdateScheduler.getRebuildLimit(this.chunkBuilder.getThreads());
+        for (int i = 0; i < rebuildLimit && this.chunkBuilder.hasCapacity(rebuildLimit) && !this.dirtyChunkQueue.isEmpty(); i++) {
+            this.chunkBuilder.submit(this.dirtyChunkQueue.poll());
+        }
+    }
 
-            for (int y = minY; y < maxY; y++) {
-                // Set last pushed value to y
-                glLoadName(y);
+    /**
+     * Current time budget of the chunk updates
+     *
+     * @return Budget per frame in milliseconds
+     */
+    public float getChunkUpdateBudget() {
+        return this.chunkUpdateScheduler.getBudgetMillis();
+    }
 
-                // Define name value z
-                glPushName(0);
+    /**
+     * Amount of chunks waiting for a rebuild
+     *
+     * @return Dirty chunk count
+     */
+    public int getDirtyChunkCount() {
+        return this.dirtyChunkQueue.size();
+    }
 
-                for (int z = minZ; z < maxZ; z++) {
-                    // Check for solid tile
-                    Tile tile = Tile.tiles[this.level.getTile(x, y, z)];
-                    if (tile != null && frustum.isVisible(tile.getTileAABB(x, y, z))) {
+    /**
+     * Toggle greedy meshing of solid tiles and rebuild all chunks
+     */
+    public void toggleGreedyMeshing() {
+        this.chunkBuilder.setGreedyMeshing(!this.chunkBuilder.isGreedyMeshing());
+        allChanged();
+    }
 
-                        // Set last pushed value to x
-                        glLoadName(z);
+    /**
+     * GPU memory used by all chunk vertex buffers
+     *
+     * @return Size in bytes
+     */
+    public long getChunkMemoryUsage() {
+        long size = 0;
+        for (Chunk chunk : this.chunks) {
+            size += chunk.getMemoryUsage();
+        }
+        return size;
+    }
 
-                        // Define name value face id
-                        glPushName(0);
+    /**
+     * Stop the chunk builder threads and delete all chunk vertex buffers
+     */
+    public void destroy() {
+        this.chunkBuilder.shutdown();
 
-                        // Render all faces
-                        for (int face = 0; face < 6; face++) {
+        for (Chunk chunk : this.chunks) {
+            chunk.destroy();
+        }
+    }
 
-                            // Set last pushed value to face id
-                            glLoadName(face);
+    /**
+     * Mark all chunks inside of the given area as dirty in the next frame. Can be called from any thread
+     *
+     * @param minX Minimum on X axis
+     * @param minY Minimum on Y axis
+     * @param minZ Minimum on Z axis
+     * @param maxX Maximum on X axis
+     * @param maxY Maximum on Y axis
+     * @param maxZ Maximum on Z axis
+     */
+    public void setDirty(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        synchronized (this.pendingRegion) {
+            this.pendingRegion.add(minX, minY, minZ, maxX, maxY, maxZ);
+        }
+    }
 
-                            // Render selection face
-                            this.tessellator.init();
-                            tile.renderFaceNoTexture(this.tessellator, x, y, z, face);
-                            this.tessellator.flush();
-                        }
+    private void markPendingChunks() {
+        synchronized (this.pendingRegion) {
+            for (int index = this.pendingRegion.nextChunk(0); index >= 0; index = this.pendingRegion.nextChunk(index + 1)) {
+                int x = this.pendingRegion.getChunkX(index);
+                int y = this.pendingRegion.getChunkY(index);
+                int z = this.pendingRegion.getChunkZ(index);
 
-                        // Pop face id
-                        glPopName();
-                    }
+                // Partial chunks at the border of the level have no renderer chunk
+                if (x < this.chunkAmountX && y < this.chunkAmountY && z < this.chunkAmountZ) {
+                    this.chunks[getChunkIndex(x, y, z)].setDirty();
                 }
-
-                // Pop z
-                glPopName();
             }
-
-            // Pop y
-            glPopName();
+            this.pendingRegion.clear();
         }
-
-        // Pop x
-        glPopName();
-
-        // Pop type
-        glPopName();
     }
 
     /**
@@ -279,11 +392,33 @@ public class LevelRenderer implements LevelListener {
         setDirty(x - 1, minY - 1, z - 1, x + 1, maxY + 1, z + 1);
     }
 
+    @Override
+    public void lightChanged(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        setDirty(minX - 1, minY - 1, minZ - 1, maxX + 1, maxY + 1, maxZ + 1);
+    }
+
     @Override
     public void tileChanged(int x, int y, int z) {
         setDirty(x - 1, y - 1, z - 1, x + 1, y + 1, z + 1);
     }
 
+    @Override
+    public void tilesChanged(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        setDirty(minX - 1, minY - 1, minZ - 1, maxX + 1, maxY + 1, maxZ + 1);
+    }
+
+    @Override
+    public boolean isBatched() {
+        return true;
+    }
+
+    @Override
+    public void regionChanged(DirtyRegion region) {
+        synchronized (this.pendingRegion) {
+            this.pendingRegion.add(region);
+        }
+    }
+
     @Override
     public void allChanged() {
         setDirty(0, 0, 0, this.level.width, this.level.depth, this.level.height);
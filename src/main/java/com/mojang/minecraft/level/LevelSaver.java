@@ -0,0 +1,206 @@
+package com.mojang.minecraft.level;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class LevelSaver {
+
+    private final Path path;
+    private final Path tempPath;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Level saver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The save in flight or null
+     */
+    private Future<?> pendingSave;
+
+    /**
+     * Changed sections of failed saves, they are merged into the next snapshot
+     */
+    private final BitSet failedSections = new BitSet();
+
+    /**
+     * Writes snapshots of a level into a region file.
+     * A save writes a complete new file next to the current one and moves it over the current file in one step,
+     * so a crash during the save leaves the previous file intact.
+     * Sections that didn't change since the last save are copied from the current file without recompression.
+     *
+     * @param path Path of the region file
+     */
+    public LevelSaver(Path path) {
+        this.path = path;
+        this.tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+    }
+
+    /**
+     * Check if a save is still running
+     *
+     * @return A save is in flight
+     */
+    public boolean isSaving() {
+        return this.pendingSave != null && !this.pendingSave.isDone();
+    }
+
+    /**
+     * Write the snapshot on the background thread. Only one save can be in flight
+     *
+     * @param snapshot Snapshot of the level
+     * @return The save was started, false if another save is still running
+     */
+    public boolean saveAsync(Snapshot snapshot) {
+        if (isSaving()) {
+            return false;
+        }
+
+        this.pendingSave = this.executor.submit(() -> {
+            try {
+                write(snapshot);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Wait for the save in flight and write the snapshot on the calling thread
+     *
+     * @param snapshot Snapshot of the level
+     * @throws IOException If the file can't be written
+     */
+    public void save(Snapshot snapshot) throws IOException {
+        awaitPendingSave();
+        write(snapshot);
+    }
+
+    /**
+     * Wait until the save in flight is finished
+     */
+    public void awaitPendingSave() {
+        if (this.pendingSave == null) {
+            return;
+        }
+
+        try {
+            this.pendingSave.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+        this.pendingSave = null;
+    }
+
+    /**
+     * Take the changed sections of all failed saves
+     *
+     * @return Sections that have to be written again
+     */
+    public BitSet takeFailedSections() {
+        synchronized (this.failedSections) {
+            BitSet sections = (BitSet) this.failedSections.clone();
+            this.failedSections.clear();
+            return sections;
+        }
+    }
+
+    private void write(Snapshot snapshot) throws IOException {
+        try {
+            Files.deleteIfExists(this.tempPath);
+
+            try (RegionFile target = new RegionFile(this.tempPath, snapshot.width, snapshot.height, snapshot.depth);
+                 RegionFile source = openSource(snapshot)) {
+
+                for (int index = 0; index < snapshot.sections.length; index++) {
+                    // Unchanged sections are copied as they are stored
+                    if (source != null && !snapshot.changedSections.get(index) && target.copySection(source, index)) {
+                        continue;
+                    }
+                    target.writeSection(index, snapshot.sections[index]);
+                }
+
+                target.setSeed(snapshot.seed);
+                target.flush();
+            }
+
+            // Replace the previous file in one step
+            Files.move(this.tempPath, this.path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            if (snapshot.onSaved != null) {
+                snapshot.onSaved.run();
+            }
+        } catch (IOException | RuntimeException e) {
+            // The changes of this snapshot are not saved
+            synchronized (this.failedSections) {
+                this.failedSections.or(snapshot.changedSections);
+            }
+            throw e;
+        }
+    }
+
+    private RegionFile openSource(Snapshot snapshot) {
+        if (!Files.exists(this.path)) {
+            return null;
+        }
+
+        try {
+            return new RegionFile(this.path, snapshot.width, snapshot.height, snapshot.depth, true);
+        } catch (IOException e) {
+            // Unreadable file, write all sections from the snapshot
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Shut down the background thread after the save in flight
+     */
+    public void shutdown() {
+        awaitPendingSave();
+        this.executor.shutdown();
+    }
+
+    /**
+     * Tiles of a level at a tick boundary
+     */
+    public static class Snapshot {
+        private final int width;
+        private final int height;
+        private final int depth;
+        private final long seed;
+        private final LevelSection[] sections;
+        private final BitSet changedSections;
+        private final Runnable onSaved;
+
+        /**
+         * @param width           Level width
+         * @param height          Level height
+         * @param depth           Level depth
+         * @param seed            Seed of the level generator
+         * @param sections        Read-only snapshots of all sections
+         * @param changedSections Sections that changed since the last save
+         * @param onSaved         Called on the saving thread after the file was replaced, can be null
+         */
+        public Snapshot(int width, int height, int depth, long seed, LevelSection[] sections, BitSet changedSections, Runnable onSaved) {
+            this.width = width;
+            this.height = height;
+            this.depth = depth;
+            this.seed = seed;
+            this.sections = sections;
+            this.changedSections = changedSections;
+            this.onSaved = onSaved;
+        }
+    }
+}
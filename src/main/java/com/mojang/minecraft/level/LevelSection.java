@@ -0,0 +1,364 @@
+package com.mojang.minecraft.level;
+
+import java.util.Arrays;
+
+public class LevelSection {
+
+    public static final int SIZE_BITS = 4;
+    public static final int SIZE = 1 << SIZE_BITS;
+    public static final int VOLUME = SIZE * SIZE * SIZE;
+
+    /**
+     * Palette of tile ids used in this section
+     */
+    private int[] palette;
+    private int[] paletteCounts;
+    private int paletteSize;
+
+    /**
+     * Bit-packed palette indices. Null if the entire section is filled with palette[0]
+     */
+    private volatile long[] data;
+
+    /**
+     * The palette and the data are shared with a snapshot and have to be copied before the next write
+     */
+    private boolean shared;
+
+    /**
+     * Light level (0 - 15) of each tile as nibbles. Null if the entire section has the uniform light level
+     */
+    private volatile byte[] light;
+    private volatile int uniformLight;
+
+    /**
+     * 16x16x16 block storage. A uniform section (For example all air or all rock) is stored as a single value,
+     * all other sections store a palette and a bit-packed index per tile.
+     * <p>
+     * Reads are safe from chunk builder threads, a racing read returns either the previous or the new tile id.
+     *
+     * @param tileId The tile id that fills the entire section
+     */
+    public LevelSection(int tileId) {
+        this.palette = new int[]{tileId};
+        this.paletteCounts = new int[]{VOLUME};
+        this.paletteSize = 1;
+    }
+
+    private LevelSection() {
+    }
+
+    /**
+     * Calculate the index of a tile inside of the section
+     *
+     * @param x Local tile position x (0 - 15)
+     * @param y Local tile position y (0 - 15)
+     * @param z Local tile position z (0 - 15)
+     * @return Local tile index
+     */
+    public static int getIndex(int x, int y, int z) {
+        return (y << SIZE_BITS | z) << SIZE_BITS | x;
+    }
+
+    /**
+     * Get the tile id at the given local index
+     *
+     * @param index Local tile index
+     * @return Tile id at this index
+     */
+    public int getTile(int index) {
+        long[] data = this.data;
+
+        // Uniform section
+        if (data == null) {
+            return this.palette[0];
+        }
+
+        // Bits per index are derived from the data length to stay consistent with concurrent writes
+        int bits = data.length >> 6;
+        int bitIndex = index * bits;
+        int paletteIndex = (int) (data[bitIndex >> 6] >>> (bitIndex & 63)) & ((1 << bits) - 1);
+
+        return this.palette[paletteIndex];
+    }
+
+    /**
+     * Set the tile id at the given local index
+     *
+     * @param index  Local tile index
+     * @param tileId New tile id
+     * @return The previous tile id at this index
+     */
+    public int setTile(int index, int tileId) {
+        int previousPaletteIndex = getPaletteIndex(index);
+        int previousTileId = this.palette[previousPaletteIndex];
+
+        // Check if type changed
+        if (previousTileId == tileId) {
+            return previousTileId;
+        }
+
+        // Don't modify the arrays of a snapshot
+        if (this.shared) {
+            unshare();
+        }
+
+        // Remove previous tile from the palette
+        this.paletteCounts[previousPaletteIndex]--;
+
+        // Add new tile to the palette
+        int paletteIndex = getOrCreatePaletteIndex(tileId);
+        this.paletteCounts[paletteIndex]++;
+
+        // Collapse to a single value if the section only contains one tile type
+        if (this.paletteCounts[paletteIndex] == VOLUME) {
+            fill(tileId);
+            return previousTileId;
+        }
+
+        // Write palette index
+        setPaletteIndex(index, paletteIndex);
+
+        return previousTileId;
+    }
+
+    /**
+     * Fill the entire section with a single tile id
+     *
+     * @param tileId The tile id
+     */
+    public void fill(int tileId) {
+        // Keep the palette length, so racing reads of the old data stay in bounds
+        int[] palette = new int[this.palette.length];
+        Arrays.fill(palette, tileId);
+        this.palette = palette;
+        this.data = null;
+
+        // Reset palette counts
+        this.paletteCounts = new int[palette.length];
+        this.paletteCounts[0] = VOLUME;
+        this.paletteSize = 1;
+        this.shared = false;
+    }
+
+    /**
+     * Create a read-only copy of the tiles of this section in O(1).
+     * The arrays are shared until the next write to this section, which copies them (Copy-on-write).
+     * The snapshot can be read from any thread while this section is modified
+     *
+     * @return Snapshot of the tile ids, the light levels are not included
+     */
+    public LevelSection snapshot() {
+        LevelSection snapshot = new LevelSection();
+        snapshot.palette = this.palette;
+        snapshot.paletteCounts = this.paletteCounts;
+        snapshot.paletteSize = this.paletteSize;
+        snapshot.data = this.data;
+        snapshot.shared = true;
+
+        this.shared = true;
+        return snapshot;
+    }
+
+    private void unshare() {
+        long[] data = this.data;
+        this.palette = this.palette.clone();
+        this.paletteCounts = this.paletteCounts.clone();
+        this.data = data == null ? null : data.clone();
+        this.shared = false;
+    }
+
+    /**
+     * Check if the section is filled with a single tile id
+     *
+     * @return Section contains only one tile type
+     */
+    public boolean isUniform() {
+        return this.data == null;
+    }
+
+    /**
+     * Get the tile id of a uniform section
+     *
+     * @return The tile id that fills the section or -1 if the section is not uniform
+     */
+    public int getUniformTile() {
+        return this.data == null ? this.palette[0] : -1;
+    }
+
+    /**
+     * Amount of tiles with the given id in this section
+     *
+     * @param tileId The tile id
+     * @return Amount of tiles
+     */
+    public int countTiles(int tileId) {
+        for (int i = 0; i < this.paletteSize; i++) {
+            if (this.palette[i] == tileId && this.paletteCounts[i] > 0) {
+                return this.paletteCounts[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Amount of tiles in this section whose id is marked in the filter
+     *
+     * @param filter Marked state of each tile id
+     * @return Amount of tiles
+     */
+    public int countTiles(boolean[] filter) {
+        int count = 0;
+        for (int i = 0; i < this.paletteSize; i++) {
+            if (filter[this.palette[i]]) {
+                count += this.paletteCounts[i];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the light level at the given local index
+     *
+     * @param index Local tile index
+     * @return Light level (0 - 15)
+     */
+    public int getLight(int index) {
+        byte[] light = this.light;
+
+        // Uniform light level
+        if (light == null) {
+            return this.uniformLight;
+        }
+
+        return light[index >> 1] >> ((index & 1) << 2) & 15;
+    }
+
+    /**
+     * Set the light level at the given local index
+     *
+     * @param index Local tile index
+     * @param level Light level (0 - 15)
+     */
+    public void setLight(int index, int level) {
+        byte[] light = this.light;
+
+        if (light == null) {
+            // Nothing changes in a uniform section
+            if (level == this.uniformLight) {
+                return;
+            }
+
+            // Expand to a nibble array filled with the uniform light level
+            light = new byte[VOLUME / 2];
+            Arrays.fill(light, (byte) (this.uniformLight | this.uniformLight << 4));
+        }
+
+        int shift = (index & 1) << 2;
+        light[index >> 1] = (byte) (light[index >> 1] & ~(15 << shift) | level << shift);
+
+        // Publish expanded array after it's filled
+        this.light = light;
+    }
+
+    /**
+     * Fill the entire section with a single light level
+     *
+     * @param level Light level (0 - 15)
+     */
+    public void fillLight(int level) {
+        this.uniformLight = level;
+        this.light = null;
+    }
+
+    /**
+     * Check if the section has a single light level
+     *
+     * @return The light level of all tiles or -1 if the light levels differ
+     */
+    public int getUniformLight() {
+        return this.light == null ? this.uniformLight : -1;
+    }
+
+    /**
+     * Approximate heap usage of this section
+     *
+     * @return Size in bytes
+     */
+    public int getMemoryUsage() {
+        long[] data = this.data;
+        byte[] light = this.light;
+        return this.palette.length * 8 + (data == null ? 0 : data.length * 8) + (light == null ? 0 : light.length);
+    }
+
+    private int getPaletteIndex(int index) {
+        long[] data = this.data;
+        if (data == null) {
+            return 0;
+        }
+
+        int bits = data.length >> 6;
+        int bitIndex = index * bits;
+        return (int) (data[bitIndex >> 6] >>> (bitIndex & 63)) & ((1 << bits) - 1);
+    }
+
+    private void setPaletteIndex(int index, int paletteIndex) {
+        long[] data = this.data;
+        int bits = data.length >> 6;
+        int bitIndex = index * bits;
+        long mask = ((1L << bits) - 1) << (bitIndex & 63);
+
+        data[bitIndex >> 6] = data[bitIndex >> 6] & ~mask | ((long) paletteIndex << (bitIndex & 63));
+    }
+
+    private int getOrCreatePaletteIndex(int tileId) {
+        // Find existing palette entry, unused entries keep their tile id.
+        // A slot is never reassigned to another tile, a racing read of old data would return an unrelated id
+        for (int i = 0; i < this.paletteSize; i++) {
+            if (this.palette[i] == tileId) {
+                return i;
+            }
+        }
+
+        // Grow the bit-packed data and the palette if the indices are full
+        long[] data = this.data;
+        if (data == null || this.paletteSize == 1 << (data.length >> 6)) {
+            resize(this.paletteSize + 1);
+        }
+
+        int paletteIndex = this.paletteSize++;
+        this.palette[paletteIndex] = tileId;
+        return paletteIndex;
+    }
+
+    private void resize(int minPaletteSize) {
+        // Bits per index are always a power of two, so an index never crosses a long
+        int bits = 1;
+        while (1 << bits < minPaletteSize) {
+            bits <<= 1;
+        }
+
+        long[] previousData = this.data;
+        long[] data = new long[bits << 6];
+
+        // Copy indices into the new data array
+        if (previousData != null) {
+            int previousBits = previousData.length >> 6;
+            for (int index = 0; index < VOLUME; index++) {
+                int bitIndex = index * previousBits;
+                long paletteIndex = previousData[bitIndex >> 6] >>> (bitIndex & 63) & ((1L << previousBits) - 1);
+
+                int newBitIndex = index * bits;
+                data[newBitIndex >> 6] |= paletteIndex << (newBitIndex & 63);
+            }
+        }
+
+        // Grow palette arrays, never shrink them below a length that racing reads of old data may index
+        int capacity = Math.max(1 << bits, this.palette.length);
+        this.palette = Arrays.copyOf(this.palette, capacity);
+        this.paletteCounts = Arrays.copyOf(this.paletteCounts, capacity);
+
+        // Publish data after the palette so concurrent reads never exceed the palette
+        this.data = data;
+    }
+}
@@ -0,0 +1,422 @@
+package com.mojang.minecraft.level;
+
+import java.util.Arrays;
+
+public class LightEngine {
+
+    public static final int MAX_LIGHT = 15;
+
+    private final Level level;
+    private final int width;
+    private final int height;
+    private final int depth;
+
+    /**
+     * Positions that changed since the last update
+     */
+    private final IntQueue pending = new IntQueue();
+
+    /**
+     * Breadth-first search queues, the remove queue stores the position and the previous light level
+     */
+    private final IntQueue removeQueue = new IntQueue();
+    private final IntQueue addQueue = new IntQueue();
+
+    /**
+     * Sections with changed light levels since the last notification
+     */
+    private final boolean[] changedSections;
+    private final IntQueue changedSectionQueue = new IntQueue();
+
+    /**
+     * Light propagation of a level. Tiles in the sun (Above the light depth of the column) have the maximal light level,
+     * light spreads through all tiles that don't block light and loses one level per step.
+     * <p>
+     * Tile changes are only queued. All changes of a tick are processed in a single update
+     * with a remove and an add flood fill, the listeners are notified once per changed section.
+     *
+     * @param level The level
+     * @param sectionCount Amount of sections in the level
+     */
+    public LightEngine(Level level, int sectionCount) {
+        this.level = level;
+        this.width = level.width;
+        this.height = level.height;
+        this.depth = level.depth;
+        this.changedSections = new boolean[sectionCount];
+    }
+
+    /**
+     * Calculate the light levels of the entire level. Drops all queued changes
+     */
+    public void initialize() {
+        this.pending.clear();
+
+        // Fill sections above the terrain with sunlight and all other sections with darkness
+        for (int sectionY = 0; sectionY < this.depth; sectionY += LevelSection.SIZE) {
+            for (int sectionZ = 0; sectionZ < this.height; sectionZ += LevelSection.SIZE) {
+                for (int sectionX = 0; sectionX < this.width; sectionX += LevelSection.SIZE) {
+                    initializeSection(sectionX, sectionY, sectionZ);
+                }
+            }
+        }
+
+        // Spread sunlight into the shadows, only sunlit tiles next to a shadowed tile have to be processed
+        for (int z = 0; z < this.height; z++) {
+            for (int x = 0; x < this.width; x++) {
+                int lightDepth = this.level.getLightDepth(x, z);
+
+                // Sunlit tiles above the neighbour columns are surrounded by sunlight
+                int maxY = lightDepth;
+                maxY = Math.max(maxY, x > 0 ? this.level.getLightDepth(x - 1, z) : 0);
+                maxY = Math.max(maxY, x < this.width - 1 ? this.level.getLightDepth(x + 1, z) : 0);
+                maxY = Math.max(maxY, z > 0 ? this.level.getLightDepth(x, z - 1) : 0);
+                maxY = Math.max(maxY, z < this.height - 1 ? this.level.getLightDepth(x, z + 1) : 0);
+
+                for (int y = lightDepth; y <= maxY && y < this.depth; y++) {
+                    if (isSource(x, y, z) && hasShadowedNeighbour(x, y, z)) {
+                        this.addQueue.push(getPosition(x, y, z));
+                    }
+                }
+            }
+        }
+
+        propagate();
+
+        // The caller notifies about the entire level
+        drainChangedSections(false);
+    }
+
+    /**
+     * Queue a tile for a light update
+     *
+     * @param x Tile position x
+     * @param y Tile position y
+     * @param z Tile position z
+     */
+    public void queueTile(int x, int y, int z) {
+        this.pending.push(getPosition(x, y, z));
+    }
+
+    /**
+     * Queue a part of a column for a light update after the light depth changed
+     *
+     * @param x    Tile position x
+     * @param z    Tile position z
+     * @param minY Minimum tile position Y
+     * @param maxY Maximum tile position Y
+     */
+    public void queueColumn(int x, int z, int minY, int maxY) {
+        for (int y = Math.max(0, minY); y <= maxY && y < this.depth; y++) {
+            this.pending.push(getPosition(x, y, z));
+        }
+    }
+
+    /**
+     * Queue all tiles of an area for a light update
+     *
+     * @param minX Minimum tile position X
+     * @param minY Minimum tile position Y
+     * @param minZ Minimum tile position Z
+     * @param maxX Maximum tile position X
+     * @param maxY Maximum tile position Y
+     * @param maxZ Maximum tile position Z
+     */
+    public void queueArea(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        for (int y = minY; y <= maxY; y++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int x = minX; x <= maxX; x++) {
+                    this.pending.push(getPosition(x, y, z));
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if there are queued changes
+     *
+     * @return Changes are waiting for the next update
+     */
+    public boolean hasUpdates() {
+        return !this.pending.isEmpty();
+    }
+
+    /**
+     * Process all queued changes in one pass and notify the listeners about the changed sections
+     */
+    public void update() {
+        if (this.pending.isEmpty()) {
+            return;
+        }
+
+        // Remove the light of all changed tiles
+        for (int i = 0; i < this.pending.size(); i++) {
+            int position = this.pending.get(i);
+            int light = getLight(position);
+            if (light != 0) {
+                setLight(position, 0);
+            }
+            this.removeQueue.push(position);
+            this.removeQueue.push(light);
+        }
+
+        // Remove all light that came from the changed tiles, brighter neighbours spread their light again
+        while (!this.removeQueue.isEmpty()) {
+            int position = this.removeQueue.pop();
+            int light = this.removeQueue.pop();
+
+            int x = position % this.width;
+            int z = position / this.width % this.height;
+            int y = position / this.width / this.height;
+
+            for (int face = 0; face < 6; face++) {
+                int neighbourX = x + getOffsetX(face);
+                int neighbourY = y + getOffsetY(face);
+                int neighbourZ = z + getOffsetZ(face);
+                if (!isInLevel(neighbourX, neighbourY, neighbourZ)) {
+                    continue;
+                }
+
+                int neighbour = getPosition(neighbourX, neighbourY, neighbourZ);
+                int neighbourLight = getLight(neighbour);
+                if (neighbourLight == 0) {
+                    continue;
+                }
+
+                if (neighbourLight < light) {
+                    // Light came from the removed tile
+                    setLight(neighbour, 0);
+                    this.removeQueue.push(neighbour);
+                    this.removeQueue.push(neighbourLight);
+                } else {
+                    // Independent light source, spread it into the removed area
+                    this.addQueue.push(neighbour);
+                }
+            }
+        }
+
+        // Changed tiles in the sun are light sources
+        for (int i = 0; i < this.pending.size(); i++) {
+            int position = this.pending.get(i);
+            int x = position % this.width;
+            int z = position / this.width % this.height;
+            int y = position / this.width / this.height;
+
+            if (isSource(x, y, z)) {
+                setLight(position, MAX_LIGHT);
+                this.addQueue.push(position);
+            }
+        }
+        this.pending.clear();
+
+        propagate();
+        drainChangedSections(true);
+    }
+
+    /**
+     * Get the light level at the given position
+     *
+     * @param x Tile position x
+     * @param y Tile position y
+     * @param z Tile position z
+     * @return Light level, tiles outside of the level are in the sun
+     */
+    public int getLight(int x, int y, int z) {
+        if (!isInLevel(x, y, z)) {
+            return MAX_LIGHT;
+        }
+        return this.level.getSection(x, y, z).getLight(Level.getSectionIndex(x, y, z));
+    }
+
+    /**
+     * Spread the light of all tiles in the add queue
+     */
+    private void propagate() {
+        while (!this.addQueue.isEmpty()) {
+            int position = this.addQueue.pop();
+            int light = getLight(position);
+            if (light <= 1) {
+                continue;
+            }
+
+            int x = position % this.width;
+            int z = position / this.width % this.height;
+            int y = position / this.width / this.height;
+
+            for (int face = 0; face < 6; face++) {
+                int neighbourX = x + getOffsetX(face);
+                int neighbourY = y + getOffsetY(face);
+                int neighbourZ = z + getOffsetZ(face);
+                if (!isInLevel(neighbourX, neighbourY, neighbourZ) || isBlocker(neighbourX, neighbourY, neighbourZ)) {
+                    continue;
+                }
+
+                int neighbour = getPosition(neighbourX, neighbourY, neighbourZ);
+                if (getLight(neighbour) < light - 1) {
+                    setLight(neighbour, light - 1);
+                    this.addQueue.push(neighbour);
+                }
+            }
+        }
+    }
+
+    private void initializeSection(int minX, int minY, int minZ) {
+        LevelSection section = this.level.getSection(minX, minY, minZ);
+        int maxX = Math.min(minX + LevelSection.SIZE, this.width);
+        int maxY = Math.min(minY + LevelSection.SIZE, this.depth);
+        int maxZ = Math.min(minZ + LevelSection.SIZE, this.height);
+
+        // Highest light depth of the columns in this section
+        int maxLightDepth = 0;
+        for (int z = minZ; z < maxZ; z++) {
+            for (int x = minX; x < maxX; x++) {
+                maxLightDepth = Math.max(maxLightDepth, this.level.getLightDepth(x, z));
+            }
+        }
+
+        // The entire section is in the sun
+        if (minY > maxLightDepth) {
+            section.fillLight(MAX_LIGHT);
+            return;
+        }
+
+        // Light up all tiles in the sun
+        section.fillLight(0);
+        for (int z = minZ; z < maxZ; z++) {
+            for (int x = minX; x < maxX; x++) {
+                for (int y = Math.max(minY, this.level.getLightDepth(x, z)); y < maxY; y++) {
+                    if (!isBlocker(x, y, z)) {
+                        section.setLight(Level.getSectionIndex(x, y, z), MAX_LIGHT);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean hasShadowedNeighbour(int x, int y, int z) {
+        for (int face = 2; face < 6; face++) {
+            int neighbourX = x + getOffsetX(face);
+            int neighbourZ = z + getOffsetZ(face);
+            if (isInLevel(neighbourX, y, neighbourZ)
+                    && !isBlocker(neighbourX, y, neighbourZ) && !isSource(neighbourX, y, neighbourZ)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Notify the listeners about all sections with changed light levels
+     *
+     * @param notify Call the listeners or only reset the changed state
+     */
+    private void drainChangedSections(boolean notify) {
+        while (!this.changedSectionQueue.isEmpty()) {
+            int sectionIndex = this.changedSectionQueue.pop();
+            this.changedSections[sectionIndex] = false;
+
+            if (notify) {
+                this.level.sectionLightChanged(sectionIndex);
+            }
+        }
+    }
+
+    private boolean isSource(int x, int y, int z) {
+        return y >= this.level.getLightDepth(x, z) && !isBlocker(x, y, z);
+    }
+
+    private boolean isBlocker(int x, int y, int z) {
+        return Level.LIGHT_BLOCKERS[this.level.getSection(x, y, z).getTile(Level.getSectionIndex(x, y, z))];
+    }
+
+    private boolean isInLevel(int x, int y, int z) {
+        return x >= 0 && y >= 0 && z >= 0 && x < this.width && y < this.depth && z < this.height;
+    }
+
+    private int getLight(int position) {
+        int x = position % this.width;
+        int z = position / this.width % this.height;
+        int y = position / this.width / this.height;
+        return this.level.getSection(x, y, z).getLight(Level.getSectionIndex(x, y, z));
+    }
+
+    private void setLight(int position, int light) {
+        int x = position % this.width;
+        int z = position / this.width % this.height;
+        int y = position / this.width / this.height;
+        this.level.getSection(x, y, z).setLight(Level.getSectionIndex(x, y, z), light);
+
+        // Remember changed section
+        int sectionIndex = this.level.getSectionArrayIndex(x, y, z);
+        if (!this.changedSections[sectionIndex]) {
+            this.changedSections[sectionIndex] = true;
+            this.changedSectionQueue.push(sectionIndex);
+        }
+    }
+
+    private int getPosition(int x, int y, int z) {
+        return (y * this.height + z) * this.width + x;
+    }
+
+    private static int getOffsetX(int face) {
+        return face == 4 ? -1 : face == 5 ? 1 : 0;
+    }
+
+    private static int getOffsetY(int face) {
+        return face == 0 ? -1 : face == 1 ? 1 : 0;
+    }
+
+    private static int getOffsetZ(int face) {
+        return face == 2 ? -1 : face == 3 ? 1 : 0;
+    }
+
+    /**
+     * Growable first-in-first-out queue of ints
+     */
+    private static class IntQueue {
+        private int[] values = new int[1024];
+        private int head;
+        private int tail;
+
+        void push(int value) {
+            if (this.tail == this.values.length) {
+                if (this.head > 0) {
+                    // Move remaining values to the start
+                    System.arraycopy(this.values, this.head, this.values, 0, this.tail - this.head);
+                    this.tail -= this.head;
+                    this.head = 0;
+                }
+                if (this.tail == this.values.length) {
+                    this.values = Arrays.copyOf(this.values, this.values.length * 2);
+                }
+            }
+            this.values[this.tail++] = value;
+        }
+
+        int pop() {
+            int value = this.values[this.head++];
+            if (this.head == this.tail) {
+                this.head = 0;
+                this.tail = 0;
+            }
+            return value;
+        }
+
+        int get(int index) {
+            return this.values[this.head + index];
+        }
+
+        int size() {
+            return this.tail - this.head;
+        }
+
+        boolean isEmpty() {
+            return this.head == this.tail;
+        }
+
+        void clear() {
+            this.head = 0;
+            this.tail = 0;
+        }
+    }
+}
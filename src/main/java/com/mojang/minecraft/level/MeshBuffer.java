@@ -0,0 +1,126 @@
+package com.mojang.minecraft.level;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+public class MeshBuffer implements VertexSink {
+
+    /**
+     * Interleaved vertices in the layout of the chunk mesh
+     */
+    private float[] data = new float[ChunkMesh.VERTEX_SIZE * 4096];
+    private int vertices;
+
+    // Texture
+    private float textureU;
+    private float textureV;
+
+    // Color
+    private float red;
+    private float green;
+    private float blue;
+
+    /**
+     * In-memory vertex sink without any OpenGL dependency.
+     * Collects the vertices of a chunk on a worker thread, in tests or in benchmarks.
+     */
+    public MeshBuffer() {
+        clear();
+    }
+
+    @Override
+    public void vertex(float x, float y, float z) {
+        int index = this.vertices * ChunkMesh.VERTEX_SIZE;
+
+        // Grow buffer
+        if (index + ChunkMesh.VERTEX_SIZE > this.data.length) {
+            this.data = Arrays.copyOf(this.data, this.data.length * 2);
+        }
+
+        // Position
+        this.data[index] = x;
+        this.data[index + 1] = y;
+        this.data[index + 2] = z;
+
+        // Texture
+        this.data[index + 3] = this.textureU;
+        this.data[index + 4] = this.textureV;
+
+        // Color
+        this.data[index + 5] = this.red;
+        this.data[index + 6] = this.green;
+        this.data[index + 7] = this.blue;
+
+        this.vertices++;
+    }
+
+    @Override
+    public void texture(float textureU, float textureV) {
+        this.textureU = textureU;
+        this.textureV = textureV;
+    }
+
+    @Override
+    public void color(float red, float green, float blue) {
+        this.red = red;
+        this.green = green;
+        this.blue = blue;
+    }
+
+    @Override
+    public int getVertices() {
+        return this.vertices;
+    }
+
+    /**
+     * Interleaved vertex data, only the first vertices are valid
+     *
+     * @return Position (3), texture UV (2) and color (3) of each vertex
+     */
+    public float[] getData() {
+        return this.data;
+    }
+
+    /**
+     * Copy the buffer into a chunk mesh and reset it
+     *
+     * @return Mesh of all vertices since the last reset
+     */
+    public ChunkMesh toMesh() {
+        return toMesh(new ChunkMesh(this.vertices));
+    }
+
+    /**
+     * Copy the buffer into a chunk mesh with texture batches and reset it
+     *
+     * @param batchTextures Texture of each batch
+     * @param batchOffsets  First vertex of each batch, followed by the end of the last batch
+     * @return Mesh of all vertices since the last reset
+     */
+    public ChunkMesh toMesh(int[] batchTextures, int[] batchOffsets) {
+        return toMesh(new ChunkMesh(this.vertices, batchTextures, batchOffsets));
+    }
+
+    private ChunkMesh toMesh(ChunkMesh mesh) {
+        FloatBuffer buffer = mesh.getBuffer();
+        buffer.put(this.data, 0, this.vertices * ChunkMesh.VERTEX_SIZE);
+        buffer.flip();
+
+        clear();
+        return mesh;
+    }
+
+    /**
+     * Reset the buffer, texture coordinates and color
+     */
+    public void clear() {
+        this.vertices = 0;
+
+        this.textureU = 0.0F;
+        this.textureV = 0.0F;
+
+        this.red = 1.0F;
+        this.green = 1.0F;
+        this.blue = 1.0F;
+    }
+}
@@ -6,14 +6,26 @@ public class PerlinNoiseFilter {
 
     private static final int FUZZINESS = 16;
     private final int octave;
+    private final long seed;
 
     /**
-     * Perlin noise generator
+     * Perlin noise generator with a random seed
      *
      * @param octave The strength of the noise
      */
     public PerlinNoiseFilter(int octave) {
+        this(octave, new Random().nextLong());
+    }
+
+    /**
+     * Perlin noise generator, the same seed always reads the same noise map
+     *
+     * @param octave The strength of the noise
+     * @param seed   Seed of the random values
+     */
+    public PerlinNoiseFilter(int octave, long seed) {
         this.octave = octave;
+        this.seed = seed;
     }
 
     /**
@@ -24,7 +36,7 @@ public class PerlinNoiseFilter {
      * @return Noise map
      */
     public int[] read(int width, int height) {
-        Random random = new Random();
+        Random random = new Random(this.seed);
 
         int[] table = new int[width * height];
 
@@ -0,0 +1,376 @@
+package com.mojang.minecraft.level;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+public class RegionFile implements Closeable {
+
+    private static final int MAGIC = 0x52474E31;
+    private static final int VERSION = 1;
+
+    /**
+     * Magic, version, width, height, depth, seed, section count
+     */
+    private static final int HEADER_SIZE = 4 * 5 + 8 + 4;
+
+    /**
+     * Offset, compressed length, allocated capacity, uniform tile id
+     */
+    private static final int ENTRY_SIZE = 8 + 4 + 4 + 4;
+
+    /**
+     * Uniform tile id of a section that isn't stored yet
+     */
+    private static final int MISSING = -2;
+
+    private final FileChannel channel;
+    private final int sectionCount;
+
+    /**
+     * Section table, mirrors the table in the file
+     */
+    private final long[] offsets;
+    private final int[] lengths;
+    private final int[] capacities;
+    private final int[] uniformTiles;
+
+    private long seed;
+    private long endOfFile;
+
+    /**
+     * Level file with independently compressed sections.
+     * The header holds the level size, the seed and a table with the location of each section.
+     * Uniform sections only store their tile id in the table, all other sections store their tile ids deflated.
+     * A rewritten section stays at its location if it still fits, otherwise it's appended to the end of the file.
+     * <p>
+     * Sections can be read and written in any order, reads are safe from multiple threads.
+     *
+     * @param path   Path of the file, it's created if it doesn't exist
+     * @param width  Level width
+     * @param height Level height
+     * @param depth  Level depth
+     * @throws IOException If the file can't be opened or belongs to a level of another size
+     */
+    public RegionFile(Path path, int width, int height, int depth) throws IOException {
+        this(path, width, height, depth, false);
+    }
+
+    /**
+     * Open a region file
+     *
+     * @param path     Path of the file
+     * @param width    Level width
+     * @param height   Level height
+     * @param depth    Level depth
+     * @param readOnly Open an existing file for reading only, otherwise it's created if it doesn't exist
+     * @throws IOException If the file can't be opened or belongs to a level of another size
+     */
+    public RegionFile(Path path, int width, int height, int depth, boolean readOnly) throws IOException {
+        this.channel = readOnly
+                ? FileChannel.open(path, StandardOpenOption.READ)
+                : FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        int sectionAmountX = (width + LevelSection.SIZE - 1) >> LevelSection.SIZE_BITS;
+        int sectionAmountY = (depth + LevelSection.SIZE - 1) >> LevelSection.SIZE_BITS;
+        int sectionAmountZ = (height + LevelSection.SIZE - 1) >> LevelSection.SIZE_BITS;
+        this.sectionCount = sectionAmountX * sectionAmountY * sectionAmountZ;
+
+        this.offsets = new long[this.sectionCount];
+        this.lengths = new int[this.sectionCount];
+        this.capacities = new int[this.sectionCount];
+        this.uniformTiles = new int[this.sectionCount];
+
+        try {
+            if (this.channel.size() == 0) {
+                create(width, height, depth);
+            } else {
+                readHeader(width, height, depth);
+            }
+        } catch (IOException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    private void create(int width, int height, int depth) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height).putInt(depth).putLong(0L).putInt(this.sectionCount);
+        header.flip();
+        writeFully(header, 0L);
+
+        // Empty section table
+        ByteBuffer table = ByteBuffer.allocate(this.sectionCount * ENTRY_SIZE);
+        for (int i = 0; i < this.sectionCount; i++) {
+            this.uniformTiles[i] = MISSING;
+            table.putLong(0L).putInt(0).putInt(0).putInt(MISSING);
+        }
+        table.flip();
+        writeFully(table, HEADER_SIZE);
+        this.endOfFile = getEntryPosition(this.sectionCount);
+    }
+
+    private void readHeader(int width, int height, int depth) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(header, 0L);
+        header.flip();
+
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not a region file");
+        }
+        if (header.getInt() != width || header.getInt() != height || header.getInt() != depth) {
+            throw new IOException("Region file belongs to a level of another size");
+        }
+        this.seed = header.getLong();
+        if (header.getInt() != this.sectionCount) {
+            throw new IOException("Corrupt section count");
+        }
+
+        // Read section table
+        ByteBuffer table = ByteBuffer.allocate(this.sectionCount * ENTRY_SIZE);
+        readFully(table, HEADER_SIZE);
+        table.flip();
+
+        this.endOfFile = getEntryPosition(this.sectionCount);
+        for (int i = 0; i < this.sectionCount; i++) {
+            this.offsets[i] = table.getLong();
+            this.lengths[i] = table.getInt();
+            this.capacities[i] = table.getInt();
+            this.uniformTiles[i] = table.getInt();
+            this.endOfFile = Math.max(this.endOfFile, this.offsets[i] + this.capacities[i]);
+        }
+    }
+
+    /**
+     * Check if a section is stored in the file
+     *
+     * @param index Index of the section in the level section array
+     * @return Section was written before
+     */
+    public boolean hasSection(int index) {
+        return this.uniformTiles[index] != MISSING;
+    }
+
+    /**
+     * Read a section from the file
+     *
+     * @param index   Index of the section in the level section array
+     * @param section Target section, it's overwritten entirely
+     * @return The section was stored in the file
+     * @throws IOException If the section can't be read
+     */
+    public boolean readSection(int index, LevelSection section) throws IOException {
+        int uniformTile = this.uniformTiles[index];
+        if (uniformTile == MISSING) {
+            return false;
+        }
+
+        // Uniform sections are stored in the table
+        if (uniformTile >= 0) {
+            section.fill(uniformTile);
+            return true;
+        }
+
+        ByteBuffer compressed = ByteBuffer.allocate(this.lengths[index]);
+        readFully(compressed, this.offsets[index]);
+
+        // Inflate tile ids
+        byte[] tiles = new byte[LevelSection.VOLUME];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed.array());
+            if (inflater.inflate(tiles) != tiles.length) {
+                throw new IOException("Corrupt section " + index);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt section " + index, e);
+        } finally {
+            inflater.end();
+        }
+
+        section.fill(tiles[0] & 0xFF);
+        for (int i = 1; i < LevelSection.VOLUME; i++) {
+            section.setTile(i, tiles[i] & 0xFF);
+        }
+        return true;
+    }
+
+    /**
+     * Write a section into the file
+     *
+     * @param index   Index of the section in the level section array
+     * @param section The section
+     * @throws IOException If the section can't be written
+     */
+    public void writeSection(int index, LevelSection section) throws IOException {
+        int uniformTile = section.getUniformTile();
+        if (uniformTile >= 0) {
+            // Keep the allocated space for the next write of this section
+            this.lengths[index] = 0;
+            this.uniformTiles[index] = uniformTile;
+            writeEntry(index);
+            return;
+        }
+
+        byte[] tiles = new byte[LevelSection.VOLUME];
+        for (int i = 0; i < LevelSection.VOLUME; i++) {
+            tiles[i] = (byte) section.getTile(i);
+        }
+        writeSection(index, compress(tiles));
+    }
+
+    /**
+     * Write the compressed tile ids of a section into the file
+     *
+     * @param index      Index of the section in the level section array
+     * @param compressed Deflated tile ids
+     * @throws IOException If the section can't be written
+     */
+    public void writeSection(int index, byte[] compressed) throws IOException {
+        // Append the section if it doesn't fit into its previous location
+        if (compressed.length > this.capacities[index]) {
+            this.offsets[index] = this.endOfFile;
+            this.capacities[index] = compressed.length;
+            this.endOfFile += compressed.length;
+        }
+
+        writeFully(ByteBuffer.wrap(compressed), this.offsets[index]);
+
+        this.lengths[index] = compressed.length;
+        this.uniformTiles[index] = -1;
+        writeEntry(index);
+    }
+
+    /**
+     * Copy a stored section from another region file of the same level size without decompressing it
+     *
+     * @param source Region file to copy from
+     * @param index  Index of the section in the level section array
+     * @return The section was stored in the source file
+     * @throws IOException If the section can't be copied
+     */
+    public boolean copySection(RegionFile source, int index) throws IOException {
+        int uniformTile = source.uniformTiles[index];
+        if (uniformTile == MISSING) {
+            return false;
+        }
+
+        if (uniformTile >= 0) {
+            this.lengths[index] = 0;
+            this.uniformTiles[index] = uniformTile;
+            writeEntry(index);
+            return true;
+        }
+
+        ByteBuffer compressed = ByteBuffer.allocate(source.lengths[index]);
+        source.readFully(compressed, source.offsets[index]);
+        writeSection(index, compressed.array());
+        return true;
+    }
+
+    /**
+     * Deflate the tile ids of a section
+     *
+     * @param tiles Tile ids of the section
+     * @return Compressed tile ids
+     */
+    public static byte[] compress(byte[] tiles) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(tiles);
+            deflater.finish();
+
+            byte[] buffer = new byte[LevelSection.VOLUME + 64];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            return Arrays.copyOf(buffer, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Seed of the level generator
+     *
+     * @return Stored seed
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Store the seed of the level generator
+     *
+     * @param seed Generator seed
+     * @throws IOException If the header can't be written
+     */
+    public void setSeed(long seed) throws IOException {
+        this.seed = seed;
+
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.putLong(seed).flip();
+        writeFully(buffer, 4 * 5);
+    }
+
+    /**
+     * Amount of sections in the level
+     *
+     * @return Section count
+     */
+    public int getSectionCount() {
+        return this.sectionCount;
+    }
+
+    /**
+     * Write all changes to the storage device
+     *
+     * @throws IOException If the file can't be synchronized
+     */
+    public void flush() throws IOException {
+        this.channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private void writeEntry(int index) throws IOException {
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE);
+        entry.putLong(this.offsets[index]).putInt(this.lengths[index]).putInt(this.capacities[index]).putInt(this.uniformTiles[index]);
+        entry.flip();
+        writeFully(entry, getEntryPosition(index));
+    }
+
+    private static long getEntryPosition(int index) {
+        return HEADER_SIZE + (long) index * ENTRY_SIZE;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = this.channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of region file");
+            }
+            position += read;
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += this.channel.write(buffer, position);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.mojang.minecraft.level;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+public class ScheduledTickQueue {
+
+    /**
+     * Binary min heap of the scheduled ticks, sorted by the game tick and then by the schedule order
+     */
+    private long[] ticks = new long[64];
+    private long[] orders = new long[64];
+    private int[] positions = new int[64];
+    private int size;
+
+    /**
+     * Positions with a pending scheduled tick
+     */
+    private final BitSet scheduled;
+    private long nextOrder;
+
+    /**
+     * Tile ticks scheduled for a specific game tick. Each position can only be scheduled once,
+     * scheduling it again before it was processed keeps the earlier tick.
+     * Ticks scheduled for the same game tick are processed in the order they were scheduled.
+     *
+     * @param volume Amount of tile positions in the level
+     */
+    public ScheduledTickQueue(int volume) {
+        this.scheduled = new BitSet(volume);
+    }
+
+    /**
+     * Schedule a tick of a tile position
+     *
+     * @param position Tile position index
+     * @param tick     Game tick at which the tile is ticked
+     * @return The position wasn't scheduled yet
+     */
+    public boolean schedule(int position, long tick) {
+        if (this.scheduled.get(position)) {
+            return false;
+        }
+        this.scheduled.set(position);
+
+        if (this.size == this.ticks.length) {
+            this.ticks = Arrays.copyOf(this.ticks, this.size * 2);
+            this.orders = Arrays.copyOf(this.orders, this.size * 2);
+            this.positions = Arrays.copyOf(this.positions, this.size * 2);
+        }
+
+        this.ticks[this.size] = tick;
+        this.orders[this.size] = this.nextOrder++;
+        this.positions[this.size] = position;
+        siftUp(this.size++);
+        return true;
+    }
+
+    /**
+     * Check if the next scheduled tick is due
+     *
+     * @param tick The current game tick
+     * @return A tick is scheduled at or before the given game tick
+     */
+    public boolean hasDue(long tick) {
+        return this.size > 0 && this.ticks[0] <= tick;
+    }
+
+    /**
+     * Remove the next scheduled tick. The position can be scheduled again right away
+     *
+     * @return Tile position index of the next scheduled tick
+     */
+    public int poll() {
+        int position = this.positions[0];
+        this.scheduled.clear(position);
+
+        // Move last entry to the top
+        this.size--;
+        if (this.size > 0) {
+            move(this.size, 0);
+            siftDown(0);
+        }
+        return position;
+    }
+
+    /**
+     * Check if a tile position has a pending scheduled tick
+     *
+     * @param position Tile position index
+     * @return Position is scheduled
+     */
+    public boolean isScheduled(int position) {
+        return this.scheduled.get(position);
+    }
+
+    /**
+     * Amount of pending scheduled ticks
+     *
+     * @return Scheduled tick count
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Remove all scheduled ticks
+     */
+    public void clear() {
+        this.scheduled.clear();
+        this.size = 0;
+    }
+
+    private boolean isBefore(int index, int otherIndex) {
+        if (this.ticks[index] != this.ticks[otherIndex]) {
+            return this.ticks[index] < this.ticks[otherIndex];
+        }
+        return this.orders[index] < this.orders[otherIndex];
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            if (!isBefore(index, parentIndex)) {
+                break;
+            }
+
+            swap(index, parentIndex);
+            index = parentIndex;
+        }
+    }
+
+    private void siftDown(int index) {
+        int half = this.size >>> 1;
+        while (index < half) {
+            int childIndex = 2 * index + 1;
+            int rightIndex = childIndex + 1;
+            if (rightIndex < this.size && isBefore(rightIndex, childIndex)) {
+                childIndex = rightIndex;
+            }
+            if (!isBefore(childIndex, index)) {
+                break;
+            }
+
+            swap(index, childIndex);
+            index = childIndex;
+        }
+    }
+
+    private void move(int from, int to) {
+        this.ticks[to] = this.ticks[from];
+        this.orders[to] = this.orders[from];
+        this.positions[to] = this.positions[from];
+    }
+
+    private void swap(int index, int otherIndex) {
+        long tick = this.ticks[index];
+        long order = this.orders[index];
+        int position = this.positions[index];
+        move(otherIndex, index);
+        this.ticks[otherIndex] = tick;
+        this.orders[otherIndex] = order;
+        this.positions[otherIndex] = position;
+    }
+}
@@ -6,7 +6,7 @@ import java.nio.FloatBuffer;
 
 import static org.lwjgl.opengl.GL11.*;
 
-public class Tessellator {
+public class Tessellator implements VertexSink {
 
     private static final int MAX_VERTICES = 100000;
 
@@ -41,6 +41,7 @@ public class Tessellator {
      * @param y Vertex point y
      * @param z Vertex point z
      */
+    @Override
     public void vertex(float x, float y, float z) {
         // Vertex
         this.vertexBuffer.put(this.vertices * 3, x);
@@ -68,26 +69,13 @@ public class Tessellator {
         }
     }
 
-    /**
-     * Add a vertex and set the texture UV mappings
-     *
-     * @param x        Vertex point x
-     * @param y        Vertex point y
-     * @param z        Vertex point z
-     * @param textureU Texture U point
-     * @param textureV Texture V point
-     */
-    public void vertexUV(float x, float y, float z, float textureU, float textureV) {
-        texture(textureU, textureV);
-        vertex(x, y, z);
-    }
-
     /**
      * Set texture UV mappings
      *
      * @param textureU Texture U point
      * @param textureV Texture V point
      */
+    @Override
     public void texture(float textureU, float textureV) {
         this.hasTexture = true;
         this.textureU = textureU;
@@ -101,6 +89,7 @@ public class Tessellator {
      * @param green Green (0.0 - 1.0)
      * @param blue  Blue (0.0 - 1.0)
      */
+    @Override
     public void color(float red, float green, float blue) {
         this.hasColor = true;
         this.red = red;
@@ -147,6 +136,16 @@ public class Tessellator {
         clear();
     }
 
+    /**
+     * Amount of vertices in the buffer
+     *
+     * @return Vertex count since the last reset
+     */
+    @Override
+    public int getVertices() {
+        return this.vertices;
+    }
+
     /**
      * Reset vertex buffer
      */
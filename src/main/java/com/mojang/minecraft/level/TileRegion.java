@@ -0,0 +1,76 @@
+package com.mojang.minecraft.level;
+
+import java.util.Arrays;
+
+public class TileRegion {
+
+    public final int width;
+    public final int height;
+    public final int depth;
+
+    /**
+     * Tile ids in the level.dat order (y, z, x)
+     */
+    private final byte[] tiles;
+
+    /**
+     * A box of tile ids that was copied out of a level and can be pasted into a level
+     *
+     * @param width  Size on the x axis
+     * @param height Size on the z axis
+     * @param depth  Size on the y axis
+     */
+    public TileRegion(int width, int height, int depth) {
+        this.width = width;
+        this.height = height;
+        this.depth = depth;
+        this.tiles = new byte[width * height * depth];
+    }
+
+    /**
+     * Get the tile id at a position relative to the region
+     *
+     * @param x Region position x
+     * @param y Region position y
+     * @param z Region position z
+     * @return Tile id
+     */
+    public int getTile(int x, int y, int z) {
+        return this.tiles[(y * this.height + z) * this.width + x] & 0xFF;
+    }
+
+    /**
+     * Set the tile id at a position relative to the region
+     *
+     * @param x  Region position x
+     * @param y  Region position y
+     * @param z  Region position z
+     * @param id Tile id
+     */
+    public void setTile(int x, int y, int z, int id) {
+        this.tiles[(y * this.height + z) * this.width + x] = (byte) id;
+    }
+
+    /**
+     * Tile ids of the region in the level.dat order (y, z, x)
+     *
+     * @return Backing array of the region
+     */
+    byte[] getTiles() {
+        return this.tiles;
+    }
+
+    /**
+     * Set a row of tiles along the x axis to the same id
+     *
+     * @param minX First region position x
+     * @param maxX Last region position x
+     * @param y    Region position y
+     * @param z    Region position z
+     * @param id   Tile id
+     */
+    public void fillRow(int minX, int maxX, int y, int z, int id) {
+        int offset = (y * this.height + z) * this.width;
+        Arrays.fill(this.tiles, offset + minX, offset + maxX + 1, (byte) id);
+    }
+}
@@ -0,0 +1,51 @@
+package com.mojang.minecraft.level;
+
+public interface VertexSink {
+
+    /**
+     * Add a vertex point
+     *
+     * @param x Vertex point x
+     * @param y Vertex point y
+     * @param z Vertex point z
+     */
+    void vertex(float x, float y, float z);
+
+    /**
+     * Add a vertex and set the texture UV mappings
+     *
+     * @param x        Vertex point x
+     * @param y        Vertex point y
+     * @param z        Vertex point z
+     * @param textureU Texture U point
+     * @param textureV Texture V point
+     */
+    default void vertexUV(float x, float y, float z, float textureU, float textureV) {
+        texture(textureU, textureV);
+        vertex(x, y, z);
+    }
+
+    /**
+     * Set texture UV mappings of the following vertices
+     *
+     * @param textureU Texture U point
+     * @param textureV Texture V point
+     */
+    void texture(float textureU, float textureV);
+
+    /**
+     * Set the RGB color of the following vertices
+     *
+     * @param red   Red (0.0 - 1.0)
+     * @param green Green (0.0 - 1.0)
+     * @param blue  Blue (0.0 - 1.0)
+     */
+    void color(float red, float green, float blue);
+
+    /**
+     * Amount of vertices in the sink
+     *
+     * @return Vertex count since the last reset
+     */
+    int getVertices();
+}
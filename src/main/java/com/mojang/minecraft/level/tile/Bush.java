@@ -1,7 +1,7 @@
 package com.mojang.minecraft.level.tile;
 
 import com.mojang.minecraft.level.Level;
-import com.mojang.minecraft.level.Tessellator;
+import com.mojang.minecraft.level.VertexSink;
 import com.mojang.minecraft.phys.AABB;
 
 import java.util.Random;
@@ -22,21 +22,36 @@ public class Bush extends Tile {
 
     @Override
     public void onTick(Level level, int x, int y, int z, Random random) {
-        int tileIdBelow = level.getTile(x, y - 1, z);
+        checkSupport(level, x, y, z);
+    }
+
+    @Override
+    public void onScheduledTick(Level level, int x, int y, int z, Random random) {
+        checkSupport(level, x, y, z);
+    }
 
-        // Destroy bush if there is no light or no dirt/grass below it
+    @Override
+    public void onNeighbourChanged(Level level, int x, int y, int z) {
+        level.scheduleTick(x, y, z, 1);
+    }
+
+    @Override
+    public void onLightChanged(Level level, int x, int y, int z) {
+        level.scheduleTick(x, y, z, 1);
+    }
+
+    /**
+     * Destroy the bush if there is no light or no dirt/grass below it
+     */
+    private void checkSupport(Level level, int x, int y, int z) {
+        int tileIdBelow = level.getTile(x, y - 1, z);
         if (!level.isLit(x, y, z) || (tileIdBelow != Tile.dirt.id && tileIdBelow != Tile.grass.id)) {
             level.setTile(x, y, z, 0);
         }
     }
 
     @Override
-    public void render(Tessellator tessellator, Level level, int layer, int x, int y, int z) {
-        // Render in correct layer
-        if (level.isLit(x, y, z) ^ layer != 1) {
-            return;
-        }
-
+    public void render(VertexSink vertexSink, Level level, int x, int y, int z) {
         // Texture id
         int textureId = this.getTexture(this.textureId);
 
@@ -46,8 +61,9 @@ public class Bush extends Tile {
         float maxU = (float) (textureId / 16) / 16.0F;
         float maxV = maxU + 999 / 16000.0F;
 
-        // Color
-        tessellator.color(1.0F, 1.0F, 1.0F);
+        // Color of the light level at the bush
+        float brightness = level.getBrightness(x, y, z);
+        vertexSink.color(brightness, brightness, brightness);
 
         // Two sides
         for (int i = 0; i < 2; i++) {
@@ -65,20 +81,20 @@ public class Bush extends Tile {
             float maxZ = z + 0.5F + cos;
 
             // Render bush side
-            tessellator.vertexUV(minX, maxY, minZ, minV, maxU);
-            tessellator.vertexUV(maxX, maxY, maxZ, minU, maxU);
-            tessellator.vertexUV(maxX, minY, maxZ, minU, maxV);
-            tessellator.vertexUV(minX, minY, minZ, minV, maxV);
-            tessellator.vertexUV(maxX, maxY, maxZ, minU, maxU);
-            tessellator.vertexUV(minX, maxY, minZ, minV, maxU);
-            tessellator.vertexUV(minX, minY, minZ, minV, maxV);
-            tessellator.vertexUV(maxX, minY, maxZ, minU, maxV);
+            vertexSink.vertexUV(minX, maxY, minZ, minV, maxU);
+            vertexSink.vertexUV(maxX, maxY, maxZ, minU, maxU);
+            vertexSink.vertexUV(maxX, minY, maxZ, minU, maxV);
+            vertexSink.vertexUV(minX, minY, minZ, minV, maxV);
+            vertexSink.vertexUV(maxX, maxY, maxZ, minU, maxU);
+            vertexSink.vertexUV(minX, maxY, minZ, minV, maxU);
+            vertexSink.vertexUV(minX, minY, minZ, minV, maxV);
+            vertexSink.vertexUV(maxX, minY, maxZ, minU, maxV);
         }
     }
 
     @Override
-    public AABB getAABB(int x, int y, int z) {
-        return null;
+    public boolean getAABB(int x, int y, int z, AABB target) {
+        return false;
     }
 
     @Override
@@ -6,6 +6,11 @@ import java.util.Random;
 
 public class GrassTile extends Tile {
 
+    /**
+     * Game ticks until grass turns into dirt after it lost the sunlight
+     */
+    private static final int DECAY_DELAY = 20;
+
     /**
      * Create a grass tile with the id
      *
@@ -18,11 +23,24 @@ public class GrassTile extends Tile {
     }
 
     @Override
-    protected int getTexture(int face) {
+    public int getTexture(int face) {
         // Texture mapping of the grass tile
         return face == 1 ? 0 : face == 0 ? 2 : 3;
     }
 
+    @Override
+    public void onLightChanged(Level level, int x, int y, int z) {
+        level.scheduleTick(x, y, z, DECAY_DELAY);
+    }
+
+    @Override
+    public void onScheduledTick(Level level, int x, int y, int z, Random random) {
+        // Set tile to dirt if there is still no sunlight
+        if (!level.isLit(x, y, z)) {
+            level.setTile(x, y, z, Tile.dirt.id);
+        }
+    }
+
     @Override
     public void onTick(Level level, int x, int y, int z, Random random) {
         if (level.isLit(x, y, z)) {
@@ -1,7 +1,7 @@
 package com.mojang.minecraft.level.tile;
 
 import com.mojang.minecraft.level.Level;
-import com.mojang.minecraft.level.Tessellator;
+import com.mojang.minecraft.level.VertexSink;
 import com.mojang.minecraft.particle.Particle;
 import com.mojang.minecraft.particle.ParticleEngine;
 import com.mojang.minecraft.phys.AABB;
@@ -49,54 +49,68 @@ public class Tile {
     /**
      * Render a tile at the given position
      *
-     * @param tessellator Tessellator for rendering
+     * @param vertexSink  Target of the vertices
      * @param level       Level to check for surrounding tiles
-     * @param layer       The layer which decides if it's a shadow or not
      * @param x           Tile position x
      * @param y           Tile position y
      * @param z           Tile position z
      */
-    public void render(Tessellator tessellator, Level level, int layer, int x, int y, int z) {
+    public void render(VertexSink vertexSink, Level level, int x, int y, int z) {
         float shadeX = 0.6f;
         float shadeY = 1.0f;
         float shadeZ = 0.8f;
 
+        // Each face is lit by the light level of the tile in front of it
         // Render bottom face
-        if (shouldRenderFace(level, x, y - 1, z, layer)) {
-            tessellator.color(shadeY, shadeY, shadeY);
-            renderFace(tessellator, x, y, z, 0);
+        if (shouldRenderFace(level, x, y - 1, z)) {
+            float brightness = shadeY * level.getBrightness(x, y - 1, z);
+            vertexSink.color(brightness, brightness, brightness);
+            renderFace(vertexSink, x, y, z, 0);
         }
 
         // Render top face
-        if (shouldRenderFace(level, x, y + 1, z, layer)) {
-            tessellator.color(shadeY, shadeY, shadeY);
-            renderFace(tessellator, x, y, z, 1);
+        if (shouldRenderFace(level, x, y + 1, z)) {
+            float brightness = shadeY * level.getBrightness(x, y + 1, z);
+            vertexSink.color(brightness, brightness, brightness);
+            renderFace(vertexSink, x, y, z, 1);
         }
 
         // Render side faces Z
-        if (shouldRenderFace(level, x, y, z - 1, layer)) {
-            tessellator.color(shadeZ, shadeZ, shadeZ);
-            renderFace(tessellator, x, y, z, 2);
+        if (shouldRenderFace(level, x, y, z - 1)) {
+            float brightness = shadeZ * level.getBrightness(x, y, z - 1);
+            vertexSink.color(brightness, brightness, brightness);
+            renderFace(vertexSink, x, y, z, 2);
         }
-        if (shouldRenderFace(level, x, y, z + 1, layer)) {
-            tessellator.color(shadeZ, shadeZ, shadeZ);
-            renderFace(tessellator, x, y, z, 3);
+        if (shouldRenderFace(level, x, y, z + 1)) {
+            float brightness = shadeZ * level.getBrightness(x, y, z + 1);
+            vertexSink.color(brightness, brightness, brightness);
+            renderFace(vertexSink, x, y, z, 3);
         }
 
         // Render side faces X
-        if (shouldRenderFace(level, x - 1, y, z, layer)) {
-            tessellator.color(shadeX, shadeX, shadeX);
-            renderFace(tessellator, x, y, z, 4);
+        if (shouldRenderFace(level, x - 1, y, z)) {
+            float brightness = shadeX * level.getBrightness(x - 1, y, z);
+            vertexSink.color(brightness, brightness, brightness);
+            renderFace(vertexSink, x, y, z, 4);
         }
-        if (shouldRenderFace(level, x + 1, y, z, layer)) {
-            tessellator.color(shadeX, shadeX, shadeX);
-            renderFace(tessellator, x, y, z, 5);
+        if (shouldRenderFace(level, x + 1, y, z)) {
+            float brightness = shadeX * level.getBrightness(x + 1, y, z);
+            vertexSink.color(brightness, brightness, brightness);
+            renderFace(vertexSink, x, y, z, 5);
         }
     }
 
-    private boolean shouldRenderFace(Level level, int x, int y, int z, int layer) {
-        // Don't render face when both conditions are the same (isShadowLayer != isFullBrightness)
-        return !level.isSolidTile(x, y, z) && (level.isLit(x, y, z) ^ layer == 1);
+    /**
+     * Check if a face next to the given neighbour position is visible
+     *
+     * @param level Level to check for the neighbour tile
+     * @param x     Neighbour position x
+     * @param y     Neighbour position y
+     * @param z     Neighbour position z
+     * @return Face has to be rendered
+     */
+    public boolean shouldRenderFace(Level level, int x, int y, int z) {
+        return !level.isSolidTile(x, y, z);
     }
 
     /**
@@ -105,20 +119,20 @@ public class Tile {
      * @param face Face id
      * @return The texture slot id
      */
-    protected int getTexture(int face) {
+    public int getTexture(int face) {
         return this.textureId;
     }
 
     /**
      * Render the single face of a tile
      *
-     * @param tessellator Tessellator for rendering
+     * @param vertexSink  Target of the vertices
      * @param x           Tile position x
      * @param y           Tile position y
      * @param z           Tile position z
      * @param face        Face id (0:Top, 1:Bottom, ...)
      */
-    public void renderFace(Tessellator tessellator, int x, int y, int z, int face) {
+    public void renderFace(VertexSink vertexSink, int x, int y, int z, int face) {
         // Get texture slot id of this face
         int textureId = getTexture(face);
 
@@ -128,69 +142,84 @@ public class Tile {
         float minV = (float) (textureId / 16) / 16.0F;
         float maxV = minV + 16 / 256F;
 
-        // Vertex points
-        float minX = x + 0.0f;
-        float maxX = x + 1.0f;
-        float minY = y + 0.0f;
-        float maxY = y + 1.0f;
-        float minZ = z + 0.0f;
-        float maxZ = z + 1.0f;
+        // Render face of the tile cube
+        renderFace(vertexSink, face, x, y, z, x + 1, y + 1, z + 1, minU, maxU, minV, maxV);
+    }
 
+    /**
+     * Render a face of a box with the given texture mapping
+     *
+     * @param vertexSink  Target of the vertices
+     * @param face        Face id (0:Top, 1:Bottom, ...)
+     * @param minX        Minimum box position x
+     * @param minY        Minimum box position y
+     * @param minZ        Minimum box position z
+     * @param maxX        Maximum box position x
+     * @param maxY        Maximum box position y
+     * @param maxZ        Maximum box position z
+     * @param minU        Texture U start
+     * @param maxU        Texture U end
+     * @param minV        Texture V start
+     * @param maxV        Texture V end
+     */
+    public static void renderFace(VertexSink vertexSink, int face,
+                                  float minX, float minY, float minZ, float maxX, float maxY, float maxZ,
+                                  float minU, float maxU, float minV, float maxV) {
         // Render bottom face
         if (face == 0) {
-            tessellator.vertexUV(minX, minY, maxZ, minU, maxV);
-            tessellator.vertexUV(minX, minY, minZ, minU, minV);
-            tessellator.vertexUV(maxX, minY, minZ, maxU, minV);
-            tessellator.vertexUV(maxX, minY, maxZ, maxU, maxV);
+            vertexSink.vertexUV(minX, minY, maxZ, minU, maxV);
+            vertexSink.vertexUV(minX, minY, minZ, minU, minV);
+            vertexSink.vertexUV(maxX, minY, minZ, maxU, minV);
+            vertexSink.vertexUV(maxX, minY, maxZ, maxU, maxV);
         }
 
         // Render top face
         if (face == 1) {
-            tessellator.vertexUV(maxX, maxY, maxZ, maxU, maxV);
-            tessellator.vertexUV(maxX, maxY, minZ, maxU, minV);
-            tessellator.vertexUV(minX, maxY, minZ, minU, minV);
-            tessellator.vertexUV(minX, maxY, maxZ, minU, maxV);
+            vertexSink.vertexUV(maxX, maxY, maxZ, maxU, maxV);
+            vertexSink.vertexUV(maxX, maxY, minZ, maxU, minV);
+            vertexSink.vertexUV(minX, maxY, minZ, minU, minV);
+            vertexSink.vertexUV(minX, maxY, maxZ, minU, maxV);
         }
 
         // Render side faces Z
         if (face == 2) {
-            tessellator.vertexUV(minX, maxY, minZ, maxU, minV);
-            tessellator.vertexUV(maxX, maxY, minZ, minU, minV);
-            tessellator.vertexUV(maxX, minY, minZ, minU, maxV);
-            tessellator.vertexUV(minX, minY, minZ, maxU, maxV);
+            vertexSink.vertexUV(minX, maxY, minZ, maxU, minV);
+            vertexSink.vertexUV(maxX, maxY, minZ, minU, minV);
+            vertexSink.vertexUV(maxX, minY, minZ, minU, maxV);
+            vertexSink.vertexUV(minX, minY, minZ, maxU, maxV);
         }
         if (face == 3) {
-            tessellator.vertexUV(minX, maxY, maxZ, minU, minV);
-            tessellator.vertexUV(minX, minY, maxZ, minU, maxV);
-            tessellator.vertexUV(maxX, minY, maxZ, maxU, maxV);
-            tessellator.vertexUV(maxX, maxY, maxZ, maxU, minV);
+            vertexSink.vertexUV(minX, maxY, maxZ, minU, minV);
+            vertexSink.vertexUV(minX, minY, maxZ, minU, maxV);
+            vertexSink.vertexUV(maxX, minY, maxZ, maxU, maxV);
+            vertexSink.vertexUV(maxX, maxY, maxZ, maxU, minV);
         }
 
         // Render side faces X
         if (face == 4) {
-            tessellator.vertexUV(minX, maxY, maxZ, maxU, minV);
-            tessellator.vertexUV(minX, maxY, minZ, minU, minV);
-            tessellator.vertexUV(minX, minY, minZ, minU, maxV);
-            tessellator.vertexUV(minX, minY, maxZ, maxU, maxV);
+            vertexSink.vertexUV(minX, maxY, maxZ, maxU, minV);
+            vertexSink.vertexUV(minX, maxY, minZ, minU, minV);
+            vertexSink.vertexUV(minX, minY, minZ, minU, maxV);
+            vertexSink.vertexUV(minX, minY, maxZ, maxU, maxV);
         }
         if (face == 5) {
-            tessellator.vertexUV(maxX, minY, maxZ, minU, maxV);
-            tessellator.vertexUV(maxX, minY, minZ, maxU, maxV);
-            tessellator.vertexUV(maxX, maxY, minZ, maxU, minV);
-            tessellator.vertexUV(maxX, maxY, maxZ, minU, minV);
+            vertexSink.vertexUV(maxX, minY, maxZ, minU, maxV);
+            vertexSink.vertexUV(maxX, minY, minZ, maxU, maxV);
+            vertexSink.vertexUV(maxX, maxY, minZ, maxU, minV);
+            vertexSink.vertexUV(maxX, maxY, maxZ, minU, minV);
         }
     }
 
     /**
      * Render the single face of a tile without a texture
      *
-     * @param tessellator Tessellator for rendering
+     * @param vertexSink  Target of the vertices
      * @param x           Tile position x
      * @param y           Tile position y
      * @param z           Tile position z
      * @param face        Face id (0:Top, 1:Bottom, ...)
      */
-    public void renderFaceNoTexture(Tessellator tessellator, int x, int y, int z, int face) {
+    public void renderFaceNoTexture(VertexSink vertexSink, int x, int y, int z, int face) {
         float minX = x + 0.0f;
         float maxX = x + 1.0f;
         float minY = y + 0.0f;
@@ -200,40 +229,40 @@ public class Tile {
 
         // Render face
         if (face == 0) {
-            tessellator.vertex(minX, minY, maxZ);
-            tessellator.vertex(minX, minY, minZ);
-            tessellator.vertex(maxX, minY, minZ);
-            tessellator.vertex(maxX, minY, maxZ);
+            vertexSink.vertex(minX, minY, maxZ);
+            vertexSink.vertex(minX, minY, minZ);
+            vertexSink.vertex(maxX, minY, minZ);
+            vertexSink.vertex(maxX, minY, maxZ);
         }
         if (face == 1) {
-            tessellator.vertex(maxX, maxY, maxZ);
-            tessellator.vertex(maxX, maxY, minZ);
-            tessellator.vertex(minX, maxY, minZ);
-            tessellator.vertex(minX, maxY, maxZ);
+            vertexSink.vertex(maxX, maxY, maxZ);
+            vertexSink.vertex(maxX, maxY, minZ);
+            vertexSink.vertex(minX, maxY, minZ);
+            vertexSink.vertex(minX, maxY, maxZ);
         }
         if (face == 2) {
-            tessellator.vertex(minX, maxY, minZ);
-            tessellator.vertex(maxX, maxY, minZ);
-            tessellator.vertex(maxX, minY, minZ);
-            tessellator.vertex(minX, minY, minZ);
+            vertexSink.vertex(minX, maxY, minZ);
+            vertexSink.vertex(maxX, maxY, minZ);
+            vertexSink.vertex(maxX, minY, minZ);
+            vertexSink.vertex(minX, minY, minZ);
         }
         if (face == 3) {
-            tessellator.vertex(minX, maxY, maxZ);
-            tessellator.vertex(minX, minY, maxZ);
-            tessellator.vertex(maxX, minY, maxZ);
-            tessellator.vertex(maxX, maxY, maxZ);
+            vertexSink.vertex(minX, maxY, maxZ);
+            vertexSink.vertex(minX, minY, maxZ);
+            vertexSink.vertex(maxX, minY, maxZ);
+            vertexSink.vertex(maxX, maxY, maxZ);
         }
         if (face == 4) {
-            tessellator.vertex(minX, maxY, maxZ);
-            tessellator.vertex(minX, maxY, minZ);
-            tessellator.vertex(minX, minY, minZ);
-            tessellator.vertex(minX, minY, maxZ);
+            vertexSink.vertex(minX, maxY, maxZ);
+            vertexSink.vertex(minX, maxY, minZ);
+            vertexSink.vertex(minX, minY, minZ);
+            vertexSink.vertex(minX, minY, maxZ);
         }
         if (face == 5) {
-            tessellator.vertex(maxX, minY, maxZ);
-            tessellator.vertex(maxX, minY, minZ);
-            tessellator.vertex(maxX, maxY, minZ);
-            tessellator.vertex(maxX, maxY, maxZ);
+            vertexSink.vertex(maxX, minY, maxZ);
+            vertexSink.vertex(maxX, minY, minZ);
+            vertexSink.vertex(maxX, maxY, minZ);
+            vertexSink.vertex(maxX, maxY, maxZ);
         }
     }
 
@@ -250,6 +279,43 @@ public class Tile {
         // No implementation
     }
 
+    /**
+     * Ticked at the game tick requested by Level.scheduleTick
+     *
+     * @param level  Level instance
+     * @param x      Position x of the tile
+     * @param y      Position y of the tile
+     * @param z      Position z of the tile
+     * @param random Random instance
+     */
+    public void onScheduledTick(Level level, int x, int y, int z, Random random) {
+        // No implementation
+    }
+
+    /**
+     * Called when a directly adjacent tile changed its type
+     *
+     * @param level Level instance
+     * @param x     Position x of the tile
+     * @param y     Position y of the tile
+     * @param z     Position z of the tile
+     */
+    public void onNeighbourChanged(Level level, int x, int y, int z) {
+        // No implementation
+    }
+
+    /**
+     * Called when a light blocker was placed above the tile and the tile lost the sunlight
+     *
+     * @param level Level instance
+     * @param x     Position x of the tile
+     * @param y     Position y of the tile
+     * @param z     Position z of the tile
+     */
+    public void onLightChanged(Level level, int x, int y, int z) {
+        // No implementation
+    }
+
     /**
      * Called when a tile gets destroyed by the player
      *
@@ -284,15 +350,17 @@ public class Tile {
     }
 
     /**
-     * Get bounding box of the entire cube
+     * Write the collision box of the tile into an existing box
      *
-     * @param x Tile position x
-     * @param y Tile position y
-     * @param z Tile position z
-     * @return Bounding box of the entire cube
+     * @param x      Tile position x
+     * @param y      Tile position y
+     * @param z      Tile position z
+     * @param target Box that receives the bounds
+     * @return The tile has a collision box
      */
-    public AABB getAABB(int x, int y, int z) {
-        return new AABB(x, y, z, x + 1, y + 1, z + 1);
+    public boolean getAABB(int x, int y, int z, AABB target) {
+        target.set(x, y, z, x + 1, y + 1, z + 1);
+        return true;
     }
 
     /**
@@ -316,6 +384,20 @@ public class Tile {
         return true;
     }
 
+    /**
+     * Tile reacts to random ticks
+     *
+     * @return Returns true if the tile overrides onTick, only tickable tiles are ticked randomly
+     */
+    public boolean isTickable() {
+        try {
+            return getClass().getMethod("onTick", Level.class, int.class, int.class, int.class, Random.class)
+                    .getDeclaringClass() != Tile.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
     /**
      * Tile is solid
      *
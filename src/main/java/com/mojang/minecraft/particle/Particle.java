@@ -42,12 +42,12 @@ public class Particle extends Entity {
         setPosition(x, y, z);
 
         // Set motion and add random values
-        this.motionX = motionX + (Math.random() * 2.0D - 1.0D) * 0.4D;
-        this.motionY = motionY + (Math.random() * 2.0D - 1.0D) * 0.4D;
-        this.motionZ = motionZ + (Math.random() * 2.0D - 1.0D) * 0.4D;
+        this.motionX = motionX + (this.random.nextDouble() * 2.0D - 1.0D) * 0.4D;
+        this.motionY = motionY + (this.random.nextDouble() * 2.0D - 1.0D) * 0.4D;
+        this.motionZ = motionZ + (this.random.nextDouble() * 2.0D - 1.0D) * 0.4D;
 
         // Create random speed
-        double speed = (Math.random() + Math.random() + 1.0D) * 0.15D;
+        double speed = (this.random.nextDouble() + this.random.nextDouble() + 1.0D) * 0.15D;
 
         // Apply speed
         double distance = Math.sqrt(this.motionX * this.motionX + this.motionY * this.motionY + this.motionZ * this.motionZ);
@@ -56,11 +56,11 @@ public class Particle extends Entity {
         this.motionZ = this.motionZ / distance * speed * 0.7D;
 
         // Create random texture offset
-        this.textureUOffset = (float) Math.random() * 3.0F;
-        this.textureVOffset = (float) Math.random() * 3.0F;
+        this.textureUOffset = (float) this.random.nextDouble() * 3.0F;
+        this.textureVOffset = (float) this.random.nextDouble() * 3.0F;
 
-        this.size = (float) (Math.random() * 0.5D + 0.5D);
-        this.lifetime = (int) (4.0D / (Math.random() * 0.9D + 0.1D));
+        this.size = (float) (this.random.nextDouble() * 0.5D + 0.5D);
+        this.lifetime = (int) (4.0D / (this.random.nextDouble() * 0.9D + 0.1D));
     }
 
     @Override
@@ -94,25 +94,22 @@ public class Particle extends Entity {
      * Render particle
      *
      * @param tessellator  Tessellator for rendering
-     * @param partialTicks Ticks for interpolation
+     * @param x            Interpolated position x
+     * @param y            Interpolated position y
+     * @param z            Interpolated position z
      * @param cameraX      Camera rotation X
      * @param cameraY      Camera rotation Y
      * @param cameraZ      Camera rotation Z
      * @param cameraXWithY Additional camera rotation x including the y rotation
      * @param cameraZWithY Additional camera rotation z including the y rotation
      */
-    public void render(Tessellator tessellator, float partialTicks, float cameraX, float cameraY, float cameraZ, float cameraXWithY, float cameraZWithY) {
+    public void render(Tessellator tessellator, float x, float y, float z, float cameraX, float cameraY, float cameraZ, float cameraXWithY, float cameraZWithY) {
         // UV mapping points
         float minU = (this.textureId % 16 + this.textureUOffset / 4.0F) / 16.0F;
         float maxU = minU + 999.0F / 64000.0F;
         float minV = ((float) (this.textureId / 16) + this.textureVOffset / 4.0F) / 16.0F;
         float maxV = minV + 999.0F / 64000.0F;
 
-        // Interpolate position
-        float x = (float) (this.prevX + (this.x - this.prevX) * partialTicks);
-        float y = (float) (this.prevY + (this.y - this.prevY) * partialTicks);
-        float z = (float) (this.prevZ + (this.z - this.prevZ) * partialTicks);
-
         // Size of the particle
         float size = this.size * 0.1F;
 
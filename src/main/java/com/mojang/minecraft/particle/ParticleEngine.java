@@ -1,12 +1,13 @@
 package com.mojang.minecraft.particle;
 
+import com.mojang.minecraft.EntitySnapshot;
+import com.mojang.minecraft.EntityTicker;
 import com.mojang.minecraft.Player;
 import com.mojang.minecraft.Textures;
 import com.mojang.minecraft.level.Level;
 import com.mojang.minecraft.level.Tessellator;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 import static org.lwjgl.opengl.GL11.*;
@@ -34,29 +35,30 @@ public class ParticleEngine {
      * Tick all particles and remove dead particles
      */
     public void onTick() {
-        // Tick all particles
-        Iterator<Particle> iterator = this.particles.iterator();
-        while (iterator.hasNext()) {
-            Particle particle = iterator.next();
-
-            // Tick this particle
-            particle.onTick();
-
-            // Remove particle when removed flag is set
-            if (particle.removed) {
-                iterator.remove();
-            }
+        // Tick all particles and remove dead particles
+        EntityTicker.tick(this.particles, null);
+    }
+
+    /**
+     * Capture the state of all particles at the end of a tick
+     *
+     * @param snapshot Target snapshot
+     */
+    public void capture(EntitySnapshot<Particle> snapshot) {
+        for (Particle particle : this.particles) {
+            snapshot.add(particle);
         }
     }
 
     /**
-     * Render all particles
+     * Render all particles of a snapshot
      *
      * @param player       The player
+     * @param tessellator  Tessellator for rendering
+     * @param particles    Captured particles of the last tick
      * @param partialTicks Ticks for interpolation
-     * @param layer        Shadow layer
      */
-    public void render(Player player, Tessellator tessellator, float partialTicks, int layer) {
+    public void render(Player player, Tessellator tessellator, EntitySnapshot<Particle> particles, float partialTicks) {
         glEnable(GL_TEXTURE_2D);
 
         // Bind terrain texture
@@ -73,14 +75,17 @@ public class ParticleEngine {
         double cameraZWithY = cameraX * Math.sin(Math.toRadians(player.xRotation));
 
         // Start rendering
-        glColor4f(0.8F, 0.8F, 0.8F, 1.0F);
         tessellator.init();
 
-        // Render all particles in correct layer
-        for (Particle particle : this.particles) {
-            if (particle.isLit() ^ layer == 1) {
-                particle.render(tessellator, partialTicks, (float) cameraX, (float) cameraY, (float) cameraZ, (float) cameraXWithY, (float) cameraZWithY);
-            }
+        // Render all particles in the light level of their position
+        for (int i = 0; i < particles.size(); i++) {
+            float brightness = 0.8F * particles.getBrightness(i);
+            tessellator.color(brightness, brightness, brightness);
+
+            float x = (float) particles.getX(i, partialTicks);
+            float y = (float) particles.getY(i, partialTicks);
+            float z = (float) particles.getZ(i, partialTicks);
+            particles.getEntity(i).render(tessellator, x, y, z, (float) cameraX, (float) cameraY, (float) cameraZ, (float) cameraXWithY, (float) cameraZWithY);
         }
 
         // Finish rendering
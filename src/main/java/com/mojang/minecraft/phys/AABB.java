@@ -30,6 +30,25 @@ public class AABB {
         this.maxZ = maxZ;
     }
 
+    /**
+     * Set all sides of the bounding box
+     *
+     * @param minX Minimum x side
+     * @param minY Minimum y side
+     * @param minZ Minimum z side
+     * @param maxX Maximum x side
+     * @param maxY Maximum y side
+     * @param maxZ Maximum z side
+     */
+    public void set(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
     /**
      * Copy the current bounding box object
      *
@@ -80,6 +99,27 @@ public class AABB {
         return new AABB(minX, minY, minZ, maxX, maxY, maxZ);
     }
 
+    /**
+     * Expand the bounding box into another box without allocating.
+     * Positive and negative numbers controls which side of the box should grow.
+     *
+     * @param x      Amount to expand the minX or maxX
+     * @param y      Amount to expand the minY or maxY
+     * @param z      Amount to expand the minZ or maxZ
+     * @param target Box that receives the expanded bounds, can be this box
+     * @return The target box
+     */
+    public AABB expand(double x, double y, double z, AABB target) {
+        target.set(
+                x < 0.0F ? this.minX + x : this.minX,
+                y < 0.0F ? this.minY + y : this.minY,
+                z < 0.0F ? this.minZ + z : this.minZ,
+                x < 0.0F ? this.maxX : this.maxX + x,
+                y < 0.0F ? this.maxY : this.maxY + y,
+                z < 0.0F ? this.maxZ : this.maxZ + z);
+        return target;
+    }
+
     /**
      * Expand the bounding box on both sides.
      * The center is always fixed when using grow.
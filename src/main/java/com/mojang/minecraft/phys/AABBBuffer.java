@@ -0,0 +1,115 @@
+package com.mojang.minecraft.phys;
+
+import java.util.Arrays;
+
+public class AABBBuffer {
+
+    /**
+     * Axes on which {@link #clipMove(AABB, double, double, double)} stopped the motion
+     */
+    public static final int COLLIDED_X = 1;
+    public static final int COLLIDED_Y = 2;
+    public static final int COLLIDED_Z = 4;
+
+    private AABB[] boxes = new AABB[32];
+    private int size;
+
+    /**
+     * Growable list of bounding boxes that keeps its boxes after a clear.
+     * Once the buffer reached its largest size, filling it again doesn't allocate.
+     * The boxes are overwritten by the next fill, so they must not be kept.
+     */
+    public AABBBuffer() {
+    }
+
+    /**
+     * Remove all boxes, the box objects are kept for the next fill
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Append a box
+     *
+     * @return Reused box at the end of the buffer, its bounds are undefined
+     */
+    public AABB add() {
+        if (this.size == this.boxes.length) {
+            this.boxes = Arrays.copyOf(this.boxes, this.boxes.length * 2);
+        }
+
+        AABB box = this.boxes[this.size];
+        if (box == null) {
+            box = this.boxes[this.size] = new AABB(0.0, 0.0, 0.0, 0.0, 0.0, 0.0);
+        }
+        this.size++;
+        return box;
+    }
+
+    /**
+     * Remove the last appended box
+     */
+    public void removeLast() {
+        this.size--;
+    }
+
+    /**
+     * Get a box of the buffer
+     *
+     * @param index Index of the box
+     * @return The box
+     */
+    public AABB get(int index) {
+        return this.boxes[index];
+    }
+
+    /**
+     * Move a box by the given motion without entering any box of the buffer.
+     * The motion is clipped on the Y axis first, then on the X and the Z axis
+     *
+     * @param box The moving box, it's moved by the clipped motion
+     * @param x   Motion on the X axis
+     * @param y   Motion on the Y axis
+     * @param z   Motion on the Z axis
+     * @return Flags of the axes on which the motion was clipped
+     */
+    public int clipMove(AABB box, double x, double y, double z) {
+        double clippedX = x;
+        double clippedY = y;
+        double clippedZ = z;
+
+        // Check for Y collision
+        for (int i = 0; i < this.size; i++) {
+            clippedY = this.boxes[i].clipYCollide(box, clippedY);
+        }
+        box.move(0.0F, clippedY, 0.0F);
+
+        // Check for X collision
+        for (int i = 0; i < this.size; i++) {
+            clippedX = this.boxes[i].clipXCollide(box, clippedX);
+        }
+        box.move(clippedX, 0.0F, 0.0F);
+
+        // Check for Z collision
+        for (int i = 0; i < this.size; i++) {
+            clippedZ = this.boxes[i].clipZCollide(box, clippedZ);
+        }
+        box.move(0.0F, 0.0F, clippedZ);
+
+        int collided = 0;
+        if (clippedX != x) collided |= COLLIDED_X;
+        if (clippedY != y) collided |= COLLIDED_Y;
+        if (clippedZ != z) collided |= COLLIDED_Z;
+        return collided;
+    }
+
+    /**
+     * Amount of boxes in the buffer
+     *
+     * @return Box count
+     */
+    public int size() {
+        return this.size;
+    }
+}